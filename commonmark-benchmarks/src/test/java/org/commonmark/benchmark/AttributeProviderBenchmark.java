@@ -0,0 +1,51 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rendering of pre-parsed READMEs without attribute providers and with one that doesn't change anything. Without
+ * attribute providers, the core renderer writes attributes directly instead of creating a map for each tag, so the
+ * difference is the cost of the attribute maps.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class AttributeProviderBenchmark {
+
+    @Param({"none", "provider"})
+    public String config;
+
+    private HtmlRenderer renderer;
+    private List<Node> documents;
+
+    @Setup
+    public void setup() {
+        var builder = HtmlRenderer.builder();
+        if (config.equals("provider")) {
+            builder.attributeProviderFactory(context -> (node, tagName, attributes) -> {
+            });
+        }
+        renderer = builder.build();
+
+        var parser = Parser.builder().build();
+        documents = new ArrayList<>();
+        for (String input : Corpus.readmes()) {
+            documents.add(parser.parse(input));
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        for (Node document : documents) {
+            blackhole.consume(renderer.render(document));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.autolink.AutolinkExtension;
+
+import java.util.List;
+
+/**
+ * Benchmark for {@link AutolinkExtension}.
+ */
+public class AutolinkExtensionBenchmark extends ExtensionBenchmark {
+
+    @Override
+    protected Extension extension() {
+        return AutolinkExtension.create();
+    }
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.autolinkHeavy());
+    }
+}
@@ -0,0 +1,26 @@
+package org.commonmark.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suites. Arguments are passed to JMH, e.g. a regex to select suites such as {@code Tables}.
+ * <p>
+ * The GC profiler is always enabled so that allocation rates ({@code gc.alloc.rate.norm}) are reported next to
+ * throughput. A change in allocations is often easier to spot (and less noisy) than a change in throughput.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        var commandLineOptions = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            options.include(Benchmarks.class.getPackageName() + ".*");
+        }
+        new Runner(options.build()).run();
+    }
+}
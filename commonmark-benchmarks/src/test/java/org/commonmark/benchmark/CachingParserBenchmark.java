@@ -0,0 +1,54 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.parser.CachingParser;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Parsing and rendering the same READMEs again: With a plain {@link Parser}, with a {@link CachingParser} that returns
+ * a copy of the cached document ({@code copy}), and rendering the shared cached document directly ({@code compact}).
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class CachingParserBenchmark {
+
+    @Param({"parse", "copy", "compact"})
+    public String mode;
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder().build();
+    private List<String> inputs;
+    private CachingParser cachingParser;
+
+    @Setup
+    public void setup() {
+        inputs = Corpus.readmes();
+        cachingParser = new CachingParser(parser, 100_000_000);
+        for (String input : inputs) {
+            cachingParser.parseCompact(input);
+        }
+    }
+
+    @Benchmark
+    public void parseAndRender(Blackhole blackhole) {
+        for (String input : inputs) {
+            switch (mode) {
+                case "parse":
+                    blackhole.consume(renderer.render(parser.parse(input)));
+                    break;
+                case "copy":
+                    blackhole.consume(renderer.render(cachingParser.parse(input)));
+                    break;
+                default:
+                    blackhole.consume(renderer.render(cachingParser.parseCompact(input)));
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Chat-sized snippets, e.g. messages or comments. Lots of tiny documents, so per-document overhead dominates.
+ */
+public class ChatSnippetsBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return Corpus.chatSnippets();
+    }
+}
@@ -0,0 +1,365 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.testutil.TestResources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Markdown inputs for the benchmarks, categorized by workload.
+ * <p>
+ * The documents are generated with a fixed seed so that every run (and every release that is compared) sees exactly
+ * the same input. The generated text mimics what real documents of that category look like, e.g. chat messages are
+ * short with the occasional emphasis, code span or link; READMEs have headings, badges, code blocks and lists.
+ */
+public class Corpus {
+
+    private static final String[] WORDS = {
+            "the", "parser", "renders", "a", "document", "with", "some", "text", "and", "links", "to", "other",
+            "pages", "it", "should", "be", "fast", "enough", "for", "most", "use", "cases", "but", "we", "measure",
+            "anyway", "because", "regressions", "happen", "when", "nobody", "looks", "node", "block", "inline",
+            "markdown", "commonmark", "java", "library", "input", "output", "build", "release", "configure",
+            "extension", "table", "footnote", "heading", "list", "quote", "über", "naïve", "café", "日本語"
+    };
+
+    private static final String[] LANGUAGES = {"java", "sh", "xml", "json", "kotlin", ""};
+
+    public static final int INLINE_HEAVY_PARAGRAPHS = 1000;
+
+    private Corpus() {
+    }
+
+    /**
+     * @return many short messages like the ones sent in a chat or posted as comments
+     */
+    public static List<String> chatSnippets() {
+        var random = new Random(1);
+        var snippets = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            var sb = new StringBuilder();
+            switch (random.nextInt(6)) {
+                case 0:
+                    sb.append(sentence(random, 3, 10));
+                    break;
+                case 1:
+                    sb.append(sentence(random, 2, 6)).append(" **").append(words(random, 1, 3)).append("** ")
+                            .append(sentence(random, 2, 6));
+                    break;
+                case 2:
+                    sb.append("Have a look at `").append(word(random)).append("()` in ")
+                            .append("[the docs](https://example.org/").append(word(random)).append(")");
+                    break;
+                case 3:
+                    sb.append(sentence(random, 3, 8)).append("\n").append(sentence(random, 3, 8));
+                    break;
+                case 4:
+                    sb.append("> ").append(sentence(random, 3, 8)).append("\n\n").append(sentence(random, 1, 5));
+                    break;
+                default:
+                    sb.append("- ").append(words(random, 1, 4)).append("\n- ").append(words(random, 1, 4));
+                    break;
+            }
+            snippets.add(sb.toString());
+        }
+        return snippets;
+    }
+
+    /**
+     * @return project READMEs of a few KB each
+     */
+    public static List<String> readmes() {
+        var random = new Random(2);
+        var readmes = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            readmes.add(readme(random));
+        }
+        return readmes;
+    }
+
+    /**
+     * @return a single large document (the spec plus generated READMEs, several MB)
+     */
+    public static String hugeDocument() {
+        var spec = TestResources.readAsString(TestResources.getSpec());
+        var random = new Random(3);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            sb.append(spec).append("\n");
+            for (int j = 0; j < 20; j++) {
+                sb.append(readme(random)).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document with deeply nested block quotes and lists
+     */
+    public static String nestedBlocks() {
+        var random = new Random(4);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            int depth = 5 + random.nextInt(20);
+            for (int d = 0; d < depth; d++) {
+                sb.append("> ".repeat(d)).append(sentence(random, 2, 8)).append("\n");
+            }
+            sb.append("\n");
+            for (int d = 0; d < depth; d++) {
+                sb.append("  ".repeat(d)).append(d % 2 == 0 ? "- " : "1. ").append(words(random, 1, 6)).append("\n");
+            }
+            sb.append("\n");
+            for (int d = 0; d < depth; d++) {
+                sb.append("> ".repeat(d)).append("- ").append(words(random, 1, 6)).append("\n");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document that is mostly GFM tables (without the tables extension, these are paragraphs)
+     */
+    public static String tableHeavy() {
+        var random = new Random(5);
+        var sb = new StringBuilder();
+        for (int t = 0; t < 50; t++) {
+            sb.append("## ").append(words(random, 1, 3)).append("\n\n");
+            int columns = 2 + random.nextInt(5);
+            for (int c = 0; c < columns; c++) {
+                sb.append("| ").append(word(random)).append(" ");
+            }
+            sb.append("|\n");
+            for (int c = 0; c < columns; c++) {
+                sb.append(c % 3 == 0 ? "|:---" : c % 3 == 1 ? "|---:" : "|:---:");
+            }
+            sb.append("|\n");
+            int rows = 5 + random.nextInt(30);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    sb.append("| ");
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            sb.append('`').append(word(random)).append('`');
+                            break;
+                        case 1:
+                            sb.append('*').append(word(random)).append('*');
+                            break;
+                        default:
+                            sb.append(words(random, 1, 3));
+                    }
+                    sb.append(" ");
+                }
+                sb.append("|\n");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document with many reference links and link reference definitions, like a changelog or API docs
+     */
+    public static String linkReferenceHeavy() {
+        var random = new Random(6);
+        int definitions = 500;
+        var sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append("- ").append(words(random, 1, 4));
+            for (int j = 0; j < 3; j++) {
+                int ref = random.nextInt(definitions);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        sb.append(" [").append(words(random, 1, 2)).append("][ref-").append(ref).append("]");
+                        break;
+                    case 1:
+                        sb.append(" [ref-").append(ref).append("]");
+                        break;
+                    default:
+                        sb.append(" ([#").append(ref).append("](https://example.org/issues/").append(ref).append("))");
+                }
+            }
+            sb.append("\n");
+        }
+        sb.append("\n");
+        for (int i = 0; i < definitions; i++) {
+            sb.append("[ref-").append(i).append("]: https://example.org/").append(word(random)).append("/").append(i);
+            if (i % 3 == 0) {
+                sb.append(" \"").append(words(random, 1, 3)).append("\"");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document with plain URLs and email addresses for the autolink extension
+     */
+    public static String autolinkHeavy() {
+        var random = new Random(7);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append(sentence(random, 2, 8)).append(" ");
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.append("https://example.org/").append(word(random)).append("?q=").append(i);
+                    break;
+                case 1:
+                    sb.append("www.example.com/").append(word(random));
+                    break;
+                default:
+                    sb.append(word(random)).append(i).append("@example.org");
+            }
+            sb.append(" ").append(sentence(random, 2, 8)).append("\n\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document with footnote references and definitions
+     */
+    public static String footnoteHeavy() {
+        var random = new Random(8);
+        int footnotes = 200;
+        var sb = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            sb.append(sentence(random, 3, 10)).append("[^").append(random.nextInt(footnotes)).append("] ")
+                    .append(sentence(random, 3, 10)).append("\n\n");
+        }
+        for (int i = 0; i < footnotes; i++) {
+            sb.append("[^").append(i).append("]: ").append(sentence(random, 3, 12)).append("\n");
+            if (i % 5 == 0) {
+                sb.append("\n    ").append(sentence(random, 3, 12)).append("\n");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document with many (partly duplicate) headings for the heading anchor extension
+     */
+    public static String headingHeavy() {
+        var random = new Random(9);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("#".repeat(1 + random.nextInt(6))).append(" ").append(words(random, 1, 4)).append("\n\n");
+            sb.append(sentence(random, 5, 15)).append("\n\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a document of {@link #INLINE_HEAVY_PARAGRAPHS} paragraphs dense with inline syntax: emphasis, code spans,
+     * links, brackets that are not links, entities and line breaks
+     */
+    public static String inlineHeavy() {
+        var random = new Random(10);
+        var sb = new StringBuilder();
+        for (int i = 0; i < INLINE_HEAVY_PARAGRAPHS; i++) {
+            int lines = 1 + random.nextInt(4);
+            for (int l = 0; l < lines; l++) {
+                for (int w = 0; w < 4 + random.nextInt(6); w++) {
+                    switch (random.nextInt(8)) {
+                        case 0:
+                            sb.append("*").append(words(random, 1, 3)).append("*");
+                            break;
+                        case 1:
+                            sb.append("__").append(word(random)).append("__");
+                            break;
+                        case 2:
+                            sb.append("`").append(word(random)).append("()`");
+                            break;
+                        case 3:
+                            sb.append("[").append(word(random)).append("](https://example.org/").append(i).append(")");
+                            break;
+                        case 4:
+                            sb.append("[").append(word(random)).append("]");
+                            break;
+                        case 5:
+                            sb.append("&amp; ").append(word(random));
+                            break;
+                        default:
+                            sb.append(word(random));
+                    }
+                    sb.append(" ");
+                }
+                // Alternate between soft and hard line breaks
+                sb.append(l % 2 == 0 ? "\n" : "  \n");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String readme(Random random) {
+        var sb = new StringBuilder();
+        var name = word(random) + "-" + word(random);
+        sb.append(name).append("\n").append("=".repeat(name.length())).append("\n\n");
+        sb.append("[![Build status](https://example.org/").append(name).append("/badge.svg)](https://example.org/")
+                .append(name).append(")\n\n");
+        sb.append(paragraph(random)).append("\n\n");
+        int sections = 3 + random.nextInt(5);
+        for (int s = 0; s < sections; s++) {
+            sb.append("## ").append(words(random, 1, 3)).append("\n\n");
+            sb.append(paragraph(random)).append("\n\n");
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.append("```").append(LANGUAGES[random.nextInt(LANGUAGES.length)]).append("\n");
+                    for (int l = 0; l < 3 + random.nextInt(10); l++) {
+                        sb.append("    ".repeat(random.nextInt(3))).append(words(random, 1, 6)).append(";\n");
+                    }
+                    sb.append("```\n\n");
+                    break;
+                case 1:
+                    for (int l = 0; l < 3 + random.nextInt(6); l++) {
+                        sb.append("* ").append(sentence(random, 2, 10)).append("\n");
+                    }
+                    sb.append("\n");
+                    break;
+                default:
+                    sb.append("    ").append(name).append(" --").append(word(random)).append("\n\n");
+            }
+        }
+        sb.append("License\n-------\n\nSee [LICENSE](LICENSE.txt) and <https://example.org/").append(name).append(">.\n");
+        return sb.toString();
+    }
+
+    private static String paragraph(Random random) {
+        var sb = new StringBuilder();
+        int sentences = 2 + random.nextInt(5);
+        for (int i = 0; i < sentences; i++) {
+            if (i != 0) {
+                sb.append(random.nextInt(3) == 0 ? "\n" : " ");
+            }
+            sb.append(sentence(random, 4, 16));
+            if (random.nextInt(4) == 0) {
+                sb.append(" See _").append(word(random)).append("_ and [").append(word(random))
+                        .append("](https://example.org/").append(word(random)).append(" \"").append(word(random))
+                        .append("\").");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sentence(Random random, int minWords, int maxWords) {
+        var words = words(random, minWords, maxWords);
+        return Character.toUpperCase(words.charAt(0)) + words.substring(1) + ".";
+    }
+
+    private static String words(Random random, int minWords, int maxWords) {
+        var sb = new StringBuilder();
+        int count = minWords + random.nextInt(maxWords - minWords + 1);
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                sb.append(' ');
+            }
+            sb.append(word(random));
+        }
+        return sb.toString();
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,23 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Base class for the benchmark suite of an extension. Runs the same input with and without the extension so that the
+ * overhead of the extension itself can be told apart from the core.
+ */
+public abstract class ExtensionBenchmark extends WorkloadBenchmark {
+
+    @Param({"core", "extension"})
+    public String config;
+
+    protected abstract Extension extension();
+
+    @Override
+    protected List<Extension> extensions() {
+        return config.equals("extension") ? List.of(extension()) : List.of();
+    }
+}
@@ -0,0 +1,22 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.footnotes.FootnotesExtension;
+
+import java.util.List;
+
+/**
+ * Benchmark for {@link FootnotesExtension}.
+ */
+public class FootnotesExtensionBenchmark extends ExtensionBenchmark {
+
+    @Override
+    protected Extension extension() {
+        return FootnotesExtension.create();
+    }
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.footnoteHeavy());
+    }
+}
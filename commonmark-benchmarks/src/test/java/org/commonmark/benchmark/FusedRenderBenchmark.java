@@ -0,0 +1,39 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+
+/**
+ * Parsing and rendering a large document: Building the whole document and then rendering it, compared to rendering
+ * each top-level block as soon as it's parsed with {@link HtmlRenderer#renderMarkdown}. The output is discarded, so
+ * that the output buffer doesn't dominate memory usage.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class FusedRenderBenchmark {
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder().build();
+    private final Writer out = Writer.nullWriter();
+    private String input;
+
+    @Setup
+    public void setup() {
+        input = Corpus.hugeDocument();
+    }
+
+    @Benchmark
+    public void parseThenRender() {
+        renderer.render(parser.parse(input), out);
+    }
+
+    @Benchmark
+    public void renderMarkdown() {
+        renderer.renderMarkdown(parser, input, out);
+    }
+}
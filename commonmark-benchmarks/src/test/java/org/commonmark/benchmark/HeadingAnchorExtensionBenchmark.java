@@ -0,0 +1,22 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.heading.anchor.HeadingAnchorExtension;
+
+import java.util.List;
+
+/**
+ * Benchmark for {@link HeadingAnchorExtension}.
+ */
+public class HeadingAnchorExtensionBenchmark extends ExtensionBenchmark {
+
+    @Override
+    protected Extension extension() {
+        return HeadingAnchorExtension.create();
+    }
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.headingHeavy());
+    }
+}
@@ -0,0 +1,27 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A single document of several MB.
+ */
+public class HugeDocumentBenchmark extends WorkloadBenchmark {
+
+    private static final Parser PARSER = Parser.builder().build();
+    private static final String INPUT = Corpus.hugeDocument();
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(INPUT);
+    }
+
+    @Benchmark
+    public void parseParallel(Blackhole blackhole) {
+        blackhole.consume(PARSER.parseParallel(INPUT, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,15 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Paragraphs with lots of inline syntax, stresses the inline parser. The allocations of {@code parse} divided by
+ * {@link Corpus#INLINE_HEAVY_PARAGRAPHS} are the allocations per paragraph.
+ */
+public class InlineHeavyBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.inlineHeavy());
+    }
+}
@@ -0,0 +1,14 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Many reference links and link reference definitions, like a changelog or API docs.
+ */
+public class LinkReferenceHeavyBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.linkReferenceHeavy());
+    }
+}
@@ -0,0 +1,14 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Deeply nested block quotes and lists, stresses the block parser (container matching).
+ */
+public class NestedBlocksBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.nestedBlocks());
+    }
+}
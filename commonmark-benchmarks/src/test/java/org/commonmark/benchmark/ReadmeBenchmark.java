@@ -0,0 +1,14 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Typical project READMEs with headings, code blocks, lists and links.
+ */
+public class ReadmeBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return Corpus.readmes();
+    }
+}
@@ -0,0 +1,55 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.html.RenderCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Parsing and rendering of READMEs with a {@link RenderCache}: Without a cache, with a cache that already contains all
+ * blocks (e.g. re-rendering unchanged pages), and with a new cache for each document (only misses, the overhead of
+ * building keys and copying the HTML).
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class RenderCacheBenchmark {
+
+    @Param({"none", "hits", "misses"})
+    public String cache;
+
+    private List<String> inputs;
+    private Parser parser;
+    private HtmlRenderer renderer;
+
+    @Setup
+    public void setup() {
+        inputs = Corpus.readmes();
+        // Blocks are looked up by their source text, which needs the source spans of blocks
+        parser = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+        if (cache.equals("hits")) {
+            renderer = HtmlRenderer.builder().renderCache(new RenderCache(100_000_000)).build();
+            for (String input : inputs) {
+                renderer.renderMarkdown(parser, input);
+            }
+        } else {
+            renderer = HtmlRenderer.builder().build();
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        for (String input : inputs) {
+            HtmlRenderer documentRenderer = renderer;
+            if (cache.equals("misses")) {
+                documentRenderer = HtmlRenderer.builder().renderCache(new RenderCache(100_000_000)).build();
+            }
+            blackhole.consume(documentRenderer.renderMarkdown(parser, input));
+        }
+    }
+}
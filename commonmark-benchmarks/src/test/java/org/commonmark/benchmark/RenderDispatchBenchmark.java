@@ -0,0 +1,55 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.Renderer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.markdown.MarkdownRenderer;
+import org.commonmark.renderer.text.TextContentRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rendering of a large pre-parsed document with each of the renderers. The output goes to a reused
+ * {@link StringBuilder}, so that the per-node work (looking up the node renderer and dispatching to it) makes up more
+ * of the measurement than growing the output.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class RenderDispatchBenchmark {
+
+    @Param({"html", "text", "markdown"})
+    public String format;
+
+    private Renderer renderer;
+    private Node document;
+    private StringBuilder output;
+
+    @Setup
+    public void setup() {
+        switch (format) {
+            case "html":
+                renderer = HtmlRenderer.builder().build();
+                break;
+            case "text":
+                renderer = TextContentRenderer.builder().build();
+                break;
+            case "markdown":
+                renderer = MarkdownRenderer.builder().build();
+                break;
+            default:
+                throw new IllegalArgumentException(format);
+        }
+        document = Parser.builder().build().parse(Corpus.hugeDocument());
+        output = new StringBuilder();
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        output.setLength(0);
+        renderer.render(document, output);
+        blackhole.consume(output.length());
+    }
+}
@@ -0,0 +1,14 @@
+package org.commonmark.benchmark;
+
+import java.util.List;
+
+/**
+ * Table syntax parsed by the core only (i.e. as paragraphs), see {@link TablesExtensionBenchmark} for tables.
+ */
+public class TableHeavyBenchmark extends WorkloadBenchmark {
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.tableHeavy());
+    }
+}
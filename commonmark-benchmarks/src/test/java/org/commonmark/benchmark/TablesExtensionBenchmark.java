@@ -0,0 +1,22 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+
+import java.util.List;
+
+/**
+ * Benchmark for {@link TablesExtension}.
+ */
+public class TablesExtensionBenchmark extends ExtensionBenchmark {
+
+    @Override
+    protected Extension extension() {
+        return TablesExtension.create();
+    }
+
+    @Override
+    protected List<String> inputs() {
+        return List.of(Corpus.tableHeavy());
+    }
+}
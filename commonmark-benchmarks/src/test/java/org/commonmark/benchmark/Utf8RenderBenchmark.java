@@ -0,0 +1,66 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rendering pre-parsed READMEs to UTF-8 bytes, e.g. for an HTTP response: Rendering to a string and encoding that,
+ * compared to encoding while rendering into an output stream or byte buffer.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class Utf8RenderBenchmark {
+
+    private final HtmlRenderer renderer = HtmlRenderer.builder().build();
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private List<Node> documents;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        var parser = Parser.builder().build();
+        documents = new ArrayList<>();
+        int maxLength = 0;
+        for (String input : Corpus.readmes()) {
+            Node document = parser.parse(input);
+            documents.add(document);
+            maxLength = Math.max(maxLength, renderer.render(document).getBytes(StandardCharsets.UTF_8).length);
+        }
+        buffer = ByteBuffer.allocate(maxLength);
+    }
+
+    @Benchmark
+    public void stringThenEncode() throws IOException {
+        for (Node document : documents) {
+            out.write(renderer.render(document).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void outputStream() {
+        for (Node document : documents) {
+            renderer.renderUtf8(document, out);
+        }
+    }
+
+    @Benchmark
+    public void byteBuffer(Blackhole blackhole) {
+        for (Node document : documents) {
+            buffer.clear();
+            renderer.renderUtf8(document, buffer);
+            blackhole.consume(buffer.position());
+        }
+    }
+}
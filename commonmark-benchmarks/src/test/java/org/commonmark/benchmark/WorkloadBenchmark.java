@@ -0,0 +1,72 @@
+package org.commonmark.benchmark;
+
+import org.commonmark.Extension;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for a benchmark suite of one workload. Measures parsing, rendering of pre-parsed documents and both
+ * combined, so that a regression can be attributed to either the parser or the renderer.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public abstract class WorkloadBenchmark {
+
+    private List<String> inputs;
+    private Parser parser;
+    private HtmlRenderer renderer;
+    private List<Node> documents;
+
+    /**
+     * @return the Markdown inputs of this workload, each is parsed as a separate document
+     */
+    protected abstract List<String> inputs();
+
+    /**
+     * @return the extensions to configure on the parser and renderer
+     */
+    protected List<Extension> extensions() {
+        return List.of();
+    }
+
+    @Setup
+    public void setup() {
+        inputs = inputs();
+        var extensions = extensions();
+        parser = Parser.builder().extensions(extensions).build();
+        renderer = HtmlRenderer.builder().extensions(extensions).build();
+        documents = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            documents.add(parser.parse(input));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(parser.parse(input));
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        for (Node document : documents) {
+            blackhole.consume(renderer.render(document));
+        }
+    }
+
+    @Benchmark
+    public void parseAndRender(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(renderer.render(parser.parse(input)));
+        }
+    }
+}
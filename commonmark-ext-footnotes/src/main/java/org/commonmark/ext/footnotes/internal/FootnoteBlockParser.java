@@ -7,6 +7,7 @@ import org.commonmark.parser.block.*;
 import org.commonmark.text.Characters;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Parser for a single {@link FootnoteDefinition} block.
@@ -56,6 +57,11 @@ public class FootnoteBlockParser extends AbstractBlockParser {
 
     public static class Factory implements BlockParserFactory {
 
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('[');
+        }
+
         @Override
         public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
             if (state.getIndent() >= 4) {
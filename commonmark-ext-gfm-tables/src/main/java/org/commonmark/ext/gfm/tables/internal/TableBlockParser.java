@@ -12,6 +12,7 @@ import org.commonmark.text.Characters;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class TableBlockParser extends AbstractBlockParser {
 
@@ -108,7 +109,9 @@ public class TableBlockParser extends AbstractBlockParser {
                 block.appendChild(body);
             }
             body.appendChild(row);
-            body.addSourceSpan(sourceSpan);
+            if (sourceSpan != null) {
+                body.addSourceSpan(sourceSpan);
+            }
         }
     }
 
@@ -271,6 +274,11 @@ public class TableBlockParser extends AbstractBlockParser {
 
     public static class Factory extends AbstractBlockParserFactory {
 
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('|', '-', ':');
+        }
+
         @Override
         public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
             List<SourceLine> paragraphLines = matchedBlockParser.getParagraphLines().getLines();
@@ -3,6 +3,7 @@ package org.commonmark.ext.gfm.tables;
 import org.commonmark.Extension;
 import org.commonmark.node.Node;
 import org.commonmark.node.SourceSpan;
+import org.commonmark.parser.ForwardReferences;
 import org.commonmark.parser.IncludeSourceSpans;
 import org.commonmark.parser.Parser;
 import org.commonmark.renderer.html.AttributeProvider;
@@ -12,6 +13,8 @@ import org.commonmark.renderer.html.HtmlRenderer;
 import org.commonmark.testutil.RenderingTestCase;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.*;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -836,6 +839,14 @@ public class TablesTest extends RenderingTestCase {
         assertEquals(List.of(), bodyRow3Cell2.getSourceSpans());
     }
 
+    @Test
+    public void streamingWithForwardReference() throws IOException {
+        var source = "Abc|Def\n---|---\n[foo]|*bar*\n\n[foo]: /url\n";
+        var sb = new StringBuilder();
+        PARSER.parseStreaming(new StringReader(source), ForwardReferences.DEFERRED, block -> sb.append(RENDERER.render(block)));
+        assertEquals(render(source), sb.toString());
+    }
+
     @Override
     protected String render(String source) {
         return RENDERER.render(PARSER.parse(source));
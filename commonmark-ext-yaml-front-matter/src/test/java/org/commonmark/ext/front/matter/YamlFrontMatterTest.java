@@ -8,6 +8,8 @@ import org.commonmark.renderer.html.HtmlRenderer;
 import org.commonmark.testutil.RenderingTestCase;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -313,6 +315,15 @@ public class YamlFrontMatterTest extends RenderingTestCase {
         assertEquals("hey", data.get("list").get(0));
     }
 
+    @Test
+    public void streamingDashesAfterFirstBlock() throws IOException {
+        // After the first block is passed on, the document is not at the start anymore
+        final String input = "text\n\n---\nhello: world\n---\n";
+        StringBuilder sb = new StringBuilder();
+        PARSER.parseStreaming(new StringReader(input), block -> sb.append(RENDERER.render(block)));
+        assertEquals(render(input), sb.toString());
+    }
+
     @Override
     protected String render(String source) {
         return RENDERER.render(PARSER.parse(source));
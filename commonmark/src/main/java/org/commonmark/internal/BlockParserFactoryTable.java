@@ -0,0 +1,73 @@
+package org.commonmark.internal;
+
+import org.commonmark.parser.block.BlockParserFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The block parser factories to try for a line, by the first non-space character of the line. Calculated once from
+ * {@link BlockParserFactory#getTriggerCharacters()}, so that a line doesn't need to be offered to factories that can't
+ * start a block with its character. The factories keep their order.
+ */
+public class BlockParserFactoryTable {
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final BlockParserFactory[] all;
+    // Factories to try for an ASCII character
+    private final BlockParserFactory[][] byAsciiChar = new BlockParserFactory[ASCII_LIMIT][];
+    // Factories to try for other characters: the ones without trigger characters or with non-ASCII ones
+    private final BlockParserFactory[] other;
+
+    public BlockParserFactoryTable(List<BlockParserFactory> blockParserFactories) {
+        this.all = blockParserFactories.toArray(new BlockParserFactory[0]);
+
+        List<Set<Character>> triggerCharacters = new ArrayList<>(all.length);
+        for (var factory : all) {
+            triggerCharacters.add(factory.getTriggerCharacters());
+        }
+
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            var factories = new ArrayList<BlockParserFactory>();
+            for (int i = 0; i < all.length; i++) {
+                var triggers = triggerCharacters.get(i);
+                if (triggers == null || triggers.contains(c)) {
+                    factories.add(all[i]);
+                }
+            }
+            byAsciiChar[c] = factories.toArray(new BlockParserFactory[0]);
+        }
+
+        var others = new ArrayList<BlockParserFactory>();
+        for (int i = 0; i < all.length; i++) {
+            var triggers = triggerCharacters.get(i);
+            if (triggers == null || hasNonAscii(triggers)) {
+                others.add(all[i]);
+            }
+        }
+        this.other = others.toArray(new BlockParserFactory[0]);
+    }
+
+    /**
+     * @param c the first non-space character of the line
+     * @param indentedAsCode whether the line is indented enough to be code (trigger characters don't apply then)
+     * @return the factories to try, must not be modified
+     */
+    BlockParserFactory[] get(char c, boolean indentedAsCode) {
+        if (indentedAsCode) {
+            return all;
+        }
+        return c < ASCII_LIMIT ? byAsciiChar[c] : other;
+    }
+
+    private static boolean hasNonAscii(Set<Character> characters) {
+        for (char c : characters) {
+            if (c >= ASCII_LIMIT) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
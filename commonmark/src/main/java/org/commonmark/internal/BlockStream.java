@@ -0,0 +1,228 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.Document;
+import org.commonmark.node.LinkReferenceDefinition;
+import org.commonmark.node.Node;
+import org.commonmark.parser.ForwardReferences;
+import org.commonmark.parser.InlineParser;
+import org.commonmark.parser.InlineParserContext;
+import org.commonmark.parser.InlineParserFactory;
+import org.commonmark.parser.SourceLines;
+import org.commonmark.parser.beta.InlineContentParserFactory;
+import org.commonmark.parser.beta.LinkProcessor;
+import org.commonmark.parser.block.BlockParser;
+import org.commonmark.parser.delimiter.DelimiterProcessor;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Passes top-level blocks on to a consumer as soon as they're closed, with their inline content parsed and
+ * post-processed. After that, the parser doesn't reference them anymore.
+ * <p>
+ * With {@link ForwardReferences#DEFERRED}, definition lookups that don't find anything are recorded while parsing
+ * inlines. A block with such a miss is held back (and all blocks after it, to keep the order) until one of the missing
+ * labels gets defined, in which case its inline content is parsed again, or until the input ends. Lookups that found a
+ * definition can't change anymore, as the first definition of a label wins.
+ */
+class BlockStream {
+
+    private final Definitions definitions;
+    private final boolean deferred;
+    private final UnaryOperator<Node> postProcessor;
+    private final Consumer<Node> consumer;
+    private final InlineParser inlineParser;
+
+    private final Deque<PendingBlocks> pendingBlocks = new ArrayDeque<>();
+    // Where misses of definition lookups are recorded to, only for deferred
+    private List<Miss> misses;
+
+    BlockStream(InlineParserFactory inlineParserFactory, InlineParserContext context, Definitions definitions,
+                ForwardReferences forwardReferences, UnaryOperator<Node> postProcessor, Consumer<Node> consumer) {
+        this.definitions = definitions;
+        this.deferred = forwardReferences == ForwardReferences.DEFERRED;
+        this.postProcessor = postProcessor;
+        this.consumer = consumer;
+        this.inlineParser = inlineParserFactory.create(deferred ? new MissRecordingContext(context) : context);
+    }
+
+    /**
+     * Called when all top-level blocks of the document are closed.
+     *
+     * @param blockParsers the parsers of the blocks and everything they contain, in the order they were closed
+     */
+    void blocksClosed(Document document, List<BlockParser> blockParsers) {
+        var blocks = new ArrayList<Node>();
+        Node node = document.getFirstChild();
+        while (node != null) {
+            Node next = node.getNext();
+            node.unlink();
+            blocks.add(node);
+            node = next;
+        }
+
+        if (!deferred) {
+            for (var blockParser : blockParsers) {
+                blockParser.parseInlines(inlineParser);
+            }
+            emit(blocks);
+            return;
+        }
+
+        var pending = new PendingBlocks(blocks);
+        for (var blockParser : blockParsers) {
+            // Remember what needs to be parsed, so that we can do it again in case of misses
+            blockParser.parseInlines(pending::addInlineContent);
+        }
+        parseInlines(pending);
+        pendingBlocks.add(pending);
+        emitPending(false);
+    }
+
+    /**
+     * Called at the end of the input.
+     */
+    void finish() {
+        emitPending(true);
+    }
+
+    private void emitPending(boolean end) {
+        while (!pendingBlocks.isEmpty()) {
+            var pending = pendingBlocks.peek();
+            if (!pending.misses.isEmpty()) {
+                if (isAnyDefined(pending.misses)) {
+                    parseInlines(pending);
+                    continue;
+                } else if (!end) {
+                    return;
+                }
+            }
+            pendingBlocks.remove();
+            emit(pending.blocks);
+        }
+    }
+
+    private void parseInlines(PendingBlocks pending) {
+        pending.misses.clear();
+        misses = pending.misses;
+        for (var inlineContent : pending.inlineContents) {
+            inlineContent.removeParsed();
+            inlineParser.parse(inlineContent.lines, inlineContent.node);
+        }
+        misses = null;
+    }
+
+    private boolean isAnyDefined(List<Miss> misses) {
+        for (var miss : misses) {
+            if (definitions.getDefinition(miss.type, miss.label) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void emit(List<Node> blocks) {
+        var document = new Document();
+        for (var block : blocks) {
+            document.appendChild(block);
+        }
+        Node processed = postProcessor.apply(document);
+        Node node = processed.getFirstChild();
+        while (node != null) {
+            Node next = node.getNext();
+            node.unlink();
+            consumer.accept(node);
+            node = next;
+        }
+    }
+
+    private static class PendingBlocks {
+        private final List<Node> blocks;
+        private final List<InlineContent> inlineContents = new ArrayList<>();
+        private final List<Miss> misses = new ArrayList<>();
+
+        PendingBlocks(List<Node> blocks) {
+            this.blocks = blocks;
+        }
+
+        void addInlineContent(SourceLines lines, Node node) {
+            inlineContents.add(new InlineContent(lines, node));
+        }
+    }
+
+    private static class InlineContent {
+        private final SourceLines lines;
+        private final Node node;
+        // The nodes after this one were added by inline parsing
+        private final Node lastChildBefore;
+
+        InlineContent(SourceLines lines, Node node) {
+            this.lines = lines;
+            this.node = node;
+            this.lastChildBefore = node.getLastChild();
+        }
+
+        void removeParsed() {
+            Node child = lastChildBefore != null ? lastChildBefore.getNext() : node.getFirstChild();
+            while (child != null) {
+                Node next = child.getNext();
+                child.unlink();
+                child = next;
+            }
+        }
+    }
+
+    private static class Miss {
+        private final Class<?> type;
+        private final String label;
+
+        Miss(Class<?> type, String label) {
+            this.type = type;
+            this.label = label;
+        }
+    }
+
+    private class MissRecordingContext implements InlineParserContext {
+
+        private final InlineParserContext context;
+
+        MissRecordingContext(InlineParserContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public List<InlineContentParserFactory> getCustomInlineContentParserFactories() {
+            return context.getCustomInlineContentParserFactories();
+        }
+
+        @Override
+        public List<DelimiterProcessor> getCustomDelimiterProcessors() {
+            return context.getCustomDelimiterProcessors();
+        }
+
+        @Override
+        public List<LinkProcessor> getCustomLinkProcessors() {
+            return context.getCustomLinkProcessors();
+        }
+
+        @Override
+        public Set<Character> getCustomLinkMarkers() {
+            return context.getCustomLinkMarkers();
+        }
+
+        @Override
+        public LinkReferenceDefinition getLinkReferenceDefinition(String label) {
+            return getDefinition(LinkReferenceDefinition.class, label);
+        }
+
+        @Override
+        public <D> D getDefinition(Class<D> type, String label) {
+            D definition = context.getDefinition(type, label);
+            if (definition == null && misses != null) {
+                misses.add(new Miss(type, label));
+            }
+            return definition;
+        }
+    }
+}
@@ -12,12 +12,21 @@ public class Definitions {
     public <D> void addDefinitions(DefinitionMap<D> definitionMap) {
         var existingMap = getMap(definitionMap.getType());
         if (existingMap == null) {
-            definitionsByType.put(definitionMap.getType(), definitionMap);
+            // Copy so that the map of the block parser isn't changed by adding later definitions
+            var map = new DefinitionMap<>(definitionMap.getType());
+            map.addAll(definitionMap);
+            definitionsByType.put(definitionMap.getType(), map);
         } else {
             existingMap.addAll(definitionMap);
         }
     }
 
+    public void addDefinitions(Definitions definitions) {
+        for (var definitionMap : definitions.definitionsByType.values()) {
+            addDefinitions(definitionMap);
+        }
+    }
+
     public <V> V getDefinition(Class<V> type, String label) {
         var definitionMap = getMap(type);
         if (definitionMap == null) {
@@ -1,9 +1,15 @@
 package org.commonmark.internal;
 
+import org.commonmark.internal.util.CharSlice;
 import org.commonmark.internal.util.LineReader;
 import org.commonmark.internal.util.Parsing;
+import org.commonmark.internal.util.Utf8LineReader;
 import org.commonmark.node.*;
+import org.commonmark.parser.ForwardReferences;
+import org.commonmark.parser.IncludeInlines;
 import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.InlineParser;
+import org.commonmark.parser.InlineParserContext;
 import org.commonmark.parser.InlineParserFactory;
 import org.commonmark.parser.SourceLine;
 import org.commonmark.parser.SourceLines;
@@ -15,7 +21,11 @@ import org.commonmark.text.Characters;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
 
 public class DocumentParser implements ParserState {
 
@@ -64,27 +74,42 @@ public class DocumentParser implements ParserState {
      */
     private boolean columnIsInTab;
 
+    /**
+     * index (offset) of the start of the current line in the whole input
+     */
+    private int lineInputIndex = 0;
+
     private int nextNonSpace = 0;
     private int nextNonSpaceColumn = 0;
     private int indent = 0;
     private boolean blank;
 
-    private final List<BlockParserFactory> blockParserFactories;
+    private final BlockParserFactoryTable blockParserFactories;
     private final InlineParserFactory inlineParserFactory;
     private final List<InlineContentParserFactory> inlineContentParserFactories;
     private final List<DelimiterProcessor> delimiterProcessors;
     private final List<LinkProcessor> linkProcessors;
     private final Set<Character> linkMarkers;
     private final IncludeSourceSpans includeSourceSpans;
+    private final IncludeInlines includeInlines;
     private final DocumentBlockParser documentBlockParser;
     private final Definitions definitions = new Definitions();
 
     private final List<OpenBlockParser> openBlockParsers = new ArrayList<>();
     private final List<BlockParser> allBlockParsers = new ArrayList<>();
-
-    public DocumentParser(List<BlockParserFactory> blockParserFactories, InlineParserFactory inlineParserFactory,
+    // Text nodes with raw inline content, see IncludeInlines.NONE
+    private final List<Text> rawTexts = new ArrayList<>();
+    // Definitions together with where their block started, for re-parsing. Only collected with source spans.
+    private final List<DocumentReparser.BlockDefinitions> blockDefinitions = new ArrayList<>();
+    // Only set when streaming
+    private BlockStream blockStream;
+    // Stands in for the top-level blocks that were passed on, see closeBlockParsers
+    private Node placeholder;
+
+    public DocumentParser(BlockParserFactoryTable blockParserFactories, InlineParserFactory inlineParserFactory,
                           List<InlineContentParserFactory> inlineContentParserFactories, List<DelimiterProcessor> delimiterProcessors,
-                          List<LinkProcessor> linkProcessors, Set<Character> linkMarkers, IncludeSourceSpans includeSourceSpans) {
+                          List<LinkProcessor> linkProcessors, Set<Character> linkMarkers, IncludeSourceSpans includeSourceSpans,
+                          IncludeInlines includeInlines) {
         this.blockParserFactories = blockParserFactories;
         this.inlineParserFactory = inlineParserFactory;
         this.inlineContentParserFactories = inlineContentParserFactories;
@@ -92,9 +117,10 @@ public class DocumentParser implements ParserState {
         this.linkProcessors = linkProcessors;
         this.linkMarkers = linkMarkers;
         this.includeSourceSpans = includeSourceSpans;
+        this.includeInlines = includeInlines;
 
         this.documentBlockParser = new DocumentBlockParser();
-        activateBlockParser(new OpenBlockParser(documentBlockParser, 0));
+        activateBlockParser(new OpenBlockParser(documentBlockParser, 0, 0));
     }
 
     public static Set<Class<? extends Block>> getDefaultBlockParserTypes() {
@@ -123,11 +149,42 @@ public class DocumentParser implements ParserState {
      * The main parsing function. Returns a parsed document AST.
      */
     public Document parse(String input) {
-        int lineStart = 0;
+        parseLines(input, 0, 0, null);
+        return finalizeAndProcess();
+    }
+
+    /**
+     * Parse the lines of the input starting at {@code startIndex}, which must be the start of a line. When starting
+     * after the beginning of the input, no block except the document must be open before that line in the whole input.
+     *
+     * @param stopBefore if not null, called with the start index of each line when no block except the document is
+     *                   open; if it returns true, parsing stops before that line
+     * @return the index of the line that parsing stopped at, or -1 if the whole input was parsed
+     */
+    int parseLines(String input, int startIndex, int startLineIndex, IntPredicate stopBefore) {
+        if (startIndex == 0) {
+            return parseLinesFrom(input, 0, startLineIndex, stopBefore);
+        }
+        // Block parsers can check whether they're at the start of the document (e.g. for front matter), which we
+        // aren't, so make sure the document isn't empty while parsing.
+        Node placeholder = new Paragraph();
+        getDocument().appendChild(placeholder);
+        try {
+            return parseLinesFrom(input, startIndex, startLineIndex, stopBefore);
+        } finally {
+            placeholder.unlink();
+        }
+    }
+
+    private int parseLinesFrom(String input, int startIndex, int startLineIndex, IntPredicate stopBefore) {
+        lineIndex = startLineIndex - 1;
+        int lineStart = startIndex;
         int lineBreak;
         while ((lineBreak = Characters.findLineBreak(input, lineStart)) != -1) {
-            String line = input.substring(lineStart, lineBreak);
-            parseLine(line, lineStart);
+            if (stopBefore != null && openBlockParsers.size() == 1 && stopBefore.test(lineStart)) {
+                return lineStart;
+            }
+            parseLine(CharSlice.of(input, lineStart, lineBreak), lineStart);
             if (lineBreak + 1 < input.length() && input.charAt(lineBreak) == '\r' && input.charAt(lineBreak + 1) == '\n') {
                 lineStart = lineBreak + 2;
             } else {
@@ -135,14 +192,45 @@ public class DocumentParser implements ParserState {
             }
         }
         if (!input.isEmpty() && (lineStart == 0 || lineStart < input.length())) {
-            String line = input.substring(lineStart);
-            parseLine(line, lineStart);
+            if (stopBefore != null && openBlockParsers.size() == 1 && stopBefore.test(lineStart)) {
+                return lineStart;
+            }
+            parseLine(CharSlice.of(input, lineStart, input.length()), lineStart);
         }
+        return -1;
+    }
 
+    public Document parse(Reader input) throws IOException {
+        parseLines(input);
         return finalizeAndProcess();
     }
 
-    public Document parse(Reader input) throws IOException {
+    /**
+     * Parse the input and pass each top-level block to the consumer as soon as it's closed, see {@link BlockStream}.
+     */
+    public void parseStreaming(Reader input, ForwardReferences forwardReferences, UnaryOperator<Node> postProcessor,
+                               Consumer<Node> consumer) throws IOException {
+        blockStream = new BlockStream(inlineParserFactory, createInlineParserContext(definitions), definitions, forwardReferences,
+                postProcessor, consumer);
+        parseLines(input);
+        closeBlockParsers(openBlockParsers.size());
+        blockStream.finish();
+    }
+
+    /**
+     * Like {@link #parseStreaming(Reader, ForwardReferences, UnaryOperator, Consumer)}, for input that is already in
+     * memory (the lines are not copied).
+     */
+    public void parseStreaming(String input, ForwardReferences forwardReferences, UnaryOperator<Node> postProcessor,
+                               Consumer<Node> consumer) {
+        blockStream = new BlockStream(inlineParserFactory, createInlineParserContext(definitions), definitions,
+                forwardReferences, postProcessor, consumer);
+        parseLines(input, 0, 0, null);
+        closeBlockParsers(openBlockParsers.size());
+        blockStream.finish();
+    }
+
+    private void parseLines(Reader input) throws IOException {
         var lineReader = new LineReader(input);
         int inputIndex = 0;
         String line;
@@ -154,6 +242,20 @@ public class DocumentParser implements ParserState {
                 inputIndex += eol.length();
             }
         }
+    }
+
+    public Document parse(ByteBuffer utf8Input) {
+        var lineReader = new Utf8LineReader(utf8Input);
+        int inputIndex = 0;
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            parseLine(line, inputIndex);
+            inputIndex += line.length();
+            var eol = lineReader.getLineTerminator();
+            if (eol != null) {
+                inputIndex += eol.length();
+            }
+        }
 
         return finalizeAndProcess();
     }
@@ -197,7 +299,7 @@ public class DocumentParser implements ParserState {
      * Analyze a line of text and update the document appropriately. We parse markdown text by calling this on each
      * line of input, then finalizing the document.
      */
-    private void parseLine(String ln, int inputIndex) {
+    private void parseLine(CharSequence ln, int inputIndex) {
         setLine(ln, inputIndex);
 
         // For each containing block, try to parse the associated line start.
@@ -276,7 +378,7 @@ public class DocumentParser implements ParserState {
             }
 
             for (BlockParser newBlockParser : blockStart.getBlockParsers()) {
-                addChild(new OpenBlockParser(newBlockParser, sourceIndex));
+                addChild(new OpenBlockParser(newBlockParser, lineInputIndex, sourceIndex));
                 if (replacedSourceSpans != null) {
                     newBlockParser.getBlock().setSourceSpans(replacedSourceSpans);
                 }
@@ -307,7 +409,7 @@ public class DocumentParser implements ParserState {
             } else if (!isBlank()) {
                 // create paragraph container for line
                 ParagraphParser paragraphParser = new ParagraphParser();
-                addChild(new OpenBlockParser(paragraphParser, lastIndex));
+                addChild(new OpenBlockParser(paragraphParser, lineInputIndex, lastIndex));
                 addLine();
             } else {
                 // This can happen for a list item like this:
@@ -322,13 +424,14 @@ public class DocumentParser implements ParserState {
         }
     }
 
-    private void setLine(String ln, int inputIndex) {
+    private void setLine(CharSequence ln, int inputIndex) {
         lineIndex++;
+        lineInputIndex = inputIndex;
         index = 0;
         column = 0;
         columnIsInTab = false;
 
-        String lineContent = prepareLine(ln);
+        CharSequence lineContent = prepareLine(ln);
         SourceSpan sourceSpan = null;
         if (includeSourceSpans != IncludeSourceSpans.NONE) {
             sourceSpan = SourceSpan.of(lineIndex, 0, inputIndex, lineContent.length());
@@ -422,7 +525,7 @@ public class DocumentParser implements ParserState {
             for (int i = 0; i < spaces; i++) {
                 sb.append(' ');
             }
-            sb.append(rest);
+            CharSlice.appendTo(sb, rest);
             content = sb.toString();
         } else if (index == 0) {
             content = line.getContent();
@@ -456,7 +559,8 @@ public class DocumentParser implements ParserState {
 
     private BlockStartImpl findBlockStart(BlockParser blockParser) {
         MatchedBlockParser matchedBlockParser = new MatchedBlockParserImpl(blockParser);
-        for (BlockParserFactory blockParserFactory : blockParserFactories) {
+        var factories = blockParserFactories.get(line.getContent().charAt(nextNonSpace), indent >= Parsing.CODE_BLOCK_INDENT);
+        for (BlockParserFactory blockParserFactory : factories) {
             BlockStart result = blockParserFactory.tryStart(this, matchedBlockParser);
             if (result instanceof BlockStartImpl) {
                 return (BlockStartImpl) result;
@@ -468,15 +572,42 @@ public class DocumentParser implements ParserState {
     /**
      * Walk through a block & children recursively, parsing string content into inline content where appropriate.
      */
-    private void processInlines() {
-        var context = new InlineParserContextImpl(inlineContentParserFactories, delimiterProcessors, linkProcessors, linkMarkers, definitions);
-        var inlineParser = inlineParserFactory.create(context);
+    void processInlines() {
+        processInlines(definitions);
+    }
+
+    /**
+     * Parse inlines of the closed blocks, using the given definitions instead of the ones of this parser.
+     */
+    void processInlines(Definitions definitions) {
+        if (includeInlines == IncludeInlines.NONE) {
+            for (var blockParser : allBlockParsers) {
+                blockParser.parseInlines(RawInlines.inlineParser(
+                        includeSourceSpans == IncludeSourceSpans.BLOCKS_AND_INLINES, rawTexts));
+            }
+            return;
+        }
 
+        var inlineParserContext = createInlineParserContext(definitions);
+        if (includeInlines == IncludeInlines.LAZY) {
+            // Keep the lines of each block, they are parsed with the definitions once the children are needed
+            var lazyInlineParser = LazyInlines.inlineParser(inlineParserFactory, inlineParserContext);
+            for (var blockParser : allBlockParsers) {
+                blockParser.parseInlines(lazyInlineParser);
+            }
+            return;
+        }
+
+        var inlineParser = inlineParserFactory.create(inlineParserContext);
         for (var blockParser : allBlockParsers) {
             blockParser.parseInlines(inlineParser);
         }
     }
 
+    private InlineParserContextImpl createInlineParserContext(Definitions definitions) {
+        return new InlineParserContextImpl(inlineContentParserFactories, delimiterProcessors, linkProcessors, linkMarkers, definitions);
+    }
+
     /**
      * Add block of type tag as a child of the tip. If the tip can't accept children, close and finalize it and try
      * its parent, and so on until we find a block that can accept children.
@@ -500,7 +631,8 @@ public class DocumentParser implements ParserState {
 
     private Block prepareActiveBlockParserForReplacement() {
         // Note that we don't want to parse inlines, as it's getting replaced.
-        BlockParser old = deactivateBlockParser().blockParser;
+        OpenBlockParser openBlockParser = deactivateBlockParser();
+        BlockParser old = openBlockParser.blockParser;
 
         if (old instanceof ParagraphParser) {
             ParagraphParser paragraphParser = (ParagraphParser) old;
@@ -509,7 +641,7 @@ public class DocumentParser implements ParserState {
             // paragraph started with link reference definitions, we parse and strip them before the block parser gets
             // the content. We want to keep them.
             // If no replacement happens, we collect the definitions as part of finalizing blocks.
-            addDefinitionsFrom(paragraphParser);
+            addDefinitionsFrom(paragraphParser, openBlockParser.lineInputIndex);
         }
 
         // Do this so that source positions are calculated, which we will carry over to the replacing block.
@@ -524,14 +656,72 @@ public class DocumentParser implements ParserState {
         return documentBlockParser.getBlock();
     }
 
+    void closeBlockParsers() {
+        closeBlockParsers(openBlockParsers.size());
+    }
+
+    Document getDocument() {
+        return documentBlockParser.getBlock();
+    }
+
+    int getLineIndex() {
+        return lineIndex;
+    }
+
+    void addDefinitions(List<DocumentReparser.BlockDefinitions> blockDefinitions) {
+        for (var definitions : blockDefinitions) {
+            this.definitions.addDefinitions(definitions.getDefinitionMap());
+        }
+    }
+
+    Definitions getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * @return the context for parsing inline content with the definitions of the parsed document, e.g. for parsing
+     * the raw inline content of a block later (see {@link IncludeInlines#NONE})
+     */
+    public InlineParserContext getInlineParserContext() {
+        return createInlineParserContext(definitions);
+    }
+
+    /**
+     * @return the text nodes that were created for raw inline content, see {@link IncludeInlines#NONE}
+     */
+    public List<Text> getRawTexts() {
+        return rawTexts;
+    }
+
+    List<DocumentReparser.BlockDefinitions> getBlockDefinitions() {
+        return blockDefinitions;
+    }
+
     private void closeBlockParsers(int count) {
         for (int i = 0; i < count; i++) {
-            BlockParser blockParser = deactivateBlockParser().blockParser;
-            finalize(blockParser);
+            OpenBlockParser openBlockParser = deactivateBlockParser();
+            BlockParser blockParser = openBlockParser.blockParser;
+            finalize(blockParser, openBlockParser.lineInputIndex);
             // Remember for inline parsing. Note that a lot of blocks don't need inline parsing. We could have a
             // separate interface (e.g. BlockParserWithInlines) so that we only have to remember those that actually
             // have inlines to parse.
             allBlockParsers.add(blockParser);
+
+            if (blockStream != null && openBlockParsers.size() == 1) {
+                // Only the document is still open, so the top-level blocks and everything in them are done
+                Document document = documentBlockParser.getBlock();
+                if (placeholder != null) {
+                    placeholder.unlink();
+                }
+                blockStream.blocksClosed(document, allBlockParsers);
+                allBlockParsers.clear();
+                // Block parsers can check whether they're at the start of the document (e.g. for front matter), which
+                // we aren't anymore, so make sure the document isn't empty.
+                if (placeholder == null) {
+                    placeholder = new Paragraph();
+                }
+                document.appendChild(placeholder);
+            }
         }
     }
 
@@ -539,25 +729,28 @@ public class DocumentParser implements ParserState {
      * Finalize a block. Close it and do any necessary postprocessing, e.g. setting the content of blocks and
      * collecting link reference definitions from paragraphs.
      */
-    private void finalize(BlockParser blockParser) {
-        addDefinitionsFrom(blockParser);
+    private void finalize(BlockParser blockParser, int blockInputIndex) {
+        addDefinitionsFrom(blockParser, blockInputIndex);
         blockParser.closeBlock();
     }
 
-    private void addDefinitionsFrom(BlockParser blockParser) {
+    private void addDefinitionsFrom(BlockParser blockParser, int blockInputIndex) {
         for (var definitionMap : blockParser.getDefinitions()) {
             definitions.addDefinitions(definitionMap);
+            if (includeSourceSpans != IncludeSourceSpans.NONE && !definitionMap.keySet().isEmpty()) {
+                blockDefinitions.add(new DocumentReparser.BlockDefinitions(blockInputIndex, definitionMap));
+            }
         }
     }
 
     /**
      * Prepares the input line replacing {@code \0}
      */
-    private static String prepareLine(String line) {
-        if (line.indexOf('\0') == -1) {
+    private static CharSequence prepareLine(CharSequence line) {
+        if (Characters.find('\0', line, 0) == -1) {
             return line;
         } else {
-            return line.replace('\0', '\uFFFD');
+            return line.toString().replace('\0', '\uFFFD');
         }
     }
 
@@ -586,10 +779,12 @@ public class DocumentParser implements ParserState {
 
     private static class OpenBlockParser {
         private final BlockParser blockParser;
+        private final int lineInputIndex;
         private int sourceIndex;
 
-        OpenBlockParser(BlockParser blockParser, int sourceIndex) {
+        OpenBlockParser(BlockParser blockParser, int lineInputIndex, int sourceIndex) {
             this.blockParser = blockParser;
+            this.lineInputIndex = lineInputIndex;
             this.sourceIndex = sourceIndex;
         }
     }
@@ -0,0 +1,297 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.*;
+import org.commonmark.parser.InlineParserContext;
+import org.commonmark.parser.TextEdit;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Re-parses a document after an edit of its source text, keeping the top-level blocks that are not affected by it.
+ * <p>
+ * Parsing restarts at the top-level block before the first block that the edit touches (the block before, because the
+ * edit might change where it ends, e.g. by removing the blank line after a paragraph). Once the parser is past the
+ * edit, has no block open except the document and is at a line where an old top-level block started, it stops: from
+ * there on, the text is the same and parsing it would result in the same blocks, so the old blocks are kept and only
+ * their source spans are shifted.
+ * <p>
+ * Inline parsing of the kept blocks depends on the definitions of the whole document. If the re-parsed part doesn't
+ * have the same definitions as before, the document needs to be parsed from scratch.
+ */
+public class DocumentReparser {
+
+    private final Supplier<DocumentParser> documentParserFactory;
+    private final UnaryOperator<Node> postProcessor;
+
+    public DocumentReparser(Supplier<DocumentParser> documentParserFactory, UnaryOperator<Node> postProcessor) {
+        this.documentParserFactory = documentParserFactory;
+        this.postProcessor = postProcessor;
+    }
+
+    /**
+     * Update the document for the edit, in place.
+     *
+     * @return the state of the updated document, or null if the document can't be updated and needs to be parsed from
+     * scratch instead (nothing is changed in that case)
+     */
+    public State reparse(Node document, State state, String newText, TextEdit edit) {
+        List<Node> blocks = new ArrayList<>();
+        for (Node node = document.getFirstChild(); node != null; node = node.getNext()) {
+            if (node.getSourceSpans().isEmpty()) {
+                // E.g. added by a post processor, we don't know which part of the input it belongs to
+                return null;
+            }
+            blocks.add(node);
+        }
+        if (blocks.isEmpty()) {
+            return null;
+        }
+
+        int editStart = edit.getStartIndex();
+        int inputDelta = edit.getNewLength() - edit.getOldLength();
+
+        int affected = 0;
+        while (affected < blocks.size() && getEndIndex(blocks.get(affected)) < editStart) {
+            affected++;
+        }
+        int restart = Math.max(affected - 1, 0);
+        int restartIndex = restart == 0 ? 0 : getLineStartIndex(blocks.get(restart));
+        int restartLineIndex = restart == 0 ? 0 : blocks.get(restart).getSourceSpans().get(0).getLineIndex();
+        if (restartIndex > newText.length()) {
+            return null;
+        }
+
+        DocumentParser documentParser = documentParserFactory.get();
+        documentParser.addDefinitions(state.getDefinitionsBefore(restartIndex));
+
+        var resumeCondition = new ResumeCondition(blocks, restart + 1, editStart + edit.getNewLength(), inputDelta);
+        int stopIndex = documentParser.parseLines(newText, restartIndex, restartLineIndex, resumeCondition);
+        documentParser.closeBlockParsers();
+
+        int resume = stopIndex == -1 ? blocks.size() : resumeCondition.blockIndex;
+        int oldResumeIndex = resume < blocks.size() ? getLineStartIndex(blocks.get(resume)) : Integer.MAX_VALUE;
+        if (!sameDefinitions(state.getDefinitionsBetween(restartIndex, oldResumeIndex), documentParser.getBlockDefinitions())) {
+            return null;
+        }
+
+        var definitionsAfter = shift(state.getDefinitionsFrom(oldResumeIndex), inputDelta);
+        documentParser.addDefinitions(definitionsAfter);
+        documentParser.processInlines();
+        Node parsed = postProcessor.apply(documentParser.getDocument());
+
+        Node resumeBlock = resume < blocks.size() ? blocks.get(resume) : null;
+        for (int i = restart; i < resume; i++) {
+            blocks.get(i).unlink();
+        }
+        Node child = parsed.getFirstChild();
+        while (child != null) {
+            Node next = child.getNext();
+            if (resumeBlock != null) {
+                resumeBlock.insertBefore(child);
+            } else {
+                document.appendChild(child);
+            }
+            child = next;
+        }
+
+        if (resumeBlock != null) {
+            int lineDelta = documentParser.getLineIndex() + 1 - resumeBlock.getSourceSpans().get(0).getLineIndex();
+            if (lineDelta != 0 || inputDelta != 0) {
+                for (int i = resume; i < blocks.size(); i++) {
+                    shiftSourceSpans(blocks.get(i), lineDelta, inputDelta);
+                }
+            }
+        }
+
+        var definitions = new ArrayList<>(state.getDefinitionsBefore(restartIndex));
+        definitions.addAll(documentParser.getBlockDefinitions());
+        definitions.addAll(definitionsAfter);
+        return new State(definitions, documentParser.getInlineParserContext(), documentParser.getRawTexts());
+    }
+
+    private static int getLineStartIndex(Node block) {
+        var sourceSpan = block.getSourceSpans().get(0);
+        return sourceSpan.getInputIndex() - sourceSpan.getColumnIndex();
+    }
+
+    private static int getEndIndex(Node block) {
+        var sourceSpans = block.getSourceSpans();
+        var sourceSpan = sourceSpans.get(sourceSpans.size() - 1);
+        return sourceSpan.getInputIndex() + sourceSpan.getLength();
+    }
+
+    /**
+     * Compare the definitions of the re-parsed blocks with the definitions of the blocks they replaced. For link
+     * reference definitions, the destination and title are compared. For other types, only the labels can be compared.
+     */
+    private static boolean sameDefinitions(List<BlockDefinitions> oldDefinitions, List<BlockDefinitions> newDefinitions) {
+        if (oldDefinitions.size() != newDefinitions.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldDefinitions.size(); i++) {
+            DefinitionMap<?> oldMap = oldDefinitions.get(i).getDefinitionMap();
+            DefinitionMap<?> newMap = newDefinitions.get(i).getDefinitionMap();
+            if (oldMap.getType() != newMap.getType() || !List.copyOf(oldMap.keySet()).equals(List.copyOf(newMap.keySet()))) {
+                return false;
+            }
+            if (oldMap.getType() == LinkReferenceDefinition.class) {
+                Iterator<?> newValues = newMap.values().iterator();
+                for (Object oldValue : oldMap.values()) {
+                    var oldDefinition = (LinkReferenceDefinition) oldValue;
+                    var newDefinition = (LinkReferenceDefinition) newValues.next();
+                    if (!Objects.equals(oldDefinition.getDestination(), newDefinition.getDestination()) ||
+                            !Objects.equals(oldDefinition.getTitle(), newDefinition.getTitle())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static List<BlockDefinitions> shift(List<BlockDefinitions> blockDefinitions, int inputDelta) {
+        var result = new ArrayList<BlockDefinitions>(blockDefinitions.size());
+        for (var definitions : blockDefinitions) {
+            result.add(new BlockDefinitions(definitions.inputIndex + inputDelta, definitions.definitionMap));
+        }
+        return result;
+    }
+
+    private static void shiftSourceSpans(Node root, int lineDelta, int inputDelta) {
+        Node node = root;
+        while (node != null) {
+            var sourceSpans = node.getSourceSpans();
+            if (!sourceSpans.isEmpty()) {
+                var shifted = new ArrayList<SourceSpan>(sourceSpans.size());
+                for (var sourceSpan : sourceSpans) {
+                    shifted.add(SourceSpan.of(sourceSpan.getLineIndex() + lineDelta, sourceSpan.getColumnIndex(),
+                            sourceSpan.getInputIndex() + inputDelta, sourceSpan.getLength()));
+                }
+                node.setSourceSpans(shifted);
+            }
+
+            if (node.getFirstChild() != null) {
+                node = node.getFirstChild();
+            } else {
+                while (node != root && node.getNext() == null) {
+                    node = node.getParent();
+                }
+                node = node == root ? null : node.getNext();
+            }
+        }
+    }
+
+    /**
+     * What needs to be remembered about a parsed document to be able to re-parse it.
+     */
+    public static class State {
+
+        // In the order they were added during parsing
+        private final List<BlockDefinitions> blockDefinitions;
+        // With the definitions of the whole document
+        private final InlineParserContext inlineParserContext;
+        // Of the parsed blocks only (for a re-parse, not the kept blocks)
+        private final List<Text> rawTexts;
+
+        private State(List<BlockDefinitions> blockDefinitions, InlineParserContext inlineParserContext,
+                      List<Text> rawTexts) {
+            this.blockDefinitions = blockDefinitions;
+            this.inlineParserContext = inlineParserContext;
+            this.rawTexts = rawTexts;
+        }
+
+        public static State of(DocumentParser documentParser) {
+            return new State(documentParser.getBlockDefinitions(), documentParser.getInlineParserContext(),
+                    documentParser.getRawTexts());
+        }
+
+        /**
+         * @return the context for parsing inline content of the document later, see
+         * {@link DocumentParser#getInlineParserContext()}
+         */
+        public InlineParserContext getInlineParserContext() {
+            return inlineParserContext;
+        }
+
+        /**
+         * @return the text nodes with raw inline content that were created for the parsed blocks, see
+         * {@link DocumentParser#getRawTexts()}
+         */
+        public List<Text> getRawTexts() {
+            return rawTexts;
+        }
+
+        private List<BlockDefinitions> getDefinitionsBefore(int inputIndex) {
+            return getDefinitionsBetween(0, inputIndex);
+        }
+
+        private List<BlockDefinitions> getDefinitionsFrom(int inputIndex) {
+            return getDefinitionsBetween(inputIndex, Integer.MAX_VALUE);
+        }
+
+        private List<BlockDefinitions> getDefinitionsBetween(int startIndex, int endIndex) {
+            var result = new ArrayList<BlockDefinitions>();
+            for (var definitions : blockDefinitions) {
+                if (definitions.inputIndex >= startIndex && definitions.inputIndex < endIndex) {
+                    result.add(definitions);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Definitions of a block, with the input index of the line the block started on.
+     */
+    static class BlockDefinitions {
+
+        private final int inputIndex;
+        private final DefinitionMap<?> definitionMap;
+
+        BlockDefinitions(int inputIndex, DefinitionMap<?> definitionMap) {
+            this.inputIndex = inputIndex;
+            this.definitionMap = definitionMap;
+        }
+
+        DefinitionMap<?> getDefinitionMap() {
+            return definitionMap;
+        }
+    }
+
+    /**
+     * Whether parsing can stop at a line of the new text: It needs to be after the edit, and an old top-level block
+     * needs to have started at the same text.
+     */
+    private static class ResumeCondition implements IntPredicate {
+
+        private final List<Node> blocks;
+        private final int editEndIndex;
+        private final int inputDelta;
+        private int blockIndex;
+
+        ResumeCondition(List<Node> blocks, int blockIndex, int editEndIndex, int inputDelta) {
+            this.blocks = blocks;
+            this.blockIndex = blockIndex;
+            this.editEndIndex = editEndIndex;
+            this.inputDelta = inputDelta;
+        }
+
+        @Override
+        public boolean test(int lineStartIndex) {
+            if (lineStartIndex < editEndIndex) {
+                return false;
+            }
+            int oldIndex = lineStartIndex - inputDelta;
+            while (blockIndex < blocks.size() && getLineStartIndex(blocks.get(blockIndex)) < oldIndex) {
+                blockIndex++;
+            }
+            return blockIndex < blocks.size() && getLineStartIndex(blocks.get(blockIndex)) == oldIndex;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.commonmark.internal;
 
+import org.commonmark.internal.util.CharSlice;
 import org.commonmark.internal.util.Parsing;
 import org.commonmark.node.Block;
 import org.commonmark.node.FencedCodeBlock;
@@ -9,6 +10,8 @@ import org.commonmark.text.Characters;
 
 import static org.commonmark.internal.util.Escaping.unescapeString;
 
+import java.util.Set;
+
 public class FencedCodeBlockParser extends AbstractBlockParser {
 
     private final FencedCodeBlock block = new FencedCodeBlock();
@@ -56,7 +59,7 @@ public class FencedCodeBlockParser extends AbstractBlockParser {
         if (firstLine == null) {
             firstLine = line.getContent().toString();
         } else {
-            otherLines.append(line.getContent());
+            CharSlice.appendTo(otherLines, line.getContent());
             otherLines.append('\n');
         }
     }
@@ -70,6 +73,11 @@ public class FencedCodeBlockParser extends AbstractBlockParser {
 
     public static class Factory extends AbstractBlockParserFactory {
 
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('`', '~');
+        }
+
         @Override
         public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
             int indent = state.getIndent();
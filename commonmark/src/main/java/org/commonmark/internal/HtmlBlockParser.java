@@ -6,81 +6,70 @@ import org.commonmark.node.Paragraph;
 import org.commonmark.parser.SourceLine;
 import org.commonmark.parser.block.*;
 
-import java.util.regex.Pattern;
+import org.commonmark.text.AsciiMatcher;
+import org.commonmark.text.Characters;
 
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parser for HTML blocks. The start conditions (types 1 to 7) and end conditions are checked with hand-written
+ * matchers instead of regular expressions, because they are tried for every line starting with {@code <}, and the end
+ * condition for every line of the block.
+ */
 public class HtmlBlockParser extends AbstractBlockParser {
 
-    private static final String TAGNAME = "[A-Za-z][A-Za-z0-9-]*";
-    private static final String ATTRIBUTENAME = "[a-zA-Z_:][a-zA-Z0-9:._-]*";
-    private static final String UNQUOTEDVALUE = "[^\"'=<>`\\x00-\\x20]+";
-    private static final String SINGLEQUOTEDVALUE = "'[^']*'";
-    private static final String DOUBLEQUOTEDVALUE = "\"[^\"]*\"";
-    private static final String ATTRIBUTEVALUE = "(?:" + UNQUOTEDVALUE + "|" + SINGLEQUOTEDVALUE
-            + "|" + DOUBLEQUOTEDVALUE + ")";
-    private static final String ATTRIBUTEVALUESPEC = "(?:" + "\\s*=" + "\\s*" + ATTRIBUTEVALUE
-            + ")";
-    private static final String ATTRIBUTE = "(?:" + "\\s+" + ATTRIBUTENAME + ATTRIBUTEVALUESPEC
-            + "?)";
-
-    private static final String OPENTAG = "<" + TAGNAME + ATTRIBUTE + "*" + "\\s*/?>";
-    private static final String CLOSETAG = "</" + TAGNAME + "\\s*[>]";
-
-    private static final Pattern[][] BLOCK_PATTERNS = new Pattern[][]{
-            {null, null}, // not used (no type 0)
-            {
-                    Pattern.compile("^<(?:script|pre|style|textarea)(?:\\s|>|$)", Pattern.CASE_INSENSITIVE),
-                    Pattern.compile("</(?:script|pre|style|textarea)>", Pattern.CASE_INSENSITIVE)
-            },
-            {
-                    Pattern.compile("^<!--"),
-                    Pattern.compile("-->")
-            },
-            {
-                    Pattern.compile("^<[?]"),
-                    Pattern.compile("\\?>")
-            },
-            {
-                    Pattern.compile("^<![A-Z]"),
-                    Pattern.compile(">")
-            },
-            {
-                    Pattern.compile("^<!\\[CDATA\\["),
-                    Pattern.compile("\\]\\]>")
-            },
-            {
-                    Pattern.compile("^</?(?:" +
-                            "address|article|aside|" +
-                            "base|basefont|blockquote|body|" +
-                            "caption|center|col|colgroup|" +
-                            "dd|details|dialog|dir|div|dl|dt|" +
-                            "fieldset|figcaption|figure|footer|form|frame|frameset|" +
-                            "h1|h2|h3|h4|h5|h6|head|header|hr|html|" +
-                            "iframe|" +
-                            "legend|li|link|" +
-                            "main|menu|menuitem|" +
-                            "nav|noframes|" +
-                            "ol|optgroup|option|" +
-                            "p|param|" +
-                            "search|section|summary|" +
-                            "table|tbody|td|tfoot|th|thead|title|tr|track|" +
-                            "ul" +
-                            ")(?:\\s|[/]?[>]|$)", Pattern.CASE_INSENSITIVE),
-                    null // terminated by blank line
-            },
-            {
-                    Pattern.compile("^(?:" + OPENTAG + '|' + CLOSETAG + ")\\s*$", Pattern.CASE_INSENSITIVE),
-                    null // terminated by blank line
-            }
-    };
+    private static final AsciiMatcher ASCII_LETTER = AsciiMatcher.builder().range('A', 'Z').range('a', 'z').build();
+    private static final AsciiMatcher ASCII_ALPHANUMERIC = ASCII_LETTER.newBuilder().range('0', '9').build();
+    private static final AsciiMatcher TAG_NAME_CONTINUE = ASCII_ALPHANUMERIC.newBuilder().c('-').build();
+    private static final AsciiMatcher ATTRIBUTE_NAME_START = ASCII_LETTER.newBuilder().c('_').c(':').build();
+    private static final AsciiMatcher ATTRIBUTE_NAME_CONTINUE = ATTRIBUTE_NAME_START.newBuilder()
+            .range('0', '9').c('.').c('-').build();
+    // Whitespace as in \s of java.util.regex
+    private static final AsciiMatcher WHITESPACE = AsciiMatcher.builder()
+            .c(' ').c('\t').c('\n').c('\u000B').c('\f').c('\r').build();
+    private static final AsciiMatcher UNQUOTED_VALUE_END = AsciiMatcher.builder()
+            .range('\u0000', ' ').c('"').c('\'').c('=').c('<').c('>').c('`').build();
+
+    // Type 1
+    private static final String[] RAW_TEXT_TAGS = {"script", "pre", "style", "textarea"};
+    private static final String[] RAW_TEXT_CLOSING_TAGS = {"</script>", "</pre>", "</style>", "</textarea>"};
+
+    // Type 6, by first letter
+    private static final String[][] BLOCK_TAGS = new String[26][];
+
+    static {
+        var tags = List.of(
+                "address", "article", "aside",
+                "base", "basefont", "blockquote", "body",
+                "caption", "center", "col", "colgroup",
+                "dd", "details", "dialog", "dir", "div", "dl", "dt",
+                "fieldset", "figcaption", "figure", "footer", "form", "frame", "frameset",
+                "h1", "h2", "h3", "h4", "h5", "h6", "head", "header", "hr", "html",
+                "iframe",
+                "legend", "li", "link",
+                "main", "menu", "menuitem",
+                "nav", "noframes",
+                "ol", "optgroup", "option",
+                "p", "param",
+                "search", "section", "summary",
+                "table", "tbody", "td", "tfoot", "th", "thead", "title", "tr", "track",
+                "ul");
+        for (char c = 'a'; c <= 'z'; c++) {
+            char first = c;
+            BLOCK_TAGS[c - 'a'] = tags.stream().filter(tag -> tag.charAt(0) == first).toArray(String[]::new);
+        }
+    }
 
     private final HtmlBlock block = new HtmlBlock();
-    private final Pattern closingPattern;
+    // See start and end conditions in the spec
+    private final int blockType;
 
     private boolean finished = false;
     private BlockContent content = new BlockContent();
 
-    private HtmlBlockParser(Pattern closingPattern) {
-        this.closingPattern = closingPattern;
+    private HtmlBlockParser(int blockType) {
+        this.blockType = blockType;
     }
 
     @Override
@@ -95,7 +84,7 @@ public class HtmlBlockParser extends AbstractBlockParser {
         }
 
         // Blank line ends type 6 and type 7 blocks
-        if (state.isBlank() && closingPattern == null) {
+        if (state.isBlank() && blockType >= 6) {
             return BlockContinue.none();
         } else {
             return BlockContinue.atIndex(state.getIndex());
@@ -106,7 +95,7 @@ public class HtmlBlockParser extends AbstractBlockParser {
     public void addLine(SourceLine line) {
         content.add(line.getContent());
 
-        if (closingPattern != null && closingPattern.matcher(line.getContent()).find()) {
+        if (blockType <= 5 && isEnd(blockType, line.getContent())) {
             finished = true;
         }
     }
@@ -119,28 +108,247 @@ public class HtmlBlockParser extends AbstractBlockParser {
 
     public static class Factory extends AbstractBlockParserFactory {
 
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('<');
+        }
+
         @Override
         public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
             int nextNonSpace = state.getNextNonSpaceIndex();
             CharSequence line = state.getLine().getContent();
 
             if (state.getIndent() < 4 && line.charAt(nextNonSpace) == '<') {
-                for (int blockType = 1; blockType <= 7; blockType++) {
-                    // Type 7 can not interrupt a paragraph (not even a lazy one)
-                    if (blockType == 7 && (
-                            matchedBlockParser.getMatchedBlockParser().getBlock() instanceof Paragraph ||
-                                    state.getActiveBlockParser().canHaveLazyContinuationLines())) {
-                        continue;
+                // Type 7 can not interrupt a paragraph (not even a lazy one)
+                boolean canBeType7 = !(matchedBlockParser.getMatchedBlockParser().getBlock() instanceof Paragraph ||
+                        state.getActiveBlockParser().canHaveLazyContinuationLines());
+                int blockType = getStartType(line, nextNonSpace, canBeType7);
+                if (blockType != 0) {
+                    return BlockStart.of(new HtmlBlockParser(blockType)).atIndex(state.getIndex());
+                }
+            }
+            return BlockStart.none();
+        }
+    }
+
+    /**
+     * @param line the line
+     * @param start the index of the {@code <}
+     * @param canBeType7 whether a type 7 block can start here
+     * @return the type of the HTML block that starts, or 0 if none starts
+     */
+    static int getStartType(CharSequence line, int start, boolean canBeType7) {
+        int length = line.length();
+        int i = start + 1;
+        if (i == length) {
+            return 0;
+        }
+        char c = line.charAt(i);
+        if (c == '!') {
+            if (startsWith(line, i + 1, "--")) {
+                return 2;
+            } else if (i + 1 < length && line.charAt(i + 1) >= 'A' && line.charAt(i + 1) <= 'Z') {
+                return 4;
+            } else if (startsWith(line, i + 1, "[CDATA[")) {
+                return 5;
+            }
+            return 0;
+        } else if (c == '?') {
+            return 3;
+        }
+
+        int nameStart = c == '/' ? i + 1 : i;
+        int nameEnd = skip(ASCII_ALPHANUMERIC, line, nameStart);
+        if (nameEnd != nameStart) {
+            if (c != '/' && isRawTextTagEnd(line, nameEnd) && matchesAny(line, nameStart, nameEnd, RAW_TEXT_TAGS)) {
+                return 1;
+            }
+            if (isBlockTagEnd(line, nameEnd) && isBlockTag(line, nameStart, nameEnd)) {
+                return 6;
+            }
+        }
+
+        if (canBeType7 && isCompleteTag(line, start)) {
+            return 7;
+        }
+        return 0;
+    }
+
+    /**
+     * @return whether the line contains the end condition of the HTML block type (1 to 5)
+     */
+    static boolean isEnd(int blockType, CharSequence line) {
+        switch (blockType) {
+            case 1:
+                for (int i = Characters.find('<', line, 0); i != -1; i = Characters.find('<', line, i + 1)) {
+                    for (var closingTag : RAW_TEXT_CLOSING_TAGS) {
+                        if (regionMatchesIgnoreCase(line, i, closingTag)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            case 2:
+                return contains(line, "-->");
+            case 3:
+                return contains(line, "?>");
+            case 4:
+                return Characters.find('>', line, 0) != -1;
+            case 5:
+                return contains(line, "]]>");
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isRawTextTagEnd(CharSequence line, int index) {
+        return index == line.length() || WHITESPACE.matches(line.charAt(index)) || line.charAt(index) == '>';
+    }
+
+    private static boolean isBlockTagEnd(CharSequence line, int index) {
+        return isRawTextTagEnd(line, index) || startsWith(line, index, "/>");
+    }
+
+    private static boolean isBlockTag(CharSequence line, int start, int end) {
+        char first = Character.toLowerCase(line.charAt(start));
+        if (first < 'a' || first > 'z') {
+            return false;
+        }
+        return matchesAny(line, start, end, BLOCK_TAGS[first - 'a']);
+    }
+
+    private static boolean matchesAny(CharSequence line, int start, int end, String[] names) {
+        for (var name : names) {
+            if (name.length() == end - start && regionMatchesIgnoreCase(line, start, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the rest of the line is a complete open tag or closing tag, followed only by whitespace.
+     */
+    private static boolean isCompleteTag(CharSequence line, int start) {
+        int length = line.length();
+        int i = start + 1;
+        if (i < length && line.charAt(i) == '/') {
+            i++;
+            if (i == length || !ASCII_LETTER.matches(line.charAt(i))) {
+                return false;
+            }
+            i = skip(WHITESPACE, line, skip(TAG_NAME_CONTINUE, line, i + 1));
+            if (i == length || line.charAt(i) != '>') {
+                return false;
+            }
+            return skip(WHITESPACE, line, i + 1) == length;
+        }
+
+        if (i == length || !ASCII_LETTER.matches(line.charAt(i))) {
+            return false;
+        }
+        i = skip(TAG_NAME_CONTINUE, line, i + 1);
+        while (true) {
+            int afterWhitespace = skip(WHITESPACE, line, i);
+            // Attributes need whitespace before them
+            if (afterWhitespace == i || afterWhitespace == length ||
+                    !ATTRIBUTE_NAME_START.matches(line.charAt(afterWhitespace))) {
+                i = afterWhitespace;
+                break;
+            }
+            i = skip(ATTRIBUTE_NAME_CONTINUE, line, afterWhitespace + 1);
+
+            // Optional value specification
+            int equals = skip(WHITESPACE, line, i);
+            if (equals < length && line.charAt(equals) == '=') {
+                int value = skip(WHITESPACE, line, equals + 1);
+                if (value == length) {
+                    return false;
+                }
+                char quote = line.charAt(value);
+                if (quote == '"' || quote == '\'') {
+                    int closingQuote = Characters.find(quote, line, value + 1);
+                    if (closingQuote == -1) {
+                        return false;
                     }
-                    Pattern opener = BLOCK_PATTERNS[blockType][0];
-                    Pattern closer = BLOCK_PATTERNS[blockType][1];
-                    boolean matches = opener.matcher(line.subSequence(nextNonSpace, line.length())).find();
-                    if (matches) {
-                        return BlockStart.of(new HtmlBlockParser(closer)).atIndex(state.getIndex());
+                    i = closingQuote + 1;
+                } else {
+                    int valueEnd = skipNot(UNQUOTED_VALUE_END, line, value);
+                    if (valueEnd == value) {
+                        return false;
                     }
+                    i = valueEnd;
                 }
             }
-            return BlockStart.none();
         }
+
+        if (i < length && line.charAt(i) == '/') {
+            i++;
+        }
+        if (i == length || line.charAt(i) != '>') {
+            return false;
+        }
+        return skip(WHITESPACE, line, i + 1) == length;
+    }
+
+    private static int skip(AsciiMatcher matcher, CharSequence s, int startIndex) {
+        int length = s.length();
+        for (int i = startIndex; i < length; i++) {
+            if (!matcher.matches(s.charAt(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int skipNot(AsciiMatcher matcher, CharSequence s, int startIndex) {
+        int length = s.length();
+        for (int i = startIndex; i < length; i++) {
+            if (matcher.matches(s.charAt(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static boolean startsWith(CharSequence s, int index, String prefix) {
+        if (index + prefix.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(index + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param lowerCase the string to match, in lower case
+     */
+    private static boolean regionMatchesIgnoreCase(CharSequence s, int index, String lowerCase) {
+        if (index + lowerCase.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = s.charAt(index + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(CharSequence s, String substring) {
+        char first = substring.charAt(0);
+        for (int i = Characters.find(first, s, 0); i != -1; i = Characters.find(first, s, i + 1)) {
+            if (startsWith(s, i, substring)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -1,11 +1,13 @@
 package org.commonmark.internal;
 
 import org.commonmark.internal.inline.*;
+import org.commonmark.internal.util.CharTable;
 import org.commonmark.internal.util.Escaping;
 import org.commonmark.internal.util.LinkScanner;
 import org.commonmark.node.*;
 import org.commonmark.parser.InlineParser;
 import org.commonmark.parser.InlineParserContext;
+import org.commonmark.parser.InlineParserFactory;
 import org.commonmark.parser.SourceLines;
 import org.commonmark.parser.beta.Scanner;
 import org.commonmark.parser.beta.*;
@@ -17,13 +19,14 @@ import java.util.*;
 public class InlineParserImpl implements InlineParser, InlineParserState {
 
     private final InlineParserContext context;
-    private final List<InlineContentParserFactory> inlineContentParserFactories;
-    private final Map<Character, DelimiterProcessor> delimiterProcessors;
+    private final Config config;
+    private final CharTable<DelimiterProcessor> delimiterProcessors;
     private final List<LinkProcessor> linkProcessors;
     private final BitSet specialCharacters;
     private final BitSet linkMarkers;
 
-    private Map<Character, List<InlineContentParser>> inlineParsers;
+    // Same index as the factories in the config
+    private InlineContentParser[] inlineParsers;
     private Scanner scanner;
     private boolean includeSourceSpans;
     private int trailingSpaces;
@@ -40,15 +43,29 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
     private Bracket lastBracket;
 
     public InlineParserImpl(InlineParserContext context) {
+        this(context, new Config(context));
+    }
+
+    private InlineParserImpl(InlineParserContext context, Config config) {
         this.context = context;
-        this.inlineContentParserFactories = calculateInlineContentParserFactories(context.getCustomInlineContentParserFactories());
-        this.delimiterProcessors = calculateDelimiterProcessors(context.getCustomDelimiterProcessors());
-        this.linkProcessors = calculateLinkProcessors(context.getCustomLinkProcessors());
-        this.linkMarkers = calculateLinkMarkers(context.getCustomLinkMarkers());
-        this.specialCharacters = calculateSpecialCharacters(linkMarkers, this.delimiterProcessors.keySet(), this.inlineContentParserFactories);
+        this.config = config;
+        this.delimiterProcessors = config.delimiterProcessors;
+        this.linkProcessors = config.linkProcessors;
+        this.linkMarkers = config.linkMarkers;
+        this.specialCharacters = config.specialCharacters;
     }
 
-    private List<InlineContentParserFactory> calculateInlineContentParserFactories(List<InlineContentParserFactory> customFactories) {
+    /**
+     * Create a factory for inline parsers that share the configuration calculated from the custom parts of the
+     * context (parsers, processors, markers) once, instead of calculating it for each parser. The definitions are
+     * still looked up in the context passed to {@link InlineParserFactory#create}.
+     */
+    public static InlineParserFactory factory(InlineParserContext context) {
+        var config = new Config(context);
+        return inlineParserContext -> new InlineParserImpl(inlineParserContext, config);
+    }
+
+    private static List<InlineContentParserFactory> calculateInlineContentParserFactories(List<InlineContentParserFactory> customFactories) {
         // Custom parsers can override built-in parsers if they want, so make sure they are tried first
         var list = new ArrayList<>(customFactories);
         list.add(new BackslashInlineParser.Factory());
@@ -59,7 +76,7 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
         return list;
     }
 
-    private List<LinkProcessor> calculateLinkProcessors(List<LinkProcessor> linkProcessors) {
+    private static List<LinkProcessor> calculateLinkProcessors(List<LinkProcessor> linkProcessors) {
         // Custom link processors can override the built-in behavior, so make sure they are tried first
         var list = new ArrayList<>(linkProcessors);
         list.add(new CoreLinkProcessor());
@@ -106,6 +123,20 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
         }
     }
 
+    private static CharTable<int[]> calculateInlineParserIndexes(List<InlineContentParserFactory> inlineContentParserFactories) {
+        var lists = new HashMap<Character, List<Integer>>();
+        for (int i = 0; i < inlineContentParserFactories.size(); i++) {
+            for (var c : inlineContentParserFactories.get(i).getTriggerCharacters()) {
+                lists.computeIfAbsent(c, k -> new ArrayList<>()).add(i);
+            }
+        }
+        var map = new HashMap<Character, int[]>();
+        for (var entry : lists.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new CharTable<>(map);
+    }
+
     private static BitSet calculateLinkMarkers(Set<Character> linkMarkers) {
         var bitSet = new BitSet();
         for (var c : linkMarkers) {
@@ -134,15 +165,16 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
         return bitSet;
     }
 
-    private Map<Character, List<InlineContentParser>> createInlineContentParsers() {
-        var map = new HashMap<Character, List<InlineContentParser>>();
-        for (var factory : inlineContentParserFactories) {
-            var parser = factory.create();
-            for (var c : factory.getTriggerCharacters()) {
-                map.computeIfAbsent(c, k -> new ArrayList<>()).add(parser);
-            }
+    private InlineContentParser[] createInlineContentParsers() {
+        if (config.allStateless) {
+            return config.statelessParsers;
         }
-        return map;
+        var parsers = new InlineContentParser[config.statelessParsers.length];
+        for (int i = 0; i < parsers.length; i++) {
+            var statelessParser = config.statelessParsers[i];
+            parsers[i] = statelessParser != null ? statelessParser : config.inlineContentParserFactories.get(i).create();
+        }
+        return parsers;
     }
 
     @Override
@@ -157,14 +189,9 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
     public void parse(SourceLines lines, Node block) {
         reset(lines);
 
-        while (true) {
-            var nodes = parseInline();
-            if (nodes == null) {
-                break;
-            }
-            for (Node node : nodes) {
-                block.appendChild(node);
-            }
+        boolean more = true;
+        while (more) {
+            more = parseInline(block);
         }
 
         processDelimiters(null);
@@ -187,29 +214,32 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
     }
 
     /**
-     * Parse the next inline element in subject, advancing our position.
-     * On success, return the new inline node.
-     * On failure, return null.
+     * Parse the next inline element in subject, advancing our position, and append the resulting nodes to the block.
+     * The nodes are appended directly instead of being returned, so that no collection needs to be allocated for them.
+     *
+     * @return false if the end was reached, true otherwise
      */
-    private List<? extends Node> parseInline() {
+    private boolean parseInline(Node block) {
         char c = scanner.peek();
 
         switch (c) {
             case '[':
-                return List.of(parseOpenBracket());
+                block.appendChild(parseOpenBracket());
+                return true;
             case ']':
-                return List.of(parseCloseBracket());
+                block.appendChild(parseCloseBracket());
+                return true;
             case '\n':
-                return List.of(parseLineBreak());
+                block.appendChild(parseLineBreak());
+                return true;
             case Scanner.END:
-                return null;
+                return false;
         }
 
         if (linkMarkers.get(c)) {
             var markerPosition = scanner.position();
-            var nodes = parseLinkMarker();
-            if (nodes != null) {
-                return nodes;
+            if (parseLinkMarker(block)) {
+                return true;
             }
             // Reset and try other things (e.g. inline parsers below)
             scanner.setPosition(markerPosition);
@@ -217,14 +247,15 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
 
         // No inline parser, delimiter or other special handling.
         if (!specialCharacters.get(c)) {
-            return List.of(parseText());
+            block.appendChild(parseText());
+            return true;
         }
 
-        List<InlineContentParser> inlineParsers = this.inlineParsers.get(c);
-        if (inlineParsers != null) {
+        int[] inlineParserIndexes = config.inlineParserIndexes.get(c);
+        if (inlineParserIndexes != null) {
             Position position = scanner.position();
-            for (InlineContentParser inlineParser : inlineParsers) {
-                ParsedInline parsedInline = inlineParser.tryParse(this);
+            for (int inlineParserIndex : inlineParserIndexes) {
+                ParsedInline parsedInline = inlineParsers[inlineParserIndex].tryParse(this);
                 if (parsedInline instanceof ParsedInlineImpl) {
                     ParsedInlineImpl parsedInlineImpl = (ParsedInlineImpl) parsedInline;
                     Node node = parsedInlineImpl.getNode();
@@ -232,7 +263,8 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
                     if (includeSourceSpans && node.getSourceSpans().isEmpty()) {
                         node.setSourceSpans(scanner.getSource(position, scanner.position()).getSourceSpans());
                     }
-                    return List.of(node);
+                    block.appendChild(node);
+                    return true;
                 } else {
                     // Reset position
                     scanner.setPosition(position);
@@ -241,24 +273,23 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
         }
 
         DelimiterProcessor delimiterProcessor = delimiterProcessors.get(c);
-        if (delimiterProcessor != null) {
-            List<? extends Node> nodes = parseDelimiters(delimiterProcessor, c);
-            if (nodes != null) {
-                return nodes;
-            }
+        if (delimiterProcessor != null && parseDelimiters(delimiterProcessor, c, block)) {
+            return true;
         }
 
         // If we get here, even for a special/delimiter character, we will just treat it as text.
-        return List.of(parseText());
+        block.appendChild(parseText());
+        return true;
     }
 
     /**
-     * Attempt to parse delimiters like emphasis, strong emphasis or custom delimiters.
+     * Attempt to parse delimiters like emphasis, strong emphasis or custom delimiters, appending the delimiter
+     * characters to the block. Returns false if there were none.
      */
-    private List<? extends Node> parseDelimiters(DelimiterProcessor delimiterProcessor, char delimiterChar) {
+    private boolean parseDelimiters(DelimiterProcessor delimiterProcessor, char delimiterChar, Node block) {
         DelimiterData res = scanDelimiters(delimiterProcessor, delimiterChar);
         if (res == null) {
-            return null;
+            return false;
         }
 
         List<Text> characters = res.characters;
@@ -269,7 +300,10 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
             lastDelimiter.previous.next = lastDelimiter;
         }
 
-        return characters;
+        for (Text character : characters) {
+            block.appendChild(character);
+        }
+        return true;
     }
 
     /**
@@ -289,10 +323,10 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
     }
 
     /**
-     * If next character is {@code [}, add a bracket to the stack.
-     * Otherwise, return null.
+     * If next character is {@code [}, add a bracket to the stack and append the marker and bracket to the block.
+     * Otherwise, return false.
      */
-    private List<? extends Node> parseLinkMarker() {
+    private boolean parseLinkMarker(Node block) {
         var markerPosition = scanner.position();
         scanner.next();
         var bracketPosition = scanner.position();
@@ -303,9 +337,11 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
 
             // Add entry to stack for this opener
             addBracket(Bracket.withMarker(bangNode, markerPosition, bracketNode, bracketPosition, contentPosition, lastBracket, lastDelimiter));
-            return List.of(bangNode, bracketNode);
+            block.appendChild(bangNode);
+            block.appendChild(bracketNode);
+            return true;
         } else {
-            return null;
+            return false;
         }
     }
 
@@ -951,4 +987,46 @@ public class InlineParserImpl implements InlineParser, InlineParserState {
             return afterTextBracket;
         }
     }
+
+    /**
+     * The parts of the inline parser that only depend on the configuration of the parser, not on the input. Doesn't
+     * change after construction, so it can be shared by inline parsers, including ones used concurrently.
+     */
+    private static class Config {
+
+        private final List<InlineContentParserFactory> inlineContentParserFactories;
+        private final CharTable<DelimiterProcessor> delimiterProcessors;
+        private final List<LinkProcessor> linkProcessors;
+        private final BitSet linkMarkers;
+        private final BitSet specialCharacters;
+        // Indexes of the factories (and their parsers) to try for a character, in order
+        private final CharTable<int[]> inlineParserIndexes;
+        // Created once for factories that create stateless parsers, same index as the factories, null for others
+        private final InlineContentParser[] statelessParsers;
+        // If all factories create stateless parsers, statelessParsers can be used for all parsing
+        private final boolean allStateless;
+
+        Config(InlineParserContext context) {
+            this.inlineContentParserFactories = calculateInlineContentParserFactories(context.getCustomInlineContentParserFactories());
+            var delimiterProcessorMap = calculateDelimiterProcessors(context.getCustomDelimiterProcessors());
+            this.delimiterProcessors = new CharTable<>(delimiterProcessorMap);
+            this.linkProcessors = calculateLinkProcessors(context.getCustomLinkProcessors());
+            this.linkMarkers = calculateLinkMarkers(context.getCustomLinkMarkers());
+            this.specialCharacters = calculateSpecialCharacters(linkMarkers, delimiterProcessorMap.keySet(), inlineContentParserFactories);
+            this.inlineParserIndexes = calculateInlineParserIndexes(inlineContentParserFactories);
+
+            this.statelessParsers = new InlineContentParser[inlineContentParserFactories.size()];
+            boolean allStateless = true;
+            for (int i = 0; i < inlineContentParserFactories.size(); i++) {
+                var factory = inlineContentParserFactories.get(i);
+                if (factory.createsStatelessParsers()) {
+                    statelessParsers[i] = factory.create();
+                } else {
+                    allStateless = false;
+                }
+            }
+
+            this.allStateless = allStateless;
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.Node;
+import org.commonmark.node.Visitor;
+import org.commonmark.parser.IncludeInlines;
+import org.commonmark.parser.InlineParser;
+import org.commonmark.parser.InlineParserContext;
+import org.commonmark.parser.InlineParserFactory;
+import org.commonmark.parser.SourceLines;
+
+/**
+ * Inline content that is parsed when it's first needed, see {@link IncludeInlines#LAZY}. Instead of the parsed inline
+ * nodes, a block gets this as its only child. {@link Node} replaces it with the parsed nodes as soon as the children of
+ * the block are accessed, so it's never returned from the node API. This keeps the mechanism out of the public API.
+ */
+public class LazyInlines extends Node {
+
+    private final SourceLines lines;
+    private final InlineParserFactory inlineParserFactory;
+    private final InlineParserContext context;
+
+    private LazyInlines(SourceLines lines, InlineParserFactory inlineParserFactory, InlineParserContext context) {
+        this.lines = lines;
+        this.inlineParserFactory = inlineParserFactory;
+        this.context = context;
+    }
+
+    /**
+     * @return an inline parser that adds lazy inline content to blocks instead of parsing it
+     */
+    static InlineParser inlineParser(InlineParserFactory inlineParserFactory, InlineParserContext context) {
+        return (lines, node) -> node.appendChild(new LazyInlines(lines, inlineParserFactory, context));
+    }
+
+    /**
+     * Parse the inline content, appending it to this node. Called by {@link Node} with this node locked, which then
+     * moves the children to the block. A new inline parser is used for each block, so that blocks of a document can be
+     * accessed from multiple threads.
+     */
+    public void parse() {
+        inlineParserFactory.create(context).parse(lines, this);
+    }
+
+    @Override
+    public void accept(Visitor visitor) {
+        // Never visited, it's replaced before the children of its parent can be accessed
+    }
+}
@@ -5,6 +5,7 @@ import org.commonmark.node.*;
 import org.commonmark.parser.block.*;
 
 import java.util.Objects;
+import java.util.Set;
 
 public class ListBlockParser extends AbstractBlockParser {
 
@@ -199,6 +200,11 @@ public class ListBlockParser extends AbstractBlockParser {
 
     public static class Factory extends AbstractBlockParserFactory {
 
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('*', '-', '+', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9');
+        }
+
         @Override
         public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
             BlockParser matched = matchedBlockParser.getMatchedBlockParser();
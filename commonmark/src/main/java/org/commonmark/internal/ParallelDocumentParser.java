@@ -0,0 +1,231 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.Document;
+import org.commonmark.node.Node;
+import org.commonmark.text.Characters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Parses a document by splitting it into chunks that are parsed concurrently, with the same result as parsing it
+ * sequentially.
+ * <p>
+ * A cheap scan of the input looks for split points: a line that starts without indentation after a blank line, that
+ * doesn't look like it continues a list and is not in a fenced code block. That's just a guess; whether a chunk can
+ * really start there is only known after parsing the chunk before it. So each chunk is block-parsed until it reaches the
+ * start of the next chunk with no block open except the document. If it has to continue past that (e.g. because of a
+ * list item with blank lines, or an HTML block), the next chunk is not used, and the part of it that wasn't covered yet
+ * is parsed again sequentially until the next point where a chunk result can be used.
+ * <p>
+ * The definitions of all chunks are merged in order, then inlines of the chunks are parsed concurrently.
+ * <p>
+ * The calling thread never waits for a task that hasn't started yet: it runs such a task itself instead. So parsing
+ * finishes even if the executor is busy, e.g. when {@code parse} is called from a task on the same bounded executor.
+ */
+public class ParallelDocumentParser {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final Supplier<DocumentParser> documentParserFactory;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public ParallelDocumentParser(Supplier<DocumentParser> documentParserFactory, Executor executor, int chunkSize) {
+        this.documentParserFactory = documentParserFactory;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    public Document parse(String input) {
+        var chunks = findChunks(input);
+        if (chunks.size() == 1) {
+            var documentParser = parseBlocks(input, 0, 0, Integer.MAX_VALUE).documentParser;
+            documentParser.processInlines();
+            return documentParser.getDocument();
+        }
+
+        for (int i = 0; i < chunks.size(); i++) {
+            var chunk = chunks.get(i);
+            int endIndex = i + 1 < chunks.size() ? chunks.get(i + 1).startIndex : Integer.MAX_VALUE;
+            chunk.result = new Task<>(() -> parseBlocks(input, chunk.startIndex, chunk.lineIndex, endIndex));
+            executor.execute(chunk.result);
+        }
+
+        var parts = new ArrayList<Part>();
+        int index = 0;
+        int lineIndex = 0;
+        int chunkIndex = 0;
+        while (index != -1) {
+            while (chunkIndex < chunks.size() && chunks.get(chunkIndex).startIndex < index) {
+                chunkIndex++;
+            }
+            Part part;
+            if (chunkIndex < chunks.size() && chunks.get(chunkIndex).startIndex == index) {
+                part = chunks.get(chunkIndex).result.join();
+            } else {
+                // The previous part didn't end where the next chunk starts, parse until we can use a chunk again
+                int endIndex = chunkIndex < chunks.size() ? chunks.get(chunkIndex).startIndex : Integer.MAX_VALUE;
+                part = parseBlocks(input, index, lineIndex, endIndex);
+            }
+            parts.add(part);
+            index = part.stopIndex;
+            lineIndex = part.documentParser.getLineIndex() + 1;
+        }
+
+        var definitions = new Definitions();
+        for (var part : parts) {
+            definitions.addDefinitions(part.documentParser.getDefinitions());
+        }
+
+        var inlineResults = new ArrayList<Task<Void>>(parts.size());
+        for (var part : parts) {
+            var inlineResult = new Task<Void>(() -> {
+                part.documentParser.processInlines(definitions);
+                return null;
+            });
+            inlineResults.add(inlineResult);
+            executor.execute(inlineResult);
+        }
+        for (var inlineResult : inlineResults) {
+            inlineResult.join();
+        }
+
+        var document = parts.get(0).documentParser.getDocument();
+        for (int i = 1; i < parts.size(); i++) {
+            Node node = parts.get(i).documentParser.getDocument().getFirstChild();
+            while (node != null) {
+                Node next = node.getNext();
+                document.appendChild(node);
+                node = next;
+            }
+        }
+        return document;
+    }
+
+    private Part parseBlocks(String input, int startIndex, int startLineIndex, int endIndex) {
+        var documentParser = documentParserFactory.get();
+        int stopIndex = documentParser.parseLines(input, startIndex, startLineIndex, lineStart -> lineStart >= endIndex);
+        documentParser.closeBlockParsers();
+        return new Part(documentParser, stopIndex);
+    }
+
+    private List<Chunk> findChunks(String input) {
+        var chunks = new ArrayList<Chunk>();
+        chunks.add(new Chunk(0, 0));
+
+        int nextSplitIndex = chunkSize;
+        boolean content = false;
+        boolean previousBlank = false;
+        boolean inFence = false;
+        int lineIndex = 0;
+        int lineStart = 0;
+        while (lineStart < input.length()) {
+            int lineBreak = Characters.findLineBreak(input, lineStart);
+            int lineEnd = lineBreak != -1 ? lineBreak : input.length();
+            boolean blank = Characters.skipSpaceTab(input, lineStart, lineEnd) == lineEnd;
+
+            if (isFence(input, lineStart, lineEnd)) {
+                inFence = !inFence;
+            }
+            if (lineStart >= nextSplitIndex && content && previousBlank && !inFence && !blank &&
+                    !Characters.isSpaceOrTab(input, lineStart) && !isListContinuation(input.charAt(lineStart))) {
+                chunks.add(new Chunk(lineStart, lineIndex));
+                nextSplitIndex = lineStart + chunkSize;
+            }
+
+            content |= !blank;
+            previousBlank = blank;
+            lineIndex++;
+            if (lineBreak == -1) {
+                break;
+            }
+            lineStart = lineBreak + 1;
+            if (input.charAt(lineBreak) == '\r' && lineStart < input.length() && input.charAt(lineStart) == '\n') {
+                lineStart++;
+            }
+        }
+        return chunks;
+    }
+
+    private static boolean isFence(String input, int lineStart, int lineEnd) {
+        int start = Characters.skip(' ', input, lineStart, Math.min(lineStart + 3, lineEnd));
+        if (start + 3 > lineEnd) {
+            return false;
+        }
+        char c = input.charAt(start);
+        return (c == '`' || c == '~') && input.charAt(start + 1) == c && input.charAt(start + 2) == c;
+    }
+
+    private static boolean isListContinuation(char c) {
+        // A new item of a list that is still open
+        return c == '-' || c == '+' || c == '*' || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * A task that is run by whichever thread gets to it first: a thread of the executor, or the calling thread when it
+     * needs the result.
+     */
+    private static class Task<T> implements Runnable {
+        private final Supplier<T> supplier;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void run() {
+            if (started.compareAndSet(false, true)) {
+                try {
+                    result.complete(supplier.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        T join() {
+            // If no other thread started it yet, run it here instead of waiting
+            run();
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final int startIndex;
+        private final int lineIndex;
+        private Task<Part> result;
+
+        Chunk(int startIndex, int lineIndex) {
+            this.startIndex = startIndex;
+            this.lineIndex = lineIndex;
+        }
+    }
+
+    private static class Part {
+        private final DocumentParser documentParser;
+        // Where the next part needs to start, or -1 at the end of the input
+        private final int stopIndex;
+
+        Part(DocumentParser documentParser, int stopIndex) {
+            this.documentParser = documentParser;
+            this.stopIndex = stopIndex;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.SourceSpan;
+import org.commonmark.node.Text;
+import org.commonmark.parser.IncludeInlines;
+import org.commonmark.parser.InlineParser;
+import org.commonmark.parser.SourceLine;
+import org.commonmark.parser.SourceLines;
+
+import java.util.List;
+
+/**
+ * Inline content that is not parsed, see {@link IncludeInlines#NONE}. The content of a block is kept as a single
+ * {@link Text} node, which can be turned back into the source lines for parsing it later.
+ */
+public class RawInlines {
+
+    /**
+     * @param inlineSourceSpans whether to give the text nodes the source spans of the lines, only for
+     *                          {@link org.commonmark.parser.IncludeSourceSpans#BLOCKS_AND_INLINES}
+     * @param rawTexts          the created text nodes are added to this, so they can be told apart from parsed text
+     * @return an inline parser that appends the raw content as a text node instead of parsing it
+     */
+    static InlineParser inlineParser(boolean inlineSourceSpans, List<Text> rawTexts) {
+        return (lines, node) -> {
+            var content = lines.getContent();
+            if (!content.isEmpty()) {
+                var text = new Text(content);
+                if (inlineSourceSpans) {
+                    text.setSourceSpans(lines.getSourceSpans());
+                }
+                node.appendChild(text);
+                rawTexts.add(text);
+            }
+        };
+    }
+
+    private RawInlines() {
+    }
+
+    /**
+     * @return the source lines of a text node created for raw inline content
+     */
+    public static SourceLines getLines(Text text) {
+        String[] lines = text.getLiteral().split("\n", -1);
+        List<SourceSpan> sourceSpans = text.getSourceSpans();
+        // Without inline source spans, or if the text was changed, we can't tell which span belongs to which line
+        boolean withSourceSpans = sourceSpans.size() == lines.length;
+        var sourceLines = SourceLines.empty();
+        for (int i = 0; i < lines.length; i++) {
+            sourceLines.addLine(SourceLine.of(lines[i], withSourceSpans ? sourceSpans.get(i) : null));
+        }
+        return sourceLines;
+    }
+}
@@ -57,5 +57,10 @@ public class AutolinkInlineParser implements InlineContentParser {
         public InlineContentParser create() {
             return new AutolinkInlineParser();
         }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
     }
 }
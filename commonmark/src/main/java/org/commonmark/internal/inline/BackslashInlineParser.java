@@ -44,5 +44,10 @@ public class BackslashInlineParser implements InlineContentParser {
         public InlineContentParser create() {
             return new BackslashInlineParser();
         }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
     }
 }
@@ -59,5 +59,10 @@ public class BackticksInlineParser implements InlineContentParser {
         public InlineContentParser create() {
             return new BackticksInlineParser();
         }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
     }
 }
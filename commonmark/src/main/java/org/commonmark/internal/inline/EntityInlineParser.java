@@ -40,8 +40,20 @@ public class EntityInlineParser implements InlineContentParser {
                 }
             }
         } else if (entityStart.matches(c)) {
-            scanner.match(entityContinue);
+            // Look up the name while scanning it, so that we don't need to get it as a string
+            int names = Html5Entities.ALL_NAMES;
+            int length = 0;
+            while (entityContinue.matches(c)) {
+                names = Html5Entities.narrowNames(names, length, c);
+                length++;
+                scanner.next();
+                c = scanner.peek();
+            }
             if (scanner.next(';')) {
+                String value = Html5Entities.getNamedValue(names, length);
+                if (value != null) {
+                    return ParsedInline.of(new Text(value), scanner.position());
+                }
                 return entity(scanner, start);
             }
         }
@@ -65,5 +77,10 @@ public class EntityInlineParser implements InlineContentParser {
         public InlineContentParser create() {
             return new EntityInlineParser();
         }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
     }
 }
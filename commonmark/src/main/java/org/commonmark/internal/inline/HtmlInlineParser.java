@@ -213,5 +213,10 @@ public class HtmlInlineParser implements InlineContentParser {
         public InlineContentParser create() {
             return new HtmlInlineParser();
         }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
     }
 }
@@ -4,27 +4,46 @@ import org.commonmark.node.Node;
 import org.commonmark.renderer.NodeRenderer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NodeRendererMap {
 
+    // Each node class gets a small id when it's first seen, so that the renderer for a node can be looked up by index
+    // instead of hashing its class for every node.
+    private static final AtomicInteger NEXT_TYPE_ID = new AtomicInteger();
+    private static final ClassValue<Integer> TYPE_IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_TYPE_ID.getAndIncrement();
+        }
+    };
+
     private final List<NodeRenderer> nodeRenderers = new ArrayList<>();
-    private final Map<Class<? extends Node>, NodeRenderer> renderers = new HashMap<>(32);
+    private NodeRenderer[] renderers = new NodeRenderer[32];
 
     public void add(NodeRenderer nodeRenderer) {
         nodeRenderers.add(nodeRenderer);
         for (var nodeType : nodeRenderer.getNodeTypes()) {
+            int typeId = TYPE_IDS.get(nodeType);
+            if (typeId >= renderers.length) {
+                renderers = Arrays.copyOf(renderers, Math.max(typeId + 1, renderers.length * 2));
+            }
             // The first node renderer for a node type "wins".
-            renderers.putIfAbsent(nodeType, nodeRenderer);
+            if (renderers[typeId] == null) {
+                renderers[typeId] = nodeRenderer;
+            }
         }
     }
 
     public void render(Node node) {
-        var nodeRenderer = renderers.get(node.getClass());
-        if (nodeRenderer != null) {
-            nodeRenderer.render(node);
+        int typeId = TYPE_IDS.get(node.getClass());
+        if (typeId < renderers.length) {
+            var nodeRenderer = renderers[typeId];
+            if (nodeRenderer != null) {
+                nodeRenderer.render(node);
+            }
         }
     }
 
@@ -6,8 +6,12 @@ public class BulletListHolder extends ListHolder {
     private final String marker;
 
     public BulletListHolder(ListHolder parent, BulletList list) {
+        this(parent, list.getMarker());
+    }
+
+    public BulletListHolder(ListHolder parent, String marker) {
         super(parent);
-        marker = list.getMarker();
+        this.marker = marker;
     }
 
     public String getMarker() {
@@ -7,9 +7,13 @@ public class OrderedListHolder extends ListHolder {
     private int counter;
 
     public OrderedListHolder(ListHolder parent, OrderedList list) {
+        this(parent, list.getMarkerDelimiter(), list.getMarkerStartNumber());
+    }
+
+    public OrderedListHolder(ListHolder parent, String markerDelimiter, Integer markerStartNumber) {
         super(parent);
-        delimiter = list.getMarkerDelimiter() != null ? list.getMarkerDelimiter() : ".";
-        counter = list.getMarkerStartNumber() != null ? list.getMarkerStartNumber() : 1;
+        delimiter = markerDelimiter != null ? markerDelimiter : ".";
+        counter = markerStartNumber != null ? markerStartNumber : 1;
     }
 
     public String getDelimiter() {
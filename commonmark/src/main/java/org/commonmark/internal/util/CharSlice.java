@@ -0,0 +1,100 @@
+package org.commonmark.internal.util;
+
+import java.util.Objects;
+
+/**
+ * A part of a string that doesn't copy its characters. Taking a slice of a slice doesn't copy either; the characters
+ * are only copied when {@link #toString()} is called (or when it's appended to a builder).
+ * <p>
+ * {@code equals} and {@code hashCode} are based on the content, so that a slice is equal to a {@link String} with the
+ * same characters and has the same hash code (though {@link String#equals} is still false for a slice).
+ */
+public final class CharSlice implements CharSequence {
+
+    private final String source;
+    private final int start;
+    private final int end;
+
+    private CharSlice(String source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the characters of {@code source} from {@code start} (inclusive) to {@code end} (exclusive), the source
+     * itself if that is all of it
+     */
+    public static CharSequence of(String source, int start, int end) {
+        Objects.checkFromToIndex(start, end, source.length());
+        if (start == 0 && end == source.length()) {
+            return source;
+        }
+        return new CharSlice(source, start, end);
+    }
+
+    /**
+     * Append the characters to the builder, copying them in bulk for a slice (which {@link StringBuilder#append}
+     * doesn't do for an unknown {@link CharSequence}).
+     */
+    public static void appendTo(StringBuilder sb, CharSequence cs) {
+        if (cs instanceof CharSlice) {
+            var slice = (CharSlice) cs;
+            sb.append(slice.source, slice.start, slice.end);
+        } else {
+            sb.append(cs);
+        }
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, end - start);
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, this.end - this.start);
+        return of(source, this.start + start, this.start + end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof CharSlice) {
+            var other = (CharSlice) o;
+            return regionEquals(other.source, other.start, other.end - other.start);
+        }
+        if (o instanceof String) {
+            var other = (String) o;
+            return regionEquals(other, 0, other.length());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as String.hashCode
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+
+    private boolean regionEquals(String other, int otherStart, int otherLength) {
+        return otherLength == end - start && source.regionMatches(start, other, otherStart, otherLength);
+    }
+}
@@ -0,0 +1,39 @@
+package org.commonmark.internal.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An unmodifiable map from characters to values for lookups in hot loops. Values for ASCII characters are in an array
+ * indexed by the character, so looking them up doesn't box the character or hash it. Values for other characters are
+ * in a (usually empty) map.
+ */
+public final class CharTable<V> {
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final Object[] ascii = new Object[ASCII_LIMIT];
+    private final Map<Character, V> other = new HashMap<>();
+
+    public CharTable(Map<Character, ? extends V> map) {
+        for (var entry : map.entrySet()) {
+            char c = entry.getKey();
+            if (c < ASCII_LIMIT) {
+                ascii[c] = entry.getValue();
+            } else {
+                other.put(c, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return the value for the character, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(char c) {
+        if (c < ASCII_LIMIT) {
+            return (V) ascii[c];
+        }
+        return other.isEmpty() ? null : other.get(c);
+    }
+}
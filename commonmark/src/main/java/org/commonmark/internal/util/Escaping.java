@@ -1,9 +1,10 @@
 package org.commonmark.internal.util;
 
-import java.nio.charset.StandardCharsets;
+import org.commonmark.text.AsciiMatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Escaping {
 
@@ -11,54 +12,18 @@ public class Escaping {
 
     public static final String ENTITY = "&(?:#x[a-f0-9]{1,6}|#[0-9]{1,7}|[a-z][a-z0-9]{1,31});";
 
-    private static final Pattern BACKSLASH_OR_AMP = Pattern.compile("[\\\\&]");
-
-    private static final Pattern ENTITY_OR_ESCAPED_CHAR =
-            Pattern.compile("\\\\" + ESCAPABLE + '|' + ENTITY, Pattern.CASE_INSENSITIVE);
+    // Characters that can be backslash-escaped, same as ESCAPABLE
+    private static final AsciiMatcher ESCAPABLE_CHAR = AsciiMatcher.builder()
+            .range('!', '/').range(':', '@').range('[', '`').range('{', '~').build();
 
     // From RFC 3986 (see "reserved", "unreserved") except don't escape '[' or ']' to be compatible with JS encodeURI
-    private static final Pattern ESCAPE_IN_URI =
-            Pattern.compile("(%[a-fA-F0-9]{0,2}|[^:/?#@!$&'()*+,;=a-zA-Z0-9\\-._~])");
+    private static final AsciiMatcher URI_SAFE = AsciiMatcher.builder()
+            .c(':').c('/').c('?').c('#').c('@').c('!').c('$').c('&').c('\'').c('(').c(')').c('*').c('+').c(',')
+            .c(';').c('=').range('a', 'z').range('A', 'Z').range('0', '9').c('-').c('.').c('_').c('~').build();
 
     private static final char[] HEX_DIGITS =
             new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
-    private static final Pattern WHITESPACE = Pattern.compile("[ \t\r\n]+");
-
-    private static final Replacer UNESCAPE_REPLACER = new Replacer() {
-        @Override
-        public void replace(String input, StringBuilder sb) {
-            if (input.charAt(0) == '\\') {
-                sb.append(input, 1, input.length());
-            } else {
-                sb.append(Html5Entities.entityToString(input));
-            }
-        }
-    };
-
-    private static final Replacer URI_REPLACER = new Replacer() {
-        @Override
-        public void replace(String input, StringBuilder sb) {
-            if (input.startsWith("%")) {
-                if (input.length() == 3) {
-                    // Already percent-encoded, preserve
-                    sb.append(input);
-                } else {
-                    // %25 is the percent-encoding for %
-                    sb.append("%25");
-                    sb.append(input, 1, input.length());
-                }
-            } else {
-                byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
-                for (byte b : bytes) {
-                    sb.append('%');
-                    sb.append(HEX_DIGITS[(b >> 4) & 0xF]);
-                    sb.append(HEX_DIGITS[b & 0xF]);
-                }
-            }
-        }
-    };
-
     public static String escapeHtml(String input) {
         // Avoid building a new string in the majority of cases (nothing to escape)
         StringBuilder sb = null;
@@ -96,19 +61,118 @@ public class Escaping {
         return sb != null ? sb.toString() : input;
     }
 
+    /**
+     * Like {@link #escapeHtml(String)}, but appends the result to {@code out} instead of returning it. Runs of
+     * characters that don't need escaping are appended in one call.
+     */
+    public static void escapeHtml(String input, Appendable out) throws IOException {
+        escapeHtml(input, 0, input.length(), out);
+    }
+
+    /**
+     * Like {@link #escapeHtml(String, Appendable)}, but only for the characters from {@code start} to {@code end}.
+     */
+    public static void escapeHtml(String input, int start, int end, Appendable out) throws IOException {
+        int lastEnd = start;
+        for (int i = start; i < end; i++) {
+            String replacement = htmlReplacement(input.charAt(i));
+            if (replacement != null) {
+                out.append(input, lastEnd, i);
+                out.append(replacement);
+                lastEnd = i + 1;
+            }
+        }
+        if (lastEnd == 0 && end == input.length()) {
+            out.append(input);
+        } else {
+            out.append(input, lastEnd, end);
+        }
+    }
+
+    /**
+     * @return the last character that {@link #escapeHtml} outputs for the input, or 0 if the input is empty
+     */
+    public static char lastCharOfEscapedHtml(String input) {
+        return lastCharOfEscapedHtml(input, 0, input.length());
+    }
+
+    /**
+     * @return the last character that {@link #escapeHtml} outputs for the characters from {@code start} to
+     * {@code end}, or 0 if there are none
+     */
+    public static char lastCharOfEscapedHtml(String input, int start, int end) {
+        if (start == end) {
+            return 0;
+        }
+        char c = input.charAt(end - 1);
+        return htmlReplacement(c) != null ? ';' : c;
+    }
+
+    private static String htmlReplacement(char c) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '\"':
+                return "&quot;";
+            default:
+                return null;
+        }
+    }
+
     /**
      * Replace entities and backslash escapes with literal characters.
      */
     public static String unescapeString(String s) {
-        if (BACKSLASH_OR_AMP.matcher(s).find()) {
-            return replaceAll(ENTITY_OR_ESCAPED_CHAR, s, UNESCAPE_REPLACER);
-        } else {
+        int first = findBackslashOrAmp(s);
+        if (first == -1) {
             return s;
         }
+        var sb = new StringBuilder(s.length());
+        sb.append(s, 0, first);
+        unescape(s, first, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Like {@link #unescapeString(String)}, but appends the result to {@code out} instead of returning it.
+     */
+    public static void unescapeString(String s, Appendable out) throws IOException {
+        int first = findBackslashOrAmp(s);
+        if (first == -1) {
+            out.append(s);
+        } else {
+            out.append(s, 0, first);
+            unescape(s, first, out);
+        }
     }
 
     public static String percentEncodeUrl(String s) {
-        return replaceAll(ESCAPE_IN_URI, s, URI_REPLACER);
+        int first = findUriUnsafe(s);
+        if (first == -1) {
+            return s;
+        }
+        // Most URLs only have a few characters to encode, each of which becomes at least 3 characters
+        var sb = new StringBuilder(s.length() + 16);
+        sb.append(s, 0, first);
+        percentEncode(s, first, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Like {@link #percentEncodeUrl(String)}, but appends the result to {@code out} instead of returning it.
+     */
+    public static void percentEncodeUrl(String s, Appendable out) throws IOException {
+        int first = findUriUnsafe(s);
+        if (first == -1) {
+            out.append(s);
+        } else {
+            out.append(s, 0, first);
+            percentEncode(s, first, out);
+        }
     }
 
     public static String normalizeLabelContent(String input) {
@@ -121,31 +185,227 @@ public class Escaping {
         // "\u1E9E".toUpperCase(Locale.ROOT)  -> "\u1E9E"
         String caseFolded = trimmed.toLowerCase(Locale.ROOT).toUpperCase(Locale.ROOT);
 
-        return WHITESPACE.matcher(caseFolded).replaceAll(" ");
+        return collapseWhitespace(caseFolded);
     }
 
-    private static String replaceAll(Pattern p, String s, Replacer replacer) {
-        Matcher matcher = p.matcher(s);
+    private static int findBackslashOrAmp(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' || c == '&') {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        if (!matcher.find()) {
-            return s;
+    private static void unescape(String s, int from, Appendable out) {
+        try {
+            int length = s.length();
+            int lastEnd = from;
+            int i = from;
+            while (i < length) {
+                char c = s.charAt(i);
+                if (c == '\\') {
+                    if (i + 1 < length && ESCAPABLE_CHAR.matches(s.charAt(i + 1))) {
+                        out.append(s, lastEnd, i);
+                        out.append(s.charAt(i + 1));
+                        i += 2;
+                        lastEnd = i;
+                        continue;
+                    }
+                } else if (c == '&') {
+                    int end = findEntityEnd(s, i);
+                    if (end != -1) {
+                        out.append(s, lastEnd, i);
+                        appendEntity(s, i, end, out);
+                        i = end;
+                        lastEnd = i;
+                        continue;
+                    }
+                }
+                i++;
+            }
+            out.append(s, lastEnd, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the index after the {@code ;} if there's an entity (as in {@link #ENTITY}) starting at {@code start},
+     * -1 otherwise
+     */
+    private static int findEntityEnd(String s, int start) {
+        int length = s.length();
+        int i = start + 1;
+        if (i == length) {
+            return -1;
+        }
+        if (s.charAt(i) == '#') {
+            i++;
+            if (i < length && (s.charAt(i) == 'x' || s.charAt(i) == 'X')) {
+                i++;
+                int digitsEnd = skipDigits(s, i, 6, 16);
+                return digitsEnd != i && digitsEnd < length && s.charAt(digitsEnd) == ';' ? digitsEnd + 1 : -1;
+            }
+            int digitsEnd = skipDigits(s, i, 7, 10);
+            return digitsEnd != i && digitsEnd < length && s.charAt(digitsEnd) == ';' ? digitsEnd + 1 : -1;
+        }
+        if (!isAsciiLetter(s.charAt(i))) {
+            return -1;
         }
+        int nameEnd = skipDigits(s, i + 1, 31, 36);
+        return nameEnd != i + 1 && nameEnd < length && s.charAt(nameEnd) == ';' ? nameEnd + 1 : -1;
+    }
 
-        StringBuilder sb = new StringBuilder(s.length() + 16);
-        int lastEnd = 0;
-        do {
-            sb.append(s, lastEnd, matcher.start());
-            replacer.replace(matcher.group(), sb);
-            lastEnd = matcher.end();
-        } while (matcher.find());
+    private static int skipDigits(String s, int start, int maxDigits, int radix) {
+        int end = Math.min(s.length(), start + maxDigits);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 128 || Character.digit(c, radix) == -1) {
+                return i;
+            }
+        }
+        return end;
+    }
 
-        if (lastEnd != s.length()) {
-            sb.append(s, lastEnd, s.length());
+    private static void appendEntity(String s, int start, int end, Appendable out) throws IOException {
+        if (s.charAt(start + 1) != '#') {
+            int index = Html5Entities.findName(s, start + 1, end - 1);
+            if (index != -1) {
+                Html5Entities.appendValue(index, out);
+            } else {
+                out.append(s, start, end);
+            }
+            return;
         }
-        return sb.toString();
+        boolean hex = s.charAt(start + 2) == 'x' || s.charAt(start + 2) == 'X';
+        int codePoint = 0;
+        for (int i = hex ? start + 3 : start + 2; i < end - 1; i++) {
+            codePoint = codePoint * (hex ? 16 : 10) + Character.digit(s.charAt(i), 16);
+        }
+        if (codePoint == 0 || !Character.isValidCodePoint(codePoint)) {
+            out.append('\uFFFD');
+        } else if (Character.isBmpCodePoint(codePoint)) {
+            out.append((char) codePoint);
+        } else {
+            out.append(Character.highSurrogate(codePoint));
+            out.append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private static int findUriUnsafe(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!URI_SAFE.matches(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void percentEncode(String s, int from, Appendable out) {
+        try {
+            int length = s.length();
+            int lastEnd = from;
+            int i = from;
+            while (i < length) {
+                char c = s.charAt(i);
+                if (URI_SAFE.matches(c)) {
+                    i++;
+                    continue;
+                }
+                out.append(s, lastEnd, i);
+                if (c == '%') {
+                    int hexEnd = skipDigits(s, i + 1, 2, 16);
+                    if (hexEnd == i + 3) {
+                        // Already percent-encoded, preserve
+                        out.append(s, i, hexEnd);
+                    } else {
+                        // %25 is the percent-encoding for %
+                        out.append("%25");
+                        out.append(s, i + 1, hexEnd);
+                    }
+                    i = hexEnd;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    appendUtf8(Character.toCodePoint(c, s.charAt(i + 1)), out);
+                    i += 2;
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, can't be encoded as UTF-8 (same as the replacement of String.getBytes)
+                    appendPercentEncoded('?', out);
+                    i++;
+                } else {
+                    appendUtf8(c, out);
+                    i++;
+                }
+                lastEnd = i;
+            }
+            out.append(s, lastEnd, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendUtf8(int codePoint, Appendable out) throws IOException {
+        if (codePoint < 0x80) {
+            appendPercentEncoded(codePoint, out);
+        } else if (codePoint < 0x800) {
+            appendPercentEncoded(0xC0 | (codePoint >> 6), out);
+            appendPercentEncoded(0x80 | (codePoint & 0x3F), out);
+        } else if (codePoint < 0x10000) {
+            appendPercentEncoded(0xE0 | (codePoint >> 12), out);
+            appendPercentEncoded(0x80 | ((codePoint >> 6) & 0x3F), out);
+            appendPercentEncoded(0x80 | (codePoint & 0x3F), out);
+        } else {
+            appendPercentEncoded(0xF0 | (codePoint >> 18), out);
+            appendPercentEncoded(0x80 | ((codePoint >> 12) & 0x3F), out);
+            appendPercentEncoded(0x80 | ((codePoint >> 6) & 0x3F), out);
+            appendPercentEncoded(0x80 | (codePoint & 0x3F), out);
+        }
+    }
+
+    private static void appendPercentEncoded(int b, Appendable out) throws IOException {
+        out.append('%');
+        out.append(HEX_DIGITS[(b >> 4) & 0xF]);
+        out.append(HEX_DIGITS[b & 0xF]);
+    }
+
+    /**
+     * Replace each run of space, tab, carriage return and newline with a single space.
+     */
+    private static String collapseWhitespace(String s) {
+        StringBuilder sb = null;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (!isLabelWhitespace(c)) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            int end = i + 1;
+            while (end < length && isLabelWhitespace(s.charAt(end))) {
+                end++;
+            }
+            if (sb == null) {
+                if (c == ' ' && end == i + 1) {
+                    // Already a single space
+                    continue;
+                }
+                sb = new StringBuilder(length);
+                sb.append(s, 0, i);
+            }
+            sb.append(' ');
+            i = end - 1;
+        }
+        return sb != null ? sb.toString() : s;
+    }
+
+    private static boolean isLabelWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
     }
 
-    private interface Replacer {
-        void replace(String input, StringBuilder sb);
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
 }
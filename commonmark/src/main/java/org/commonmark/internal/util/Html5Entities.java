@@ -1,71 +1,164 @@
 package org.commonmark.internal.util;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 
+import static org.commonmark.internal.util.Html5EntityData.*;
+
+/**
+ * Lookup of HTML named character references and decoding of numeric character references.
+ * <p>
+ * The names are in a sorted table (see {@link Html5EntityData}) so that they can be looked up by binary search directly
+ * in the input, or narrowed down while the name is being scanned (see {@link #narrowNames}), without creating a string
+ * for the name.
+ */
 public class Html5Entities {
 
-    private static final Map<String, String> NAMED_CHARACTER_REFERENCES = readEntities();
-    private static final String ENTITY_PATH = "/org/commonmark/internal/util/entities.txt";
+    /**
+     * All names, to be narrowed down with {@link #narrowNames}.
+     */
+    public static final int ALL_NAMES = COUNT;
 
     public static String entityToString(String input) {
-        if (!input.startsWith("&") || !input.endsWith(";")) {
+        int length = input.length();
+        if (length < 2 || input.charAt(0) != '&' || input.charAt(length - 1) != ';') {
             return input;
         }
 
-        String value = input.substring(1, input.length() - 1);
-        if (value.startsWith("#")) {
-            value = value.substring(1);
-            int base = 10;
-            if (value.startsWith("x") || value.startsWith("X")) {
-                value = value.substring(1);
-                base = 16;
-            }
-
-            try {
-                int codePoint = Integer.parseInt(value, base);
-                if (codePoint == 0) {
-                    return "\uFFFD";
-                }
-                return new String(Character.toChars(codePoint));
-            } catch (IllegalArgumentException e) {
+        if (input.charAt(1) == '#') {
+            int codePoint = parseCodePoint(input, 2, length - 1);
+            if (codePoint <= 0 || !Character.isValidCodePoint(codePoint)) {
                 return "\uFFFD";
             }
+            return new String(Character.toChars(codePoint));
         } else {
-            String s = NAMED_CHARACTER_REFERENCES.get(value);
-            if (s != null) {
-                return s;
+            int index = findName(input, 1, length - 1);
+            return index != -1 ? getValue(index) : input;
+        }
+    }
+
+    /**
+     * @return the index of the name in {@code s} from {@code start} to {@code end}, or -1 if it's not a known name
+     */
+    public static int findName(CharSequence s, int start, int end) {
+        int low = 0;
+        int high = COUNT - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareName(mid, s, start, end);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
             } else {
-                return input;
+                return mid;
             }
         }
+        return -1;
+    }
+
+    public static String getValue(int index) {
+        return VALUES.substring(VALUE_OFFSETS.charAt(index), VALUE_OFFSETS.charAt(index + 1));
+    }
+
+    public static void appendValue(int index, Appendable out) throws IOException {
+        out.append(VALUES, VALUE_OFFSETS.charAt(index), VALUE_OFFSETS.charAt(index + 1));
+    }
+
+    /**
+     * Narrow down names while scanning one: Start with {@link #ALL_NAMES}, then call this for each character of the
+     * name.
+     *
+     * @param names the names that start with the characters before {@code index}
+     * @param index the index of the character in the name
+     * @param c the character
+     * @return the names that also have {@code c} at {@code index} (possibly none)
+     */
+    public static int narrowNames(int names, int index, char c) {
+        int from = names >>> 16;
+        int to = names & 0xFFFF;
+        // All names in the range share the same prefix, so they are sorted by the char at index
+        int newFrom = lowerBound(from, to, index, c);
+        // For \uFFFF, c + 1 wraps to 0 which results in no names, as it should because names are ASCII
+        int newTo = lowerBound(newFrom, to, index, (char) (c + 1));
+        return (newFrom << 16) | newTo;
+    }
+
+    /**
+     * @param names the names narrowed down with {@link #narrowNames}
+     * @param length the length of the name
+     * @return the value of the name with the characters that were used for narrowing down, or null if it's not a
+     * known name
+     */
+    public static String getNamedValue(int names, int length) {
+        int from = names >>> 16;
+        int to = names & 0xFFFF;
+        // If there's a name of exactly this length, it's first (shorter names are sorted before longer ones)
+        if (from < to && nameLength(from) == length) {
+            return getValue(from);
+        }
+        return null;
+    }
+
+    /**
+     * Parse a decimal or hexadecimal (with {@code x} or {@code X} prefix) number.
+     *
+     * @return the number, or -1 if it's not a valid number or bigger than the maximum code point
+     */
+    static int parseCodePoint(CharSequence s, int start, int end) {
+        int radix = 10;
+        if (start < end && (s.charAt(start) == 'x' || s.charAt(start) == 'X')) {
+            radix = 16;
+            start++;
+        }
+        if (start == end) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            int digit = c < 128 ? Character.digit(c, radix) : -1;
+            if (digit == -1) {
+                return -1;
+            }
+            result = result * radix + digit;
+            if (result > Character.MAX_CODE_POINT) {
+                return -1;
+            }
+        }
+        return result;
+    }
+
+    private static int lowerBound(int from, int to, int index, char c) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int start = NAME_OFFSETS.charAt(mid);
+            int length = NAME_OFFSETS.charAt(mid + 1) - start;
+            if (length <= index || NAMES.charAt(start + index) < c) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int nameLength(int index) {
+        return NAME_OFFSETS.charAt(index + 1) - NAME_OFFSETS.charAt(index);
     }
 
-    private static Map<String, String> readEntities() {
-        Map<String, String> entities = new HashMap<>();
-        InputStream stream = Html5Entities.class.getResourceAsStream(ENTITY_PATH);
-        Charset charset = StandardCharsets.UTF_8;
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(stream, charset))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                if (line.length() == 0) {
-                    continue;
-                }
-                int equal = line.indexOf("=");
-                String key = line.substring(0, equal);
-                String value = line.substring(equal + 1);
-                entities.put(key, value);
+    private static int compareName(int index, CharSequence s, int start, int end) {
+        int nameStart = NAME_OFFSETS.charAt(index);
+        int nameLength = NAME_OFFSETS.charAt(index + 1) - nameStart;
+        int length = end - start;
+        int n = Math.min(nameLength, length);
+        for (int i = 0; i < n; i++) {
+            int cmp = NAMES.charAt(nameStart + i) - s.charAt(start + i);
+            if (cmp != 0) {
+                return cmp;
             }
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed reading data for HTML named character references", e);
         }
-        entities.put("NewLine", "\n");
-        return entities;
+        return nameLength - length;
     }
 }
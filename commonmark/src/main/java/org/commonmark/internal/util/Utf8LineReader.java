@@ -0,0 +1,112 @@
+package org.commonmark.internal.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads lines from UTF-8 encoded bytes like {@link LineReader}, but without decoding the whole input first.
+ * <p>
+ * Line breaks are found on the raw bytes (in UTF-8, the bytes of {@code \n} and {@code \r} can not be part of a
+ * multi-byte sequence), and only the content of each line is decoded. Malformed input is replaced with
+ * {@code U+FFFD}, the same as {@link String#String(byte[], java.nio.charset.Charset)} does.
+ * <p>
+ * The bytes between the buffer's position and limit are read. Absolute access is used, so the position of the buffer
+ * is not changed.
+ */
+public class Utf8LineReader {
+
+    private final ByteBuffer input;
+    private final byte[] array;
+    private final int arrayOffset;
+    private final int limit;
+
+    private int position;
+    private String lineTerminator = null;
+
+    // Only used for buffers without an accessible array, e.g. direct or memory-mapped buffers
+    private CharsetDecoder decoder;
+    private CharBuffer chars;
+
+    public Utf8LineReader(ByteBuffer input) {
+        this.input = input;
+        if (input.hasArray()) {
+            this.array = input.array();
+            this.arrayOffset = input.arrayOffset();
+        } else {
+            this.array = null;
+            this.arrayOffset = 0;
+        }
+        this.position = input.position();
+        this.limit = input.limit();
+    }
+
+    /**
+     * Read a line of text.
+     *
+     * @return the line, or {@code null} when the end of the input has been reached and no more lines can be read
+     */
+    public String readLine() {
+        if (position >= limit) {
+            return line(null, null);
+        }
+
+        int start = position;
+        for (int i = start; i < limit; i++) {
+            byte b = input.get(i);
+            if (b == '\n') {
+                position = i + 1;
+                return line(decode(start, i), "\n");
+            } else if (b == '\r') {
+                if (i + 1 < limit && input.get(i + 1) == '\n') {
+                    position = i + 2;
+                    return line(decode(start, i), "\r\n");
+                } else {
+                    position = i + 1;
+                    return line(decode(start, i), "\r");
+                }
+            }
+        }
+
+        position = limit;
+        return line(decode(start, limit), null);
+    }
+
+    /**
+     * Return the line terminator of the last read line from {@link #readLine()}.
+     *
+     * @return {@code "\n"}, {@code "\r"}, {@code "\r\n"}, or {@code null}
+     */
+    public String getLineTerminator() {
+        return lineTerminator;
+    }
+
+    private String line(String line, String lineTerminator) {
+        this.lineTerminator = lineTerminator;
+        return line;
+    }
+
+    private String decode(int start, int end) {
+        if (array != null) {
+            return new String(array, arrayOffset + start, end - start, StandardCharsets.UTF_8);
+        }
+
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        // UTF-8 never decodes to more chars than bytes
+        int length = end - start;
+        if (chars == null || chars.capacity() < length) {
+            chars = CharBuffer.allocate(Math.max(length, LineReader.EXPECTED_LINE_LENGTH));
+        }
+        chars.clear();
+        decoder.reset();
+        decoder.decode(input.duplicate().limit(end).position(start), chars, true);
+        decoder.flush(chars);
+        return chars.flip().toString();
+    }
+}
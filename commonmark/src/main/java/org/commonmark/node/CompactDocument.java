@@ -0,0 +1,793 @@
+package org.commonmark.node;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, read-only representation of a tree of nodes, for keeping large documents in memory.
+ * <p>
+ * Instead of an object per node, the nodes are stored as indexes into arrays ("struct of arrays"): the type of each
+ * node, the indexes of its parent, first child and next sibling, its attributes (e.g. the level of a heading) and its
+ * source spans. String attributes are stored as offset and length: literals (e.g. of a {@link Text}) into the source
+ * text if it was passed to {@link #of(Node, String)} and the node's source spans contain the literal as is, everything
+ * else into one shared string. Node 0 is the root; the nodes are in document order, so a node's children come after
+ * it.
+ * <p>
+ * Traversal works with indexes, for example:
+ * <pre><code>
+ * for (int child = doc.getFirstChild(doc.getRoot()); child != CompactDocument.NONE; child = doc.getNext(child)) {
+ *     if (doc.getType(child) == CompactDocument.HEADING) {
+ *         ...
+ *     }
+ * }
+ * </code></pre>
+ * The string getters such as {@link #getLiteral(int)} create a string on each call; {@link #getLiteralChars(int)},
+ * {@link #getLiteralStart(int)} and {@link #getLiteralEnd(int)} give access to a literal without that.
+ * {@link org.commonmark.renderer.html.HtmlRenderer} and {@link org.commonmark.renderer.text.TextContentRenderer} can
+ * render a compact document directly. If a {@link Node} is needed, use {@link #toNode(int)}.
+ * <p>
+ * Only the core node types can be stored, not custom nodes (e.g. from extensions), see {@link #hasCustomNodes(Node)}.
+ *
+ * @since 0.25.0
+ */
+public final class CompactDocument {
+
+    /**
+     * Index for "no node", e.g. the parent of the root or the next sibling of a last child.
+     */
+    public static final int NONE = -1;
+
+    public static final int DOCUMENT = 0;
+    public static final int BLOCK_QUOTE = 1;
+    public static final int BULLET_LIST = 2;
+    public static final int ORDERED_LIST = 3;
+    public static final int LIST_ITEM = 4;
+    public static final int PARAGRAPH = 5;
+    public static final int HEADING = 6;
+    public static final int FENCED_CODE_BLOCK = 7;
+    public static final int INDENTED_CODE_BLOCK = 8;
+    public static final int HTML_BLOCK = 9;
+    public static final int THEMATIC_BREAK = 10;
+    public static final int LINK_REFERENCE_DEFINITION = 11;
+    public static final int TEXT = 12;
+    public static final int CODE = 13;
+    public static final int EMPHASIS = 14;
+    public static final int STRONG_EMPHASIS = 15;
+    public static final int LINK = 16;
+    public static final int IMAGE = 17;
+    public static final int HTML_INLINE = 18;
+    public static final int SOFT_LINE_BREAK = 19;
+    public static final int HARD_LINE_BREAK = 20;
+
+    private static final Map<Class<? extends Node>, Integer> TYPES = Map.ofEntries(
+            Map.entry(Document.class, DOCUMENT),
+            Map.entry(BlockQuote.class, BLOCK_QUOTE),
+            Map.entry(BulletList.class, BULLET_LIST),
+            Map.entry(OrderedList.class, ORDERED_LIST),
+            Map.entry(ListItem.class, LIST_ITEM),
+            Map.entry(Paragraph.class, PARAGRAPH),
+            Map.entry(Heading.class, HEADING),
+            Map.entry(FencedCodeBlock.class, FENCED_CODE_BLOCK),
+            Map.entry(IndentedCodeBlock.class, INDENTED_CODE_BLOCK),
+            Map.entry(HtmlBlock.class, HTML_BLOCK),
+            Map.entry(ThematicBreak.class, THEMATIC_BREAK),
+            Map.entry(LinkReferenceDefinition.class, LINK_REFERENCE_DEFINITION),
+            Map.entry(Text.class, TEXT),
+            Map.entry(Code.class, CODE),
+            Map.entry(Emphasis.class, EMPHASIS),
+            Map.entry(StrongEmphasis.class, STRONG_EMPHASIS),
+            Map.entry(Link.class, LINK),
+            Map.entry(Image.class, IMAGE),
+            Map.entry(HtmlInline.class, HTML_INLINE),
+            Map.entry(SoftLineBreak.class, SOFT_LINE_BREAK),
+            Map.entry(HardLineBreak.class, HARD_LINE_BREAK));
+
+    // Stands for null in int attributes
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private final int size;
+    private final byte[] types;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nexts;
+    // Attributes of node i are attributes[attributeStarts[i]] until attributeStarts[i + 1]. Strings are stored as
+    // two ints, start and length (-1 for null). The start is the index in the source, or ~index in the string pool.
+    private final int[] attributeStarts;
+    private final int[] attributes;
+    private final String source;
+    private final String strings;
+    // Source spans of node i start at sourceSpans[sourceSpanStarts[i]], 4 ints (line, column, input index, length) each
+    private final int[] sourceSpanStarts;
+    private final int[] sourceSpans;
+
+    private CompactDocument(Builder builder) {
+        this.size = builder.size;
+        this.types = Arrays.copyOf(builder.types, size);
+        this.parents = Arrays.copyOf(builder.parents, size);
+        this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        this.nexts = Arrays.copyOf(builder.nexts, size);
+        this.attributeStarts = Arrays.copyOf(builder.attributeStarts, size + 1);
+        this.attributeStarts[size] = builder.attributesSize;
+        this.attributes = Arrays.copyOf(builder.attributes, builder.attributesSize);
+        this.source = builder.source;
+        this.strings = builder.strings.toString();
+        this.sourceSpanStarts = Arrays.copyOf(builder.sourceSpanStarts, size + 1);
+        this.sourceSpanStarts[size] = builder.sourceSpansSize;
+        this.sourceSpans = Arrays.copyOf(builder.sourceSpans, builder.sourceSpansSize);
+    }
+
+    /**
+     * Create a compact document from a tree of nodes (usually a {@link Document} from the parser). The tree is not
+     * changed. All strings are copied into the compact document; see {@link #of(Node, String)} for avoiding that.
+     *
+     * @param root the root of the tree
+     * @return the compact document
+     * @throws IllegalArgumentException if the tree contains custom nodes, see {@link #hasCustomNodes(Node)}
+     */
+    public static CompactDocument of(Node root) {
+        return of(root, null);
+    }
+
+    /**
+     * Create a compact document from a tree of nodes that was parsed from {@code source}. Literals that are contained
+     * as is in the source spans of their node (which for inline nodes requires
+     * {@link org.commonmark.parser.IncludeSourceSpans#BLOCKS_AND_INLINES}) are stored as offset and length into the
+     * source instead of being copied. The compact document keeps a reference to the source. The tree is not changed.
+     *
+     * @param root   the root of the tree
+     * @param source the text that the tree was parsed from, or null if not available
+     * @return the compact document
+     * @throws IllegalArgumentException if the tree contains custom nodes, see {@link #hasCustomNodes(Node)}
+     */
+    public static CompactDocument of(Node root, String source) {
+        var builder = new Builder(source);
+        Node node = root;
+        int index = builder.add(node, NONE);
+        while (true) {
+            Node child = node.getFirstChild();
+            if (child != null) {
+                node = child;
+                index = builder.add(node, index);
+                continue;
+            }
+            while (node != root && node.getNext() == null) {
+                node = node.getParent();
+                index = builder.parents[index];
+            }
+            if (node == root) {
+                break;
+            }
+            node = node.getNext();
+            index = builder.add(node, builder.parents[index]);
+        }
+        return new CompactDocument(builder);
+    }
+
+    /**
+     * Check whether a tree of nodes contains nodes that a compact document can't store, i.e. nodes of other types than
+     * the core ones (e.g. from extensions).
+     *
+     * @param root the root of the tree
+     * @return whether there are any nodes that are not core nodes
+     * @since 0.25.0
+     */
+    public static boolean hasCustomNodes(Node root) {
+        Node node = root;
+        while (true) {
+            if (!TYPES.containsKey(node.getClass())) {
+                return true;
+            }
+            Node child = node.getFirstChild();
+            if (child != null) {
+                node = child;
+                continue;
+            }
+            while (node != root && node.getNext() == null) {
+                node = node.getParent();
+            }
+            if (node == root) {
+                return false;
+            }
+            node = node.getNext();
+        }
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the root node, which is always 0
+     */
+    public int getRoot() {
+        return 0;
+    }
+
+    /**
+     * @return an estimate of the memory used by this compact document in bytes, not including the source text passed
+     * to {@link #of(Node, String)}
+     */
+    public long estimateMemorySize() {
+        // Object headers and array lengths are approximated as 16 bytes each; strings as 2 bytes per char
+        long arrays = (long) types.length + 4L * (parents.length + firstChildren.length + nexts.length
+                + attributeStarts.length + attributes.length + sourceSpanStarts.length + sourceSpans.length);
+        return 16 * 9 + arrays + 2L * strings.length();
+    }
+
+    /**
+     * @return the type of the node, one of the constants such as {@link #PARAGRAPH}
+     */
+    public int getType(int node) {
+        return types[node];
+    }
+
+    /**
+     * @return the index of the parent of the node, or {@link #NONE} for the root
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @return the index of the first child of the node, or {@link #NONE} if it has no children
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * @return the index of the next sibling of the node, or {@link #NONE} if it's the last child
+     */
+    public int getNext(int node) {
+        return nexts[node];
+    }
+
+    /**
+     * @return the literal of a {@link #TEXT}, {@link #CODE}, {@link #HTML_INLINE}, {@link #HTML_BLOCK},
+     * {@link #FENCED_CODE_BLOCK}, {@link #INDENTED_CODE_BLOCK} or {@link #THEMATIC_BREAK} node, null otherwise
+     */
+    public String getLiteral(int node) {
+        int attribute = literalAttribute(node);
+        return attribute != NONE ? getString(node, attribute) : null;
+    }
+
+    /**
+     * Access the literal of a node without creating a string for it: the literal is the characters from
+     * {@link #getLiteralStart(int)} to {@link #getLiteralEnd(int)} of the returned string.
+     *
+     * @return the string that contains the literal of the node (the source text or a string of this document), null
+     * if the node has no literal (see {@link #getLiteral(int)})
+     */
+    public String getLiteralChars(int node) {
+        int attribute = literalAttribute(node);
+        if (attribute == NONE) {
+            return null;
+        }
+        int i = attributeStarts[node] + attribute;
+        if (attributes[i + 1] == -1) {
+            return null;
+        }
+        return attributes[i] >= 0 ? source : strings;
+    }
+
+    /**
+     * @return the start index (inclusive) of the literal of the node in {@link #getLiteralChars(int)}, 0 if the node
+     * has no literal
+     */
+    public int getLiteralStart(int node) {
+        int attribute = literalAttribute(node);
+        if (attribute == NONE) {
+            return 0;
+        }
+        int i = attributeStarts[node] + attribute;
+        if (attributes[i + 1] == -1) {
+            return 0;
+        }
+        int start = attributes[i];
+        return start >= 0 ? start : ~start;
+    }
+
+    /**
+     * @return the end index (exclusive) of the literal of the node in {@link #getLiteralChars(int)}, 0 if the node
+     * has no literal
+     */
+    public int getLiteralEnd(int node) {
+        int attribute = literalAttribute(node);
+        if (attribute == NONE) {
+            return 0;
+        }
+        int length = attributes[attributeStarts[node] + attribute + 1];
+        return length != -1 ? getLiteralStart(node) + length : 0;
+    }
+
+    /**
+     * @return the level of a {@link #HEADING} node, 0 otherwise
+     */
+    public int getLevel(int node) {
+        return types[node] == HEADING ? getInt(node, 0) : 0;
+    }
+
+    /**
+     * @return whether a {@link #BULLET_LIST} or {@link #ORDERED_LIST} node is tight, false otherwise
+     */
+    public boolean isTight(int node) {
+        int type = types[node];
+        return (type == BULLET_LIST || type == ORDERED_LIST) && getInt(node, 0) != 0;
+    }
+
+    /**
+     * @return the marker of a {@link #BULLET_LIST} node, the marker delimiter of an {@link #ORDERED_LIST} node, null
+     * otherwise or if not available
+     */
+    public String getMarker(int node) {
+        switch (types[node]) {
+            case BULLET_LIST:
+                return getString(node, 1);
+            case ORDERED_LIST:
+                return getString(node, 2);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the start number of an {@link #ORDERED_LIST} node, null otherwise or if not available
+     */
+    public Integer getMarkerStartNumber(int node) {
+        return types[node] == ORDERED_LIST ? getInteger(node, 1) : null;
+    }
+
+    /**
+     * @return the info string of a {@link #FENCED_CODE_BLOCK} node, null otherwise
+     */
+    public String getInfo(int node) {
+        return types[node] == FENCED_CODE_BLOCK ? getString(node, 5) : null;
+    }
+
+    /**
+     * @return the destination of a {@link #LINK}, {@link #IMAGE} or {@link #LINK_REFERENCE_DEFINITION} node, null
+     * otherwise
+     */
+    public String getDestination(int node) {
+        switch (types[node]) {
+            case LINK:
+            case IMAGE:
+                return getString(node, 0);
+            case LINK_REFERENCE_DEFINITION:
+                return getString(node, 2);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the title of a {@link #LINK}, {@link #IMAGE} or {@link #LINK_REFERENCE_DEFINITION} node, null otherwise
+     * or if it doesn't have a title
+     */
+    public String getTitle(int node) {
+        switch (types[node]) {
+            case LINK:
+            case IMAGE:
+                return getString(node, 2);
+            case LINK_REFERENCE_DEFINITION:
+                return getString(node, 4);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the source spans of the node if they were included by the parser, an empty list otherwise
+     */
+    public List<SourceSpan> getSourceSpans(int node) {
+        int start = sourceSpanStarts[node];
+        int end = sourceSpanStarts[node + 1];
+        return start != end ? new SourceSpanList(sourceSpans, start, (end - start) / SourceSpanList.INTS_PER_SPAN) : List.of();
+    }
+
+    /**
+     * Create a tree of nodes for the whole document, see {@link #toNode(int)}.
+     */
+    public Node toNode() {
+        return toNode(getRoot());
+    }
+
+    /**
+     * Create a tree of nodes for a node of the document and its descendants. The nodes are new for each call.
+     *
+     * @param node the index of the node
+     * @return the created node with its children
+     */
+    public Node toNode(int node) {
+        Node root = createNode(node);
+        Node current = root;
+        int index = node;
+        while (true) {
+            int child = firstChildren[index];
+            if (child != NONE) {
+                Node childNode = createNode(child);
+                current.appendChild(childNode);
+                current = childNode;
+                index = child;
+                continue;
+            }
+            while (index != node && nexts[index] == NONE) {
+                index = parents[index];
+                current = current.getParent();
+            }
+            if (index == node) {
+                break;
+            }
+            index = nexts[index];
+            Node sibling = createNode(index);
+            current.getParent().appendChild(sibling);
+            current = sibling;
+        }
+        return root;
+    }
+
+    private Node createNode(int node) {
+        Node result;
+        switch (types[node]) {
+            case DOCUMENT:
+                result = new Document();
+                break;
+            case BLOCK_QUOTE:
+                result = new BlockQuote();
+                break;
+            case BULLET_LIST: {
+                var bulletList = new BulletList();
+                bulletList.setTight(isTight(node));
+                bulletList.setMarker(getString(node, 1));
+                result = bulletList;
+                break;
+            }
+            case ORDERED_LIST: {
+                var orderedList = new OrderedList();
+                orderedList.setTight(isTight(node));
+                orderedList.setMarkerStartNumber(getInteger(node, 1));
+                orderedList.setMarkerDelimiter(getString(node, 2));
+                result = orderedList;
+                break;
+            }
+            case LIST_ITEM: {
+                var listItem = new ListItem();
+                listItem.setMarkerIndent(getInteger(node, 0));
+                listItem.setContentIndent(getInteger(node, 1));
+                result = listItem;
+                break;
+            }
+            case PARAGRAPH:
+                result = new Paragraph();
+                break;
+            case HEADING: {
+                var heading = new Heading();
+                heading.setLevel(getInt(node, 0));
+                result = heading;
+                break;
+            }
+            case FENCED_CODE_BLOCK: {
+                var fencedCodeBlock = new FencedCodeBlock();
+                fencedCodeBlock.setFenceCharacter(getString(node, 0));
+                fencedCodeBlock.setOpeningFenceLength(getInteger(node, 2));
+                fencedCodeBlock.setClosingFenceLength(getInteger(node, 3));
+                fencedCodeBlock.setFenceIndent(getInt(node, 4));
+                fencedCodeBlock.setInfo(getString(node, 5));
+                fencedCodeBlock.setLiteral(getString(node, 7));
+                result = fencedCodeBlock;
+                break;
+            }
+            case INDENTED_CODE_BLOCK: {
+                var indentedCodeBlock = new IndentedCodeBlock();
+                indentedCodeBlock.setLiteral(getString(node, 0));
+                result = indentedCodeBlock;
+                break;
+            }
+            case HTML_BLOCK: {
+                var htmlBlock = new HtmlBlock();
+                htmlBlock.setLiteral(getString(node, 0));
+                result = htmlBlock;
+                break;
+            }
+            case THEMATIC_BREAK: {
+                var thematicBreak = new ThematicBreak();
+                thematicBreak.setLiteral(getString(node, 0));
+                result = thematicBreak;
+                break;
+            }
+            case LINK_REFERENCE_DEFINITION:
+                result = new LinkReferenceDefinition(getString(node, 0), getString(node, 2), getString(node, 4));
+                break;
+            case TEXT:
+                result = new Text(getString(node, 0));
+                break;
+            case CODE:
+                result = new Code(getString(node, 0));
+                break;
+            case EMPHASIS:
+                result = new Emphasis(getString(node, 0));
+                break;
+            case STRONG_EMPHASIS:
+                result = new StrongEmphasis(getString(node, 0));
+                break;
+            case LINK:
+                result = new Link(getString(node, 0), getString(node, 2));
+                break;
+            case IMAGE:
+                result = new Image(getString(node, 0), getString(node, 2));
+                break;
+            case HTML_INLINE: {
+                var htmlInline = new HtmlInline();
+                htmlInline.setLiteral(getString(node, 0));
+                result = htmlInline;
+                break;
+            }
+            case SOFT_LINE_BREAK:
+                result = new SoftLineBreak();
+                break;
+            case HARD_LINE_BREAK:
+                result = new HardLineBreak();
+                break;
+            default:
+                throw new IllegalStateException("Unknown node type " + types[node]);
+        }
+        var spans = getSourceSpans(node);
+        if (!spans.isEmpty()) {
+            result.setSourceSpans(spans);
+        }
+        return result;
+    }
+
+    private int getInt(int node, int attribute) {
+        return attributes[attributeStarts[node] + attribute];
+    }
+
+    private Integer getInteger(int node, int attribute) {
+        int value = getInt(node, attribute);
+        return value != NULL ? value : null;
+    }
+
+    private String getString(int node, int attribute) {
+        int i = attributeStarts[node] + attribute;
+        int start = attributes[i];
+        int length = attributes[i + 1];
+        if (length == -1) {
+            return null;
+        }
+        return start >= 0 ? source.substring(start, start + length) : strings.substring(~start, ~start + length);
+    }
+
+    /**
+     * @return the index of the literal in the attributes of the node, or {@link #NONE} if it doesn't have one
+     */
+    private int literalAttribute(int node) {
+        switch (types[node]) {
+            case TEXT:
+            case CODE:
+            case HTML_INLINE:
+            case HTML_BLOCK:
+            case INDENTED_CODE_BLOCK:
+            case THEMATIC_BREAK:
+                return 0;
+            case FENCED_CODE_BLOCK:
+                return 7;
+            default:
+                return NONE;
+        }
+    }
+
+    private static class Builder {
+
+        private final String source;
+
+        private int size = 0;
+        private byte[] types = new byte[64];
+        private int[] parents = new int[64];
+        private int[] firstChildren = new int[64];
+        private int[] nexts = new int[64];
+        // Only needed while building, to link siblings
+        private int[] lastChildren = new int[64];
+        private int[] attributeStarts = new int[64];
+        private int[] sourceSpanStarts = new int[64];
+
+        private int[] attributes = new int[64];
+        private int attributesSize = 0;
+        private int[] sourceSpans = new int[64];
+        private int sourceSpansSize = 0;
+        private final StringBuilder strings = new StringBuilder();
+
+        Builder(String source) {
+            this.source = source;
+        }
+
+        int add(Node node, int parent) {
+            Integer type = TYPES.get(node.getClass());
+            if (type == null) {
+                throw new IllegalArgumentException("Compact document can't contain custom node " + node);
+            }
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                nexts = Arrays.copyOf(nexts, capacity);
+                lastChildren = Arrays.copyOf(lastChildren, capacity);
+                attributeStarts = Arrays.copyOf(attributeStarts, capacity);
+                sourceSpanStarts = Arrays.copyOf(sourceSpanStarts, capacity);
+            }
+            int index = size++;
+            parents[index] = parent;
+            firstChildren[index] = NONE;
+            nexts[index] = NONE;
+            lastChildren[index] = NONE;
+            if (parent != NONE) {
+                int previous = lastChildren[parent];
+                if (previous == NONE) {
+                    firstChildren[parent] = index;
+                } else {
+                    nexts[previous] = index;
+                }
+                lastChildren[parent] = index;
+            }
+
+            attributeStarts[index] = attributesSize;
+            types[index] = (byte) (int) type;
+            var spans = node.getSourceSpans();
+            addAttributes(node, type, spans);
+
+            sourceSpanStarts[index] = sourceSpansSize;
+            if (!spans.isEmpty()) {
+                int length = spans.size() * SourceSpanList.INTS_PER_SPAN;
+                if (sourceSpansSize + length > sourceSpans.length) {
+                    sourceSpans = Arrays.copyOf(sourceSpans, Math.max(sourceSpansSize + length, sourceSpans.length * 2));
+                }
+                if (spans instanceof SourceSpanList) {
+                    ((SourceSpanList) spans).copyTo(sourceSpans, sourceSpansSize);
+                } else {
+                    for (int i = 0; i < spans.size(); i++) {
+                        SourceSpanList.set(sourceSpans, sourceSpansSize / SourceSpanList.INTS_PER_SPAN + i, spans.get(i));
+                    }
+                }
+                sourceSpansSize += length;
+            }
+            return index;
+        }
+
+        private void addAttributes(Node node, int type, List<SourceSpan> spans) {
+            switch (type) {
+                case BULLET_LIST: {
+                    var bulletList = (BulletList) node;
+                    addInt(bulletList.isTight() ? 1 : 0);
+                    addString(bulletList.getMarker());
+                    break;
+                }
+                case ORDERED_LIST: {
+                    var orderedList = (OrderedList) node;
+                    addInt(orderedList.isTight() ? 1 : 0);
+                    addInteger(orderedList.getMarkerStartNumber());
+                    addString(orderedList.getMarkerDelimiter());
+                    break;
+                }
+                case LIST_ITEM: {
+                    var listItem = (ListItem) node;
+                    addInteger(listItem.getMarkerIndent());
+                    addInteger(listItem.getContentIndent());
+                    break;
+                }
+                case HEADING:
+                    addInt(((Heading) node).getLevel());
+                    break;
+                case FENCED_CODE_BLOCK: {
+                    var fencedCodeBlock = (FencedCodeBlock) node;
+                    addString(fencedCodeBlock.getFenceCharacter());
+                    addInteger(fencedCodeBlock.getOpeningFenceLength());
+                    addInteger(fencedCodeBlock.getClosingFenceLength());
+                    addInt(fencedCodeBlock.getFenceIndent());
+                    addString(fencedCodeBlock.getInfo());
+                    addLiteral(fencedCodeBlock.getLiteral(), spans);
+                    break;
+                }
+                case INDENTED_CODE_BLOCK:
+                    addLiteral(((IndentedCodeBlock) node).getLiteral(), spans);
+                    break;
+                case HTML_BLOCK:
+                    addLiteral(((HtmlBlock) node).getLiteral(), spans);
+                    break;
+                case THEMATIC_BREAK:
+                    addLiteral(((ThematicBreak) node).getLiteral(), spans);
+                    break;
+                case LINK_REFERENCE_DEFINITION: {
+                    var definition = (LinkReferenceDefinition) node;
+                    addString(definition.getLabel());
+                    addString(definition.getDestination());
+                    addString(definition.getTitle());
+                    break;
+                }
+                case TEXT:
+                    addLiteral(((Text) node).getLiteral(), spans);
+                    break;
+                case CODE:
+                    addLiteral(((Code) node).getLiteral(), spans);
+                    break;
+                case EMPHASIS:
+                    addString(((Emphasis) node).getOpeningDelimiter());
+                    break;
+                case STRONG_EMPHASIS:
+                    addString(((StrongEmphasis) node).getOpeningDelimiter());
+                    break;
+                case LINK: {
+                    var link = (Link) node;
+                    addString(link.getDestination());
+                    addString(link.getTitle());
+                    break;
+                }
+                case IMAGE: {
+                    var image = (Image) node;
+                    addString(image.getDestination());
+                    addString(image.getTitle());
+                    break;
+                }
+                case HTML_INLINE:
+                    addLiteral(((HtmlInline) node).getLiteral(), spans);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void addInt(int value) {
+            if (attributesSize == attributes.length) {
+                attributes = Arrays.copyOf(attributes, attributesSize * 2);
+            }
+            attributes[attributesSize++] = value;
+        }
+
+        private void addInteger(Integer value) {
+            addInt(value != null ? value : NULL);
+        }
+
+        private void addString(String s) {
+            if (s == null) {
+                addInt(0);
+                addInt(-1);
+                return;
+            }
+            addInt(~strings.length());
+            strings.append(s);
+            addInt(s.length());
+        }
+
+        private void addLiteral(String s, List<SourceSpan> spans) {
+            int start = s != null ? findInSource(s, spans) : -1;
+            if (start == -1) {
+                addString(s);
+                return;
+            }
+            addInt(start);
+            addInt(s.length());
+        }
+
+        /**
+         * @return the index of the string in the source, searching only within the source spans, or -1
+         */
+        private int findInSource(String s, List<SourceSpan> spans) {
+            if (source == null || spans.isEmpty() || s.isEmpty()) {
+                return -1;
+            }
+            var last = spans.get(spans.size() - 1);
+            int from = spans.get(0).getInputIndex();
+            int to = Math.min(last.getInputIndex() + last.getLength(), source.length()) - s.length();
+            char first = s.charAt(0);
+            for (int i = from; i <= to; i++) {
+                if (source.charAt(i) == first && source.regionMatches(i, s, 0, s.length())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
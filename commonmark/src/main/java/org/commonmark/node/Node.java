@@ -1,8 +1,10 @@
 package org.commonmark.node;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import org.commonmark.internal.LazyInlines;
+
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The base class of all CommonMark AST nodes ({@link Block} and inlines).
@@ -16,7 +18,9 @@ public abstract class Node {
     private Node lastChild = null;
     private Node prev = null;
     private Node next = null;
-    private List<SourceSpan> sourceSpans = null;
+    // Packed, see SourceSpanList
+    private int[] sourceSpans = null;
+    private int sourceSpanCount = 0;
 
     public abstract void accept(Visitor visitor);
 
@@ -29,10 +33,16 @@ public abstract class Node {
     }
 
     public Node getFirstChild() {
+        if (firstChild instanceof LazyInlines) {
+            parseLazyInlines((LazyInlines) firstChild);
+        }
         return firstChild;
     }
 
     public Node getLastChild() {
+        if (firstChild instanceof LazyInlines) {
+            parseLazyInlines((LazyInlines) firstChild);
+        }
         return lastChild;
     }
 
@@ -45,6 +55,9 @@ public abstract class Node {
     }
 
     public void appendChild(Node child) {
+        if (firstChild instanceof LazyInlines) {
+            parseLazyInlines((LazyInlines) firstChild);
+        }
         child.unlink();
         child.setParent(this);
         if (this.lastChild != null) {
@@ -58,6 +71,9 @@ public abstract class Node {
     }
 
     public void prependChild(Node child) {
+        if (firstChild instanceof LazyInlines) {
+            parseLazyInlines((LazyInlines) firstChild);
+        }
         child.unlink();
         child.setParent(this);
         if (this.firstChild != null) {
@@ -120,12 +136,34 @@ public abstract class Node {
         }
     }
 
+    /**
+     * Replace the placeholder for inline content that is parsed on first access (see
+     * {@link org.commonmark.parser.IncludeInlines#LAZY}) with the parsed children.
+     */
+    private void parseLazyInlines(LazyInlines lazyInlines) {
+        synchronized (lazyInlines) {
+            if (firstChild != lazyInlines) {
+                // Parsed by another thread in the meantime
+                return;
+            }
+            lazyInlines.parse();
+            Node placeholder = lazyInlines;
+            Node first = placeholder.firstChild;
+            for (Node child = first; child != null; child = child.next) {
+                child.parent = this;
+            }
+            lastChild = placeholder.lastChild;
+            // Replace the placeholder last, threads that don't see it anymore don't need to wait for parsing
+            firstChild = first;
+        }
+    }
+
     /**
      * @return the source spans of this node if included by the parser, an empty list otherwise
      * @since 0.16.0
      */
     public List<SourceSpan> getSourceSpans() {
-        return sourceSpans != null ? Collections.unmodifiableList(sourceSpans) : List.of();
+        return sourceSpanCount != 0 ? new SourceSpanList(sourceSpans, 0, sourceSpanCount) : List.of();
     }
 
     /**
@@ -137,8 +175,10 @@ public abstract class Node {
     public void setSourceSpans(List<SourceSpan> sourceSpans) {
         if (sourceSpans.isEmpty()) {
             this.sourceSpans = null;
+            this.sourceSpanCount = 0;
         } else {
-            this.sourceSpans = new ArrayList<>(sourceSpans);
+            this.sourceSpans = SourceSpanList.pack(sourceSpans);
+            this.sourceSpanCount = sourceSpans.size();
         }
     }
 
@@ -149,10 +189,17 @@ public abstract class Node {
      * @since 0.16.0
      */
     public void addSourceSpan(SourceSpan sourceSpan) {
+        Objects.requireNonNull(sourceSpan, "sourceSpan must not be null");
+        int length = (sourceSpanCount + 1) * SourceSpanList.INTS_PER_SPAN;
         if (sourceSpans == null) {
-            this.sourceSpans = new ArrayList<>();
+            this.sourceSpans = new int[length];
+        } else if (sourceSpans.length < length) {
+            // Blocks get a span per line, so grow like a list would. Lists returned by getSourceSpans() only see the
+            // spans up to their size, so writing after that doesn't change them.
+            this.sourceSpans = Arrays.copyOf(sourceSpans, Math.max(length, sourceSpans.length * 2));
         }
-        this.sourceSpans.add(sourceSpan);
+        SourceSpanList.set(sourceSpans, sourceSpanCount, sourceSpan);
+        sourceSpanCount++;
     }
 
     @Override
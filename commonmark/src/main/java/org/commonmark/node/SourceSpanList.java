@@ -0,0 +1,73 @@
+package org.commonmark.node;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of source spans that are packed into an int array, 4 ints per span (line index, column index,
+ * input index, length). {@link SourceSpan} objects are only created when elements are accessed.
+ * <p>
+ * Nodes and {@link SourceSpans} store their spans packed; passing such a list from one to the other copies the ints
+ * without creating span objects.
+ */
+final class SourceSpanList extends AbstractList<SourceSpan> implements RandomAccess {
+
+    static final int INTS_PER_SPAN = 4;
+
+    private final int[] values;
+    private final int offset;
+    private final int size;
+
+    SourceSpanList(int[] values, int offset, int size) {
+        this.values = values;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Pack the spans into a new array of exactly the needed length.
+     */
+    static int[] pack(List<SourceSpan> sourceSpans) {
+        int size = sourceSpans.size();
+        var result = new int[size * INTS_PER_SPAN];
+        if (sourceSpans instanceof SourceSpanList) {
+            var list = (SourceSpanList) sourceSpans;
+            System.arraycopy(list.values, list.offset, result, 0, result.length);
+        } else {
+            for (int i = 0; i < size; i++) {
+                set(result, i, sourceSpans.get(i));
+            }
+        }
+        return result;
+    }
+
+    static void set(int[] values, int index, SourceSpan sourceSpan) {
+        int i = index * INTS_PER_SPAN;
+        values[i] = sourceSpan.getLineIndex();
+        values[i + 1] = sourceSpan.getColumnIndex();
+        values[i + 2] = sourceSpan.getInputIndex();
+        values[i + 3] = sourceSpan.getLength();
+    }
+
+    /**
+     * Copy the packed spans of this list to {@code dest}, starting at {@code destIndex}.
+     */
+    void copyTo(int[] dest, int destIndex) {
+        System.arraycopy(values, offset, dest, destIndex, size * INTS_PER_SPAN);
+    }
+
+    @Override
+    public SourceSpan get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+        int i = offset + index * INTS_PER_SPAN;
+        return SourceSpan.of(values[i], values[i + 1], values[i + 2], values[i + 3]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -1,8 +1,10 @@
 package org.commonmark.node;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.commonmark.node.SourceSpanList.INTS_PER_SPAN;
+
 /**
  * A list of source spans that can be added to. Takes care of merging adjacent source spans.
  *
@@ -10,14 +12,22 @@ import java.util.List;
  */
 public class SourceSpans {
 
-    private List<SourceSpan> sourceSpans;
+    // Packed, see SourceSpanList
+    private int[] values;
+    private int size;
+    // Whether values has been handed out with getSourceSpans, in which case it must not be changed anymore
+    private boolean shared;
 
     public static SourceSpans empty() {
         return new SourceSpans();
     }
 
     public List<SourceSpan> getSourceSpans() {
-        return sourceSpans != null ? sourceSpans : List.of();
+        if (size == 0) {
+            return List.of();
+        }
+        shared = true;
+        return new SourceSpanList(values, 0, size);
     }
 
     public void addAllFrom(Iterable<? extends Node> nodes) {
@@ -27,26 +37,40 @@ public class SourceSpans {
     }
 
     public void addAll(List<SourceSpan> other) {
-        if (other.isEmpty()) {
+        int otherSize = other.size();
+        if (otherSize == 0) {
             return;
         }
 
-        if (sourceSpans == null) {
-            sourceSpans = new ArrayList<>();
+        ensureCapacity(size + otherSize);
+        int start = size * INTS_PER_SPAN;
+        if (other instanceof SourceSpanList) {
+            ((SourceSpanList) other).copyTo(values, start);
+        } else {
+            for (int i = 0; i < otherSize; i++) {
+                SourceSpanList.set(values, size + i, other.get(i));
+            }
         }
 
-        if (sourceSpans.isEmpty()) {
-            sourceSpans.addAll(other);
-        } else {
-            int lastIndex = sourceSpans.size() - 1;
-            SourceSpan a = sourceSpans.get(lastIndex);
-            SourceSpan b = other.get(0);
-            if (a.getInputIndex() + a.getLength() == b.getInputIndex()) {
-                sourceSpans.set(lastIndex, SourceSpan.of(a.getLineIndex(), a.getColumnIndex(), a.getInputIndex(), a.getLength() + b.getLength()));
-                sourceSpans.addAll(other.subList(1, other.size()));
-            } else {
-                sourceSpans.addAll(other);
+        if (size != 0) {
+            // Merge the last span with the first added one if they are adjacent
+            int a = start - INTS_PER_SPAN;
+            if (values[a + 2] + values[a + 3] == values[start + 2]) {
+                values[a + 3] += values[start + 3];
+                System.arraycopy(values, start + INTS_PER_SPAN, values, start, (otherSize - 1) * INTS_PER_SPAN);
+                otherSize--;
             }
         }
+        size += otherSize;
+    }
+
+    private void ensureCapacity(int spans) {
+        int length = spans * INTS_PER_SPAN;
+        if (values == null) {
+            values = new int[Math.max(length, 2 * INTS_PER_SPAN)];
+        } else if (shared || values.length < length) {
+            values = Arrays.copyOf(values, Math.max(length, values.length * 2));
+            shared = false;
+        }
     }
 }
@@ -0,0 +1,186 @@
+package org.commonmark.parser;
+
+import org.commonmark.node.CompactDocument;
+import org.commonmark.node.Node;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Parser that caches the parsed documents by input, for input that is parsed again and again (e.g. templates or
+ * common snippets). Example:
+ * <pre><code>
+ * CachingParser parser = new CachingParser(Parser.builder().build(), 64 * 1024 * 1024);
+ * Node document = parser.parse("input text");
+ * </code></pre>
+ * Because nodes can be modified, the cache contains read-only {@link CompactDocument}s instead of nodes:
+ * {@link #parse(String)} returns a new tree of nodes for each call that the caller is free to modify (e.g. in a
+ * post-processing step), and {@link #parseCompact(String)} returns the cached document itself, which is shared and can
+ * be rendered directly without creating nodes.
+ * <p>
+ * The least recently used documents are evicted when the total weight of the cache would exceed the maximum. The
+ * weight of a document is the estimated memory size of it and its input in bytes, see
+ * {@link CompactDocument#estimateMemorySize()}. The compact documents reference their input for the literals (see
+ * {@link CompactDocument#of(Node, String)}), which is the key of the cache anyway.
+ * <p>
+ * Documents that contain custom nodes (e.g. from extensions) can't be stored as compact documents, so they are not
+ * cached; {@link #parse(String)} parses the input on every call. For re-parsing after edits or parsing inlines later,
+ * use {@link Parser#parseDocument} instead, as this only returns the nodes.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @since 0.25.0
+ */
+public class CachingParser {
+
+    private final Parser parser;
+    private final long maxWeight;
+    private final Map<String, CompactDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param parser    the parser to use for input that is not in the cache
+     * @param maxWeight the maximum total weight of the cached documents, in bytes
+     */
+    public CachingParser(Parser parser, long maxWeight) {
+        Objects.requireNonNull(parser, "parser must not be null");
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive, was " + maxWeight);
+        }
+        this.parser = parser;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Parse the specified input text into a tree of nodes, or copy the cached document for the same input.
+     *
+     * @param input the text to parse - must not be null
+     * @return the root node, a new tree for each call
+     */
+    public Node parse(String input) {
+        Objects.requireNonNull(input, "input must not be null");
+        CompactDocument document = get(input);
+        if (document != null) {
+            return document.toNode();
+        }
+        Node node = parser.parse(input);
+        // Creating the compact document doesn't change the tree, so it can be returned as is
+        if (!CompactDocument.hasCustomNodes(node)) {
+            put(input, CompactDocument.of(node, input));
+        }
+        return node;
+    }
+
+    /**
+     * Parse the specified input text into a compact document, or return the cached document for the same input.
+     * <p>
+     * The returned document is shared with other callers. Use {@link CompactDocument#toNode()} to get nodes that can be
+     * modified.
+     *
+     * @param input the text to parse - must not be null
+     * @return the compact document
+     * @throws IllegalArgumentException if the parsed document contains custom nodes (e.g. from extensions), see
+     *                                  {@link CompactDocument#hasCustomNodes(Node)}
+     */
+    public CompactDocument parseCompact(String input) {
+        Objects.requireNonNull(input, "input must not be null");
+        CompactDocument document = get(input);
+        if (document != null) {
+            return document;
+        }
+        document = CompactDocument.of(parser.parse(input), input);
+        put(input, document);
+        return document;
+    }
+
+    /**
+     * @return the number of calls that found the document in the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of calls that had to parse the input
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the ratio of hits to all calls, or 0 if there were no calls yet
+     */
+    public synchronized double getHitRate() {
+        long count = hitCount + missCount;
+        return count != 0 ? (double) hitCount / count : 0;
+    }
+
+    /**
+     * @return the number of documents that were evicted to stay within the maximum weight
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of cached documents
+     */
+    public synchronized int getEntryCount() {
+        return documents.size();
+    }
+
+    /**
+     * @return the total weight of the cached documents, in bytes
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Remove all cached documents. The statistics are kept.
+     */
+    public synchronized void clear() {
+        documents.clear();
+        weight = 0;
+    }
+
+    private synchronized CompactDocument get(String input) {
+        CompactDocument document = documents.get(input);
+        if (document != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return document;
+    }
+
+    private synchronized void put(String input, CompactDocument document) {
+        long entryWeight = weight(input, document);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        CompactDocument previous = documents.put(input, document);
+        if (previous != null) {
+            // Parsed by another thread at the same time
+            weight -= weight(input, previous);
+        }
+        weight += entryWeight;
+
+        Iterator<Map.Entry<String, CompactDocument>> iterator = documents.entrySet().iterator();
+        while (weight > maxWeight) {
+            var eldest = iterator.next();
+            weight -= weight(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static long weight(String input, CompactDocument document) {
+        return 40 + 2L * input.length() + document.estimateMemorySize();
+    }
+}
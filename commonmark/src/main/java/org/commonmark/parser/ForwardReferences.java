@@ -0,0 +1,26 @@
+package org.commonmark.parser;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * How references to definitions that only appear later in the input are handled when parsing in a streaming way, see
+ * {@link Parser#parseStreaming(Reader, ForwardReferences, Consumer)}.
+ *
+ * @since 0.25.0
+ */
+public enum ForwardReferences {
+    /**
+     * Blocks are passed on as soon as they are closed, using only the definitions that appeared before them
+     * ("definitions first"). A reference to a definition that only appears later is not resolved, e.g. a reference
+     * link stays text.
+     */
+    UNRESOLVED,
+    /**
+     * A block that references a label that is not defined (yet) is held back, together with all blocks after it, until
+     * the definition appears or the input ends. The result is the same as for parsing the whole input at once. Note
+     * that for documents that have their definitions at the end (or text in brackets that is not meant as a link), most
+     * of the document will be held back.
+     */
+    DEFERRED,
+}
@@ -0,0 +1,31 @@
+package org.commonmark.parser;
+
+/**
+ * When to parse the inline content of blocks (e.g. the text of paragraphs and headings), see
+ * {@link Parser.Builder#includeInlines(IncludeInlines)}.
+ *
+ * @since 0.25.0
+ */
+public enum IncludeInlines {
+    /**
+     * Parse inline content of all blocks while parsing the document.
+     */
+    EAGER,
+    /**
+     * Parse inline content of a block when its children are first accessed, e.g. via
+     * {@link org.commonmark.node.Node#getFirstChild()} or a visitor that visits the children. Code that only looks at
+     * the block structure of a document (e.g. to build a table of contents from headings without their text) doesn't
+     * pay for inline parsing.
+     * <p>
+     * The definitions (e.g. link reference definitions) of the document are kept for that. Parsing the inline content
+     * of a block is synchronized and uses a new inline parser, so a document that isn't modified can be read from
+     * multiple threads.
+     */
+    LAZY,
+    /**
+     * Don't parse inline content. A block with inline content gets a single {@link org.commonmark.node.Text} child
+     * with the raw content instead (lines separated by {@code \n}). Inline content of selected blocks can be parsed
+     * later using {@link Parser#parseInlines(ParsedDocument, org.commonmark.node.Node)}.
+     */
+    NONE,
+}
@@ -0,0 +1,65 @@
+package org.commonmark.parser;
+
+import org.commonmark.internal.DocumentReparser;
+import org.commonmark.node.Node;
+import org.commonmark.node.Text;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A parsed document together with what the parser needs to know about it to work on it later, see
+ * {@link Parser#parseDocument(String)}. {@link Parser#reparse} re-parses the document after an edit of its text, and
+ * {@link Parser#parseInlines(ParsedDocument, Node)} parses the inline content of a block later using the definitions of
+ * the document.
+ * <p>
+ * This is kept separate from the nodes (and the parser), so it's only kept in memory for as long as the caller holds
+ * on to it.
+ *
+ * @since 0.25.0
+ */
+public final class ParsedDocument {
+
+    private final Node document;
+    // Only with source spans
+    private final DocumentReparser.State reparseState;
+    private final InlineParserContext inlineParserContext;
+    // Text nodes with raw inline content whose inlines were not parsed yet, see IncludeInlines.NONE. Weak, so that
+    // removed blocks are not kept in memory; Text has identity equals.
+    private final Set<Text> rawTexts;
+
+    ParsedDocument(Node document, DocumentReparser.State reparseState, InlineParserContext inlineParserContext,
+                   Set<Text> rawTexts) {
+        this.document = document;
+        this.reparseState = reparseState;
+        this.inlineParserContext = inlineParserContext;
+        this.rawTexts = rawTexts;
+    }
+
+    static Set<Text> rawTextSet(Collection<Text> texts) {
+        Set<Text> set = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        set.addAll(texts);
+        return set;
+    }
+
+    /**
+     * @return the root node of the document
+     */
+    public Node getDocument() {
+        return document;
+    }
+
+    DocumentReparser.State getReparseState() {
+        return reparseState;
+    }
+
+    InlineParserContext getInlineParserContext() {
+        return inlineParserContext;
+    }
+
+    Set<Text> getRawTexts() {
+        return rawTexts;
+    }
+}
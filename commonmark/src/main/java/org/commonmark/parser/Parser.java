@@ -1,10 +1,14 @@
 package org.commonmark.parser;
 
 import org.commonmark.Extension;
+import org.commonmark.internal.BlockParserFactoryTable;
 import org.commonmark.internal.Definitions;
 import org.commonmark.internal.DocumentParser;
+import org.commonmark.internal.DocumentReparser;
 import org.commonmark.internal.InlineParserContextImpl;
 import org.commonmark.internal.InlineParserImpl;
+import org.commonmark.internal.ParallelDocumentParser;
+import org.commonmark.internal.RawInlines;
 import org.commonmark.node.*;
 import org.commonmark.parser.beta.LinkInfo;
 import org.commonmark.parser.beta.LinkProcessor;
@@ -15,7 +19,13 @@ import org.commonmark.parser.delimiter.DelimiterProcessor;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 
 /**
@@ -29,7 +39,7 @@ import java.util.*;
  */
 public class Parser {
 
-    private final List<BlockParserFactory> blockParserFactories;
+    private final BlockParserFactoryTable blockParserFactories;
     private final List<InlineContentParserFactory> inlineContentParserFactories;
     private final List<DelimiterProcessor> delimiterProcessors;
     private final List<LinkProcessor> linkProcessors;
@@ -37,21 +47,25 @@ public class Parser {
     private final InlineParserFactory inlineParserFactory;
     private final List<PostProcessor> postProcessors;
     private final IncludeSourceSpans includeSourceSpans;
+    private final IncludeInlines includeInlines;
 
     private Parser(Builder builder) {
-        this.blockParserFactories = DocumentParser.calculateBlockParserFactories(builder.blockParserFactories, builder.enabledBlockTypes);
-        this.inlineParserFactory = builder.getInlineParserFactory();
+        this.blockParserFactories = new BlockParserFactoryTable(
+                DocumentParser.calculateBlockParserFactories(builder.blockParserFactories, builder.enabledBlockTypes));
         this.postProcessors = builder.postProcessors;
         this.inlineContentParserFactories = builder.inlineContentParserFactories;
         this.delimiterProcessors = builder.delimiterProcessors;
         this.linkProcessors = builder.linkProcessors;
         this.linkMarkers = builder.linkMarkers;
         this.includeSourceSpans = builder.includeSourceSpans;
+        this.includeInlines = builder.includeInlines;
 
-        // Try to construct an inline parser. Invalid configuration might result in an exception, which we want to
-        // detect as soon as possible.
         var context = new InlineParserContextImpl(
                 inlineContentParserFactories, delimiterProcessors, linkProcessors, linkMarkers, new Definitions());
+        this.inlineParserFactory = builder.getInlineParserFactory(context);
+
+        // Try to construct an inline parser. Invalid configuration might result in an exception, which we want to
+        // detect as soon as possible.
         this.inlineParserFactory.create(context);
     }
 
@@ -79,6 +93,38 @@ public class Parser {
         return postProcess(document);
     }
 
+    /**
+     * Parse the specified input text into a tree of nodes, using the executor to parse parts of it concurrently. The
+     * result is the same as for {@link #parse(String)}.
+     * <p>
+     * The input is split into chunks at blank lines between top-level blocks, which are block-parsed concurrently.
+     * Then the definitions of all chunks are merged and the inlines of the chunks are parsed concurrently.
+     * {@link PostProcessor}s are applied to the whole document afterwards. This is only worth it for large input of
+     * hundreds of KB or more; input that is too small to be split is parsed in the calling thread.
+     * <p>
+     * Note that the configured block parser factories, inline parser factory and processors are used from multiple
+     * threads at the same time (which is already the case when one parser is used by multiple threads).
+     * <p>
+     * The calling thread takes part in parsing: it runs the tasks that no thread of the executor has started yet when it
+     * needs their results. So the executor can be a bounded pool that the calling thread itself belongs to.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param input    the text to parse - must not be null
+     * @param executor the executor to run the parsing tasks on, e.g. a {@link java.util.concurrent.ForkJoinPool} -
+     *                 must not be null
+     * @return the root node
+     * @since 0.25.0
+     */
+    public Node parseParallel(String input, Executor executor) {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        var parallelDocumentParser = new ParallelDocumentParser(this::createDocumentParser, executor,
+                ParallelDocumentParser.DEFAULT_CHUNK_SIZE);
+        Node document = parallelDocumentParser.parse(input);
+        return postProcess(document);
+    }
+
     /**
      * Parse the specified reader into a tree of nodes. The caller is responsible for closing the reader.
      * <pre><code>
@@ -104,9 +150,243 @@ public class Parser {
         return postProcess(document);
     }
 
+    /**
+     * Parse the specified reader and pass each top-level block to the consumer as soon as it's complete, instead of
+     * returning the whole document at the end. The caller is responsible for closing the reader.
+     * <p>
+     * This allows rendering large input before all of it has been read, and the parser doesn't keep references to the
+     * blocks after passing them on. The blocks are passed without a parent, with their inline content parsed, and
+     * {@link PostProcessor}s are applied to them. Rendering each block results in the same output as rendering the
+     * whole document, except for renderers that use the whole document (e.g. to put footnotes at the end).
+     * <p>
+     * Links can only be resolved to definitions that appear before them, see {@link ForwardReferences#UNRESOLVED}.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param input    the reader to parse - must not be null
+     * @param consumer called with each top-level block - must not be null
+     * @throws IOException when reading throws an exception
+     * @since 0.25.0
+     */
+    public void parseStreaming(Reader input, Consumer<Node> consumer) throws IOException {
+        parseStreaming(input, ForwardReferences.UNRESOLVED, consumer);
+    }
+
+    /**
+     * Parse the specified reader and pass each top-level block to the consumer as soon as it's complete, see
+     * {@link #parseStreaming(Reader, Consumer)}.
+     *
+     * @param input             the reader to parse - must not be null
+     * @param forwardReferences how to handle references to definitions that only appear later - must not be null
+     * @param consumer          called with each top-level block - must not be null
+     * @throws IOException when reading throws an exception
+     * @since 0.25.0
+     */
+    public void parseStreaming(Reader input, ForwardReferences forwardReferences, Consumer<Node> consumer) throws IOException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(forwardReferences, "forwardReferences must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        DocumentParser documentParser = createDocumentParser();
+        documentParser.parseStreaming(input, forwardReferences, this::postProcess, consumer);
+    }
+
+    /**
+     * Parse the specified input text and pass each top-level block to the consumer, with the same result as
+     * {@link #parse(String)}: the blocks are the same as the children of the returned document would be. The blocks are
+     * passed without a parent.
+     * <p>
+     * Where possible, each block is passed on as soon as it's complete and inline content that references a definition
+     * further down is resolved (see {@link ForwardReferences#DEFERRED}), so the parser doesn't keep the whole document
+     * in memory. With {@link PostProcessor}s (which work on the whole document) or if inline content is not parsed
+     * right away (see {@link Builder#includeInlines}), the whole document is parsed first and then its blocks are
+     * passed on.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param input    the text to parse - must not be null
+     * @param consumer called with each top-level block - must not be null
+     * @since 0.25.0
+     */
+    public void parseBlocks(String input, Consumer<Node> consumer) {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        if (!postProcessors.isEmpty() || includeInlines != IncludeInlines.EAGER) {
+            Node document = parse(input);
+            Node block = document.getFirstChild();
+            while (block != null) {
+                Node next = block.getNext();
+                block.unlink();
+                consumer.accept(block);
+                block = next;
+            }
+            return;
+        }
+        DocumentParser documentParser = createDocumentParser();
+        documentParser.parseStreaming(input, ForwardReferences.DEFERRED, this::postProcess, consumer);
+    }
+
+    /**
+     * Parse the specified UTF-8 encoded input into a tree of nodes.
+     * <p>
+     * This is the same as decoding the input to a {@link String} and then calling {@link #parse(String)}, but line
+     * breaks are found on the raw bytes and each line is decoded on its own, so the whole input is never held in
+     * memory as a {@code String} as well. Malformed input is replaced with {@code U+FFFD}. Note that a byte order mark
+     * (BOM) is not skipped.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param utf8Input the UTF-8 encoded text to parse - must not be null
+     * @return the root node
+     * @since 0.25.0
+     */
+    public Node parse(byte[] utf8Input) {
+        Objects.requireNonNull(utf8Input, "utf8Input must not be null");
+        return parse(ByteBuffer.wrap(utf8Input));
+    }
+
+    /**
+     * Parse the remaining bytes of the specified UTF-8 encoded buffer into a tree of nodes. The position of the buffer
+     * is not changed. See {@link #parse(byte[])} for details.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param utf8Input the UTF-8 encoded text to parse - must not be null
+     * @return the root node
+     * @since 0.25.0
+     */
+    public Node parse(ByteBuffer utf8Input) {
+        Objects.requireNonNull(utf8Input, "utf8Input must not be null");
+        DocumentParser documentParser = createDocumentParser();
+        Node document = documentParser.parse(utf8Input);
+        return postProcess(document);
+    }
+
+    /**
+     * Parse the specified UTF-8 encoded file into a tree of nodes.
+     * <p>
+     * The file is memory-mapped and parsed using {@link #parse(ByteBuffer)}, so the raw input is never copied to the
+     * heap as a whole; only the content of each line is decoded. This makes it suitable for very large files. Note that
+     * the file must not be changed while it is being parsed. The mapping is only used during this call, but Java
+     * releases it when it's garbage collected; until then, some platforms (e.g. Windows) don't allow deleting the file.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param file the path of the file to parse - must not be null
+     * @return the root node
+     * @throws IOException when the file can't be opened or mapped, or is larger than 2 GB
+     * @since 0.25.0
+     */
+    public Node parse(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + file + " is too large to parse (" + size + " bytes)");
+            }
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return parse(mapped);
+    }
+
+    /**
+     * Parse the specified input text into a document like {@link #parse(String)}, and keep what's needed for
+     * re-parsing it after an edit with {@link #reparse} and for parsing inline content later with
+     * {@link #parseInlines(ParsedDocument, Node)}.
+     * <p>
+     * This method is thread-safe (a new parser state is used for each invocation).
+     *
+     * @param input the text to parse - must not be null
+     * @return the parsed document
+     * @since 0.25.0
+     */
+    public ParsedDocument parseDocument(String input) {
+        Objects.requireNonNull(input, "input must not be null");
+        DocumentParser documentParser = createDocumentParser();
+        Node document = postProcess(documentParser.parse(input));
+        var reparseState = includeSourceSpans != IncludeSourceSpans.NONE ? DocumentReparser.State.of(documentParser) : null;
+        return new ParsedDocument(document, reparseState, documentParser.getInlineParserContext(),
+                ParsedDocument.rawTextSet(documentParser.getRawTexts()));
+    }
+
+    /**
+     * Parse the text of a document after it was edited, reusing the parts of the previous document that are not
+     * affected by the edit. This is useful for editors with a live preview, where the time for parsing after a change
+     * should depend on the size of the changed blocks, not the size of the whole document.
+     * <p>
+     * Only top-level blocks from the one before the edit up to the first one after it where parsing can resume are
+     * parsed again; the other blocks are kept as they are (including their inline content), only their source spans
+     * are shifted. {@link PostProcessor}s are only applied to the re-parsed blocks. If the re-parsed blocks contain
+     * different definitions than before (e.g. a {@link LinkReferenceDefinition} was changed), links anywhere in the
+     * document might resolve differently, so the whole text is parsed from scratch instead.
+     * <p>
+     * This requires source spans to be enabled (see {@link Builder#includeSourceSpans}), and the previous document to
+     * be one that was returned by this parser. Otherwise, or if the top-level blocks were changed after parsing, the
+     * text is parsed from scratch as well, with the same result as {@link #parseDocument(String)}.
+     * <p>
+     * This method is thread-safe, but a document must not be re-parsed concurrently.
+     *
+     * @param previous the document for the text before the edit, as returned by {@link #parseDocument(String)} or
+     *                 this method; its nodes are updated in place (unless it needs to be parsed from scratch) and it
+     *                 must not be used anymore afterwards
+     * @param newText  the whole text after the edit - must not be null
+     * @param edit     the edit that was applied to the previous text - must not be null
+     * @return the document for the new text
+     * @since 0.25.0
+     */
+    public ParsedDocument reparse(ParsedDocument previous, String newText, TextEdit edit) {
+        Objects.requireNonNull(previous, "previous must not be null");
+        Objects.requireNonNull(newText, "newText must not be null");
+        Objects.requireNonNull(edit, "edit must not be null");
+        if (edit.getStartIndex() + edit.getNewLength() > newText.length()) {
+            throw new IllegalArgumentException("edit " + edit + " is outside of new text with length " + newText.length());
+        }
+
+        var state = previous.getReparseState();
+        if (state != null) {
+            var reparser = new DocumentReparser(this::createDocumentParser, this::postProcess);
+            var newState = reparser.reparse(previous.getDocument(), state, newText, edit);
+            if (newState != null) {
+                // The kept blocks keep their raw content, so add the one of the re-parsed blocks
+                var rawTexts = previous.getRawTexts();
+                rawTexts.addAll(newState.getRawTexts());
+                return new ParsedDocument(previous.getDocument(), newState, newState.getInlineParserContext(), rawTexts);
+            }
+        }
+        return parseDocument(newText);
+    }
+
+    /**
+     * Parse the inline content of a block of a document that was parsed without it, see
+     * {@link Builder#blocksOnly()}. The {@link Text} node with the raw content of the block is replaced with the
+     * parsed inline nodes. This allows parsing inline content only for the blocks that need it.
+     * <p>
+     * Links are resolved using the definitions of the document. The block must still have the raw content that the
+     * parser created for it (i.e. its only child is that text node). Otherwise, e.g. if the document was parsed with
+     * inline content or the inline content of the block was already parsed, nothing is done.
+     *
+     * @param document the document that the block belongs to, as returned by {@link #parseDocument(String)} or
+     *                 {@link #reparse} - must not be null
+     * @param block    the block whose inline content to parse, e.g. a {@link Paragraph} or {@link Heading} - must not
+     *                 be null
+     * @since 0.25.0
+     */
+    public void parseInlines(ParsedDocument document, Node block) {
+        Objects.requireNonNull(document, "document must not be null");
+        Objects.requireNonNull(block, "block must not be null");
+        Node child = block.getFirstChild();
+        if (!(child instanceof Text) || child.getNext() != null || !document.getRawTexts().remove(child)) {
+            return;
+        }
+        var lines = RawInlines.getLines((Text) child);
+        child.unlink();
+        inlineParserFactory.create(document.getInlineParserContext()).parse(lines, block);
+    }
+
     private DocumentParser createDocumentParser() {
         return new DocumentParser(blockParserFactories, inlineParserFactory, inlineContentParserFactories,
-                delimiterProcessors, linkProcessors, linkMarkers, includeSourceSpans);
+                delimiterProcessors, linkProcessors, linkMarkers, includeSourceSpans, includeInlines);
     }
 
     private Node postProcess(Node document) {
@@ -129,6 +409,7 @@ public class Parser {
         private Set<Class<? extends Block>> enabledBlockTypes = DocumentParser.getDefaultBlockParserTypes();
         private InlineParserFactory inlineParserFactory;
         private IncludeSourceSpans includeSourceSpans = IncludeSourceSpans.NONE;
+        private IncludeInlines includeInlines = IncludeInlines.EAGER;
 
         /**
          * @return the configured {@link Parser}
@@ -200,6 +481,39 @@ public class Parser {
             return this;
         }
 
+        /**
+         * When to parse the inline content of blocks, see {@link IncludeInlines}. With
+         * {@link IncludeInlines#LAZY}, the inline content of a block is only parsed once its children are accessed.
+         * Note that post processors that visit inline nodes cause all inline content to be parsed, and that
+         * {@link Parser#parseStreaming(Reader, Consumer)} always parses inline content right away.
+         * <p>
+         * By default, inline content is parsed eagerly.
+         *
+         * @param includeInlines when to parse inline content
+         * @return {@code this}
+         * @since 0.25.0
+         */
+        public Builder includeInlines(IncludeInlines includeInlines) {
+            this.includeInlines = Objects.requireNonNull(includeInlines, "includeInlines must not be null");
+            return this;
+        }
+
+        /**
+         * Only parse the block structure of documents, not inline content (emphasis, links, etc). This is faster,
+         * e.g. for indexing or splitting up documents. The same as {@code includeInlines(IncludeInlines.NONE)}, see
+         * {@link IncludeInlines#NONE}.
+         * <p>
+         * Blocks with inline content (e.g. paragraphs and headings) get a single {@link Text} child with their raw
+         * content. {@link Parser#parseInlines(ParsedDocument, Node)} can be used for parsing the inline content of a block
+         * later, with a document from {@link Parser#parseDocument(String)}.
+         *
+         * @return {@code this}
+         * @since 0.25.0
+         */
+        public Builder blocksOnly() {
+            return includeInlines(IncludeInlines.NONE);
+        }
+
         /**
          * Add a custom block parser factory.
          * <p>
@@ -310,8 +624,9 @@ public class Parser {
             return this;
         }
 
-        private InlineParserFactory getInlineParserFactory() {
-            return Objects.requireNonNullElseGet(inlineParserFactory, () -> InlineParserImpl::new);
+        private InlineParserFactory getInlineParserFactory(InlineParserContext context) {
+            // The default inline parsers share the configuration that is calculated from the context here
+            return Objects.requireNonNullElseGet(inlineParserFactory, () -> InlineParserImpl.factory(context));
         }
     }
 
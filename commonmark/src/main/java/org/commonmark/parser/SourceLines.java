@@ -1,5 +1,6 @@
 package org.commonmark.parser;
 
+import org.commonmark.internal.util.CharSlice;
 import org.commonmark.node.SourceSpan;
 
 import java.util.ArrayList;
@@ -43,12 +44,15 @@ public class SourceLines {
     }
 
     public String getContent() {
+        if (lines.size() == 1) {
+            return lines.get(0).getContent().toString();
+        }
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < lines.size(); i++) {
             if (i != 0) {
                 sb.append('\n');
             }
-            sb.append(lines.get(i).getContent());
+            CharSlice.appendTo(sb, lines.get(i).getContent());
         }
         return sb.toString();
     }
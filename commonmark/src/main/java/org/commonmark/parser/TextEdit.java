@@ -0,0 +1,87 @@
+package org.commonmark.parser;
+
+import java.util.Objects;
+
+/**
+ * An edit of the source text of a document, for {@link Parser#reparse}: The characters from {@link #getStartIndex()}
+ * with length {@link #getOldLength()} were replaced by {@link #getNewLength()} new characters.
+ * <p>
+ * For example, typing a character at index 10 is {@code TextEdit.of(10, 0, 1)}, deleting it again is
+ * {@code TextEdit.of(10, 1, 0)}.
+ *
+ * @since 0.25.0
+ */
+public class TextEdit {
+
+    private final int startIndex;
+    private final int oldLength;
+    private final int newLength;
+
+    public static TextEdit of(int startIndex, int oldLength, int newLength) {
+        return new TextEdit(startIndex, oldLength, newLength);
+    }
+
+    private TextEdit(int startIndex, int oldLength, int newLength) {
+        if (startIndex < 0) {
+            throw new IllegalArgumentException("startIndex " + startIndex + " must be >= 0");
+        }
+        if (oldLength < 0) {
+            throw new IllegalArgumentException("oldLength " + oldLength + " must be >= 0");
+        }
+        if (newLength < 0) {
+            throw new IllegalArgumentException("newLength " + newLength + " must be >= 0");
+        }
+        this.startIndex = startIndex;
+        this.oldLength = oldLength;
+        this.newLength = newLength;
+    }
+
+    /**
+     * @return 0-based index in the input where the edit starts (the same in the old and new text)
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * @return number of characters of the old text that were replaced
+     */
+    public int getOldLength() {
+        return oldLength;
+    }
+
+    /**
+     * @return number of characters in the new text that replaced them
+     */
+    public int getNewLength() {
+        return newLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TextEdit that = (TextEdit) o;
+        return startIndex == that.startIndex &&
+                oldLength == that.oldLength &&
+                newLength == that.newLength;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startIndex, oldLength, newLength);
+    }
+
+    @Override
+    public String toString() {
+        return "TextEdit{" +
+                "start=" + startIndex +
+                ", oldLength=" + oldLength +
+                ", newLength=" + newLength +
+                "}";
+    }
+}
@@ -21,4 +21,18 @@ public interface InlineContentParserFactory {
      * content inside block structures, and then called each time a trigger character is encountered.
      */
     InlineContentParser create();
+
+    /**
+     * Whether the parsers created by {@link #create()} are stateless, i.e. keep no state between calls of
+     * {@link InlineContentParser#tryParse}. If so, {@link #create()} is only called once per parser configuration and
+     * the created parser is used for all inline content, across documents and concurrently from multiple threads.
+     * <p>
+     * The default is {@code false}, which means a new parser is created for each text snippet of inline content.
+     *
+     * @return true if the created parsers can be shared
+     * @since 0.25.0
+     */
+    default boolean createsStatelessParsers() {
+        return false;
+    }
 }
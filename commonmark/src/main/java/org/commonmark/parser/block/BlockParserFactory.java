@@ -1,5 +1,7 @@
 package org.commonmark.parser.block;
 
+import java.util.Set;
+
 /**
  * Parser factory for a block node for determining when a block starts.
  * <p>
@@ -9,4 +11,18 @@ public interface BlockParserFactory {
 
     BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser);
 
+    /**
+     * The characters that a block of this factory can start with, meaning the character at
+     * {@link ParserState#getNextNonSpaceIndex()}. If a line starts with a different character, {@link #tryStart} is
+     * not called for it. That only applies to lines with an indent less than 4 (i.e. not indented as code), for other
+     * lines, {@link #tryStart} is always called.
+     * <p>
+     * The default is null, meaning that {@link #tryStart} is called for any character.
+     *
+     * @return the trigger characters, or null if the block can start with any character
+     * @since 0.25.0
+     */
+    default Set<Character> getTriggerCharacters() {
+        return null;
+    }
 }
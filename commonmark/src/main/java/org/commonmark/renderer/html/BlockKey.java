@@ -0,0 +1,138 @@
+package org.commonmark.renderer.html;
+
+import org.commonmark.node.*;
+
+import java.util.List;
+
+/**
+ * The {@link RenderCache} key of a top-level block: Its source text (from the start of its first line to the end of its
+ * last span), the prefix for the renderer and parser configuration, and the destinations and titles of its links. The
+ * links are only needed for blocks that can contain reference links, as those depend on the definitions of the
+ * document.
+ * <p>
+ * Keys for looking up reference the source instead of copying the block's text, see {@link #copy()} for storing them.
+ */
+final class BlockKey {
+
+    private final String prefix;
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+    private final String links;
+    private final int hash;
+
+    private BlockKey(String prefix, CharSequence source, int start, int end, String links, int hash) {
+        this.prefix = prefix;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.links = links;
+        this.hash = hash;
+    }
+
+    /**
+     * @param prefix the key prefix for the renderer and parser configuration
+     * @param source the input that the block was parsed from
+     * @param block  the top-level block
+     * @return the key, or null if the block can't be cached because it doesn't have source spans
+     */
+    static BlockKey of(String prefix, CharSequence source, Node block) {
+        List<SourceSpan> spans = block.getSourceSpans();
+        if (spans.isEmpty()) {
+            return null;
+        }
+        SourceSpan first = spans.get(0);
+        SourceSpan last = spans.get(spans.size() - 1);
+        // From the start of the line, as the indentation of the first line can change the content (e.g. code fences)
+        int start = first.getInputIndex() - first.getColumnIndex();
+        int end = last.getInputIndex() + last.getLength();
+        if (start < 0 || end < start || end > source.length()) {
+            return null;
+        }
+
+        int hash = prefix.hashCode();
+        boolean brackets = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            brackets |= c == '[';
+            hash = 31 * hash + c;
+        }
+        String links = "";
+        if (brackets) {
+            var collector = new LinkCollector();
+            block.accept(collector);
+            links = collector.sb.toString();
+            hash = 31 * hash + links.hashCode();
+        }
+        return new BlockKey(prefix, source, start, end, links, hash);
+    }
+
+    /**
+     * @return a key with a copy of the block's text, so that it doesn't reference the whole source
+     */
+    BlockKey copy() {
+        String text = source.subSequence(start, end).toString();
+        return new BlockKey(prefix, text, 0, text.length(), links, hash);
+    }
+
+    /**
+     * @return the size of the key for {@link RenderCache}, about the length of the block's source
+     */
+    long getSize() {
+        return prefix.length() + (end - start) + links.length();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BlockKey)) {
+            return false;
+        }
+        BlockKey other = (BlockKey) o;
+        if (hash != other.hash || end - start != other.end - other.start ||
+                !prefix.equals(other.prefix) || !links.equals(other.links)) {
+            return false;
+        }
+        for (int i = start, j = other.start; i < end; i++, j++) {
+            if (source.charAt(i) != other.source.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private static class LinkCollector extends AbstractVisitor {
+
+        private final StringBuilder sb = new StringBuilder();
+
+        @Override
+        public void visit(Link link) {
+            string(link.getDestination());
+            string(link.getTitle());
+            visitChildren(link);
+        }
+
+        @Override
+        public void visit(Image image) {
+            string(image.getDestination());
+            string(image.getTitle());
+            visitChildren(image);
+        }
+
+        private void string(String s) {
+            // With the length, so that the strings can't be split up differently
+            if (s == null) {
+                sb.append('-');
+            } else {
+                sb.append(s.length()).append(':').append(s);
+            }
+        }
+    }
+}
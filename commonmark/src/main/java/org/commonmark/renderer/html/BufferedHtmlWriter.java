@@ -0,0 +1,114 @@
+package org.commonmark.renderer.html;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * HTML writer that collects output in a fixed-size {@code char} buffer and writes it to a {@link Writer} whenever the
+ * buffer is full. Strings and escaped text are copied into the buffer directly, so writing doesn't allocate (unlike
+ * {@link Writer#append(CharSequence, int, int)}, which creates a subsequence).
+ * <p>
+ * Call {@link #flush()} after rendering to write the rest of the buffer.
+ *
+ * @since 0.25.0
+ */
+public class BufferedHtmlWriter extends HtmlWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final CharBuffer buffer;
+
+    public BufferedHtmlWriter(Writer out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BufferedHtmlWriter(Writer out, int bufferSize) {
+        this(new CharBuffer(Objects.requireNonNull(out, "out must not be null"), bufferSize));
+    }
+
+    private BufferedHtmlWriter(CharBuffer buffer) {
+        super(buffer);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Write the buffered output to the writer and flush the writer.
+     */
+    public void flush() {
+        try {
+            buffer.writeBuffer();
+            buffer.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the buffered output to the writer, without flushing the writer.
+     */
+    void writeBuffer() {
+        try {
+            buffer.writeBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class CharBuffer implements Appendable {
+
+        private final Writer out;
+        private final char[] chars;
+        private int length = 0;
+
+        CharBuffer(Writer out, int size) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("bufferSize must be positive, was " + size);
+            }
+            this.out = out;
+            this.chars = new char[size];
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            while (start < end) {
+                if (length == chars.length) {
+                    writeBuffer();
+                }
+                int n = Math.min(end - start, chars.length - length);
+                if (csq instanceof String) {
+                    ((String) csq).getChars(start, start + n, chars, length);
+                } else {
+                    for (int i = 0; i < n; i++) {
+                        chars[length + i] = csq.charAt(start + i);
+                    }
+                }
+                length += n;
+                start += n;
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (length == chars.length) {
+                writeBuffer();
+            }
+            chars[length++] = c;
+            return this;
+        }
+
+        void writeBuffer() throws IOException {
+            if (length != 0) {
+                out.write(chars, 0, length);
+                length = 0;
+            }
+        }
+    }
+}
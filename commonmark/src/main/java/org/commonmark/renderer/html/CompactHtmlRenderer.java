@@ -0,0 +1,234 @@
+package org.commonmark.renderer.html;
+
+import org.commonmark.node.CompactDocument;
+
+import java.util.Map;
+
+import static org.commonmark.node.CompactDocument.*;
+
+/**
+ * Renders a {@link CompactDocument} the same way as {@link CoreHtmlNodeRenderer} renders nodes, without creating
+ * {@link org.commonmark.node.Node} objects. Literals are written from the document without creating strings for them.
+ * Only used if there are no custom node renderers or attribute providers.
+ * <p>
+ * The rules that don't depend on the document representation are in {@link CoreHtml}.
+ */
+class CompactHtmlRenderer {
+
+    private final HtmlNodeRendererContext context;
+    private final HtmlWriter html;
+    private final CompactDocument doc;
+
+    CompactHtmlRenderer(HtmlNodeRendererContext context, CompactDocument doc) {
+        this.context = context;
+        this.html = context.getWriter();
+        this.doc = doc;
+    }
+
+    void render(int node) {
+        switch (doc.getType(node)) {
+            case DOCUMENT:
+                renderChildren(node);
+                break;
+            case HEADING: {
+                String htag = CoreHtml.headingTag(doc.getLevel(node));
+                html.line();
+                html.tag(htag);
+                renderChildren(node);
+                html.tag('/' + htag);
+                html.line();
+                break;
+            }
+            case PARAGRAPH:
+                renderParagraph(node);
+                break;
+            case BLOCK_QUOTE:
+                html.line();
+                html.tag("blockquote");
+                html.line();
+                renderChildren(node);
+                html.line();
+                html.tag("/blockquote");
+                html.line();
+                break;
+            case BULLET_LIST:
+                renderListBlock(node, "ul", null);
+                break;
+            case ORDERED_LIST:
+                renderListBlock(node, "ol", CoreHtml.listStart(doc.getMarkerStartNumber(node)));
+                break;
+            case LIST_ITEM:
+                html.tag("li");
+                renderChildren(node);
+                html.tag("/li");
+                html.line();
+                break;
+            case FENCED_CODE_BLOCK:
+                renderCodeBlock(node, CoreHtml.codeClass(doc.getInfo(node)));
+                break;
+            case INDENTED_CODE_BLOCK:
+                renderCodeBlock(node, null);
+                break;
+            case HTML_BLOCK:
+                html.line();
+                if (context.shouldEscapeHtml()) {
+                    html.tag("p");
+                    text(node);
+                    html.tag("/p");
+                } else {
+                    html.raw(doc.getLiteralChars(node), doc.getLiteralStart(node), doc.getLiteralEnd(node));
+                }
+                html.line();
+                break;
+            case THEMATIC_BREAK:
+                html.line();
+                html.tag("hr", Map.of(), true);
+                html.line();
+                break;
+            case LINK:
+                renderLink(node);
+                break;
+            case IMAGE:
+                renderImage(node);
+                break;
+            case EMPHASIS:
+                html.tag("em");
+                renderChildren(node);
+                html.tag("/em");
+                break;
+            case STRONG_EMPHASIS:
+                html.tag("strong");
+                renderChildren(node);
+                html.tag("/strong");
+                break;
+            case TEXT:
+                text(node);
+                break;
+            case CODE:
+                html.tag("code");
+                text(node);
+                html.tag("/code");
+                break;
+            case HTML_INLINE:
+                CoreHtml.htmlLiteral(context, html, doc.getLiteralChars(node), doc.getLiteralStart(node),
+                        doc.getLiteralEnd(node));
+                break;
+            case SOFT_LINE_BREAK:
+                html.raw(context.getSoftbreak());
+                break;
+            case HARD_LINE_BREAK:
+                html.tag("br", Map.of(), true);
+                html.line();
+                break;
+            default:
+                // Link reference definitions are not rendered
+                break;
+        }
+    }
+
+    /**
+     * Write the literal of the node as escaped text.
+     */
+    private void text(int node) {
+        html.text(doc.getLiteralChars(node), doc.getLiteralStart(node), doc.getLiteralEnd(node));
+    }
+
+    private void renderChildren(int parent) {
+        for (int node = doc.getFirstChild(parent); node != NONE; node = doc.getNext(node)) {
+            render(node);
+        }
+    }
+
+    private void renderParagraph(int node) {
+        int parent = doc.getParent(node);
+        boolean omitP = CoreHtml.omitParagraphP(context, isInTightList(parent),
+                parent != NONE && doc.getType(parent) == DOCUMENT && doc.getFirstChild(parent) == node &&
+                        doc.getNext(node) == NONE);
+        if (!omitP) {
+            html.line();
+            html.tag("p");
+        }
+        renderChildren(node);
+        if (!omitP) {
+            html.tag("/p");
+            html.line();
+        }
+    }
+
+    private boolean isInTightList(int parent) {
+        if (parent != NONE) {
+            int gramps = doc.getParent(parent);
+            return gramps != NONE && doc.isTight(gramps);
+        }
+        return false;
+    }
+
+    private void renderListBlock(int node, String tagName, String start) {
+        html.line();
+        CoreHtml.tag(html, tagName, "start", start, false);
+        html.line();
+        renderChildren(node);
+        html.line();
+        html.tag('/' + tagName);
+        html.line();
+    }
+
+    private void renderCodeBlock(int node, String codeClass) {
+        html.line();
+        html.tag("pre");
+        CoreHtml.tag(html, "code", "class", codeClass, false);
+        text(node);
+        html.tag("/code");
+        html.tag("/pre");
+        html.line();
+    }
+
+    private void renderLink(int node) {
+        html.tagStart("a");
+        CoreHtml.linkAttributes(context, doc.getDestination(node), doc.getTitle(node), html::attribute);
+        html.tagEnd(false);
+        renderChildren(node);
+        html.tag("/a");
+    }
+
+    private void renderImage(int node) {
+        String altText = altText(node);
+        html.tagStart("img");
+        CoreHtml.imageAttributes(context, doc.getDestination(node), altText, doc.getTitle(node), html::attribute);
+        html.tagEnd(true);
+    }
+
+    /**
+     * Same as {@link CoreHtml#altText}: the text of the descendants of the image, with line breaks as newlines.
+     */
+    private String altText(int image) {
+        var sb = new StringBuilder();
+        int node = image;
+        while (true) {
+            int child = doc.getFirstChild(node);
+            if (child != NONE) {
+                node = child;
+            } else {
+                while (node != image && doc.getNext(node) == NONE) {
+                    node = doc.getParent(node);
+                }
+                if (node == image) {
+                    break;
+                }
+                node = doc.getNext(node);
+            }
+            switch (doc.getType(node)) {
+                case TEXT:
+                    sb.append(doc.getLiteralChars(node), doc.getLiteralStart(node), doc.getLiteralEnd(node));
+                    break;
+                case SOFT_LINE_BREAK:
+                case HARD_LINE_BREAK:
+                    sb.append('\n');
+                    break;
+                default:
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package org.commonmark.renderer.html;
+
+import org.commonmark.node.*;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The HTML rules for the core nodes, shared by {@link CoreHtmlNodeRenderer} and {@link CompactHtmlRenderer} so that
+ * rendering nodes and rendering a {@link CompactDocument} give the same result.
+ */
+final class CoreHtml {
+
+    private CoreHtml() {
+    }
+
+    static String headingTag(int level) {
+        return "h" + level;
+    }
+
+    /**
+     * @param inTightList whether the paragraph is in an item of a tight list
+     * @param onlyBlockOfDocument whether the paragraph is the only child of the document
+     * @return whether the paragraph is rendered without {@code <p>} tags
+     */
+    static boolean omitParagraphP(HtmlNodeRendererContext context, boolean inTightList, boolean onlyBlockOfDocument) {
+        return inTightList || (context.shouldOmitSingleParagraphP() && onlyBlockOfDocument);
+    }
+
+    /**
+     * @return the class of the code tag of a fenced code block with the info string, or null for no class
+     */
+    static String codeClass(String info) {
+        if (info == null || info.isEmpty()) {
+            return null;
+        }
+        int space = info.indexOf(" ");
+        String language = space == -1 ? info : info.substring(0, space);
+        return "language-" + language;
+    }
+
+    /**
+     * @return the start attribute of an ordered list, or null if it starts at 1
+     */
+    static String listStart(Integer markerStartNumber) {
+        int start = markerStartNumber != null ? markerStartNumber : 1;
+        return start != 1 ? String.valueOf(start) : null;
+    }
+
+    /**
+     * Write the literal of an HTML block or inline, which is escaped if the context says so.
+     */
+    static void htmlLiteral(HtmlNodeRendererContext context, HtmlWriter html, String literal) {
+        htmlLiteral(context, html, literal, 0, literal.length());
+    }
+
+    /**
+     * Like {@link #htmlLiteral(HtmlNodeRendererContext, HtmlWriter, String)} for the literal from {@code start} to
+     * {@code end} of {@code s}.
+     */
+    static void htmlLiteral(HtmlNodeRendererContext context, HtmlWriter html, String s, int start, int end) {
+        if (context.shouldEscapeHtml()) {
+            html.text(s, start, end);
+        } else {
+            html.raw(s, start, end);
+        }
+    }
+
+    /**
+     * Pass the attributes of a link to {@code attributes}, in order.
+     */
+    static void linkAttributes(HtmlNodeRendererContext context, String destination, String title,
+                               BiConsumer<String, String> attributes) {
+        String url = destination;
+        boolean sanitize = context.shouldSanitizeUrls();
+        if (sanitize) {
+            url = context.urlSanitizer().sanitizeLinkUrl(url);
+            attributes.accept("rel", "nofollow");
+        }
+        attributes.accept("href", context.encodeUrl(url));
+        if (title != null) {
+            attributes.accept("title", title);
+        }
+    }
+
+    /**
+     * Pass the attributes of an image to {@code attributes}, in order.
+     */
+    static void imageAttributes(HtmlNodeRendererContext context, String destination, String altText, String title,
+                                BiConsumer<String, String> attributes) {
+        String url = destination;
+        if (context.shouldSanitizeUrls()) {
+            url = context.urlSanitizer().sanitizeImageUrl(url);
+        }
+        attributes.accept("src", context.encodeUrl(url));
+        attributes.accept("alt", altText);
+        if (title != null) {
+            attributes.accept("title", title);
+        }
+    }
+
+    /**
+     * @return the alt text of an image: the text of its descendants, with line breaks as newlines
+     */
+    static String altText(Node image) {
+        AltTextVisitor altTextVisitor = new AltTextVisitor();
+        image.accept(altTextVisitor);
+        return altTextVisitor.getAltText();
+    }
+
+    /**
+     * Write a tag with at most one attribute, which is omitted if the value is null.
+     */
+    static void tag(HtmlWriter html, String tagName, String attributeName, String attributeValue, boolean voidElement) {
+        html.tagStart(tagName);
+        if (attributeValue != null) {
+            html.attribute(attributeName, attributeValue);
+        }
+        html.tagEnd(voidElement);
+    }
+
+    private static class AltTextVisitor extends AbstractVisitor {
+
+        private final StringBuilder sb = new StringBuilder();
+
+        String getAltText() {
+            return sb.toString();
+        }
+
+        @Override
+        public void visit(Text text) {
+            sb.append(text.getLiteral());
+        }
+
+        @Override
+        public void visit(SoftLineBreak softLineBreak) {
+            sb.append('\n');
+        }
+
+        @Override
+        public void visit(HardLineBreak hardLineBreak) {
+            sb.append('\n');
+        }
+    }
+}
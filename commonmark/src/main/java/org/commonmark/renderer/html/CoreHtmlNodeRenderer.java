@@ -14,10 +14,18 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     protected final HtmlNodeRendererContext context;
     private final HtmlWriter html;
+    // Whether attributes are passed to the context to be extended. Without attribute providers that would only copy
+    // them, so then the attributes are written directly instead of creating maps.
+    private final boolean extendAttributes;
 
     public CoreHtmlNodeRenderer(HtmlNodeRendererContext context) {
+        this(context, true);
+    }
+
+    CoreHtmlNodeRenderer(HtmlNodeRendererContext context, boolean extendAttributes) {
         this.context = context;
         this.html = context.getWriter();
+        this.extendAttributes = extendAttributes;
     }
 
     @Override
@@ -59,9 +67,9 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(Heading heading) {
-        String htag = "h" + heading.getLevel();
+        String htag = CoreHtml.headingTag(heading.getLevel());
         html.line();
-        html.tag(htag, getAttrs(heading, htag));
+        tag(heading, htag);
         visitChildren(heading);
         html.tag('/' + htag);
         html.line();
@@ -69,12 +77,11 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(Paragraph paragraph) {
-        boolean omitP = isInTightList(paragraph) || //
-                (context.shouldOmitSingleParagraphP() && paragraph.getParent() instanceof Document && //
-                        paragraph.getPrevious() == null && paragraph.getNext() == null);
+        boolean omitP = CoreHtml.omitParagraphP(context, isInTightList(paragraph),
+                paragraph.getParent() instanceof Document && paragraph.getPrevious() == null && paragraph.getNext() == null);
         if (!omitP) {
             html.line();
-            html.tag("p", getAttrs(paragraph, "p"));
+            tag(paragraph, "p");
         }
         visitChildren(paragraph);
         if (!omitP) {
@@ -86,7 +93,7 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
     @Override
     public void visit(BlockQuote blockQuote) {
         html.line();
-        html.tag("blockquote", getAttrs(blockQuote, "blockquote"));
+        tag(blockQuote, "blockquote");
         html.line();
         visitChildren(blockQuote);
         html.line();
@@ -96,32 +103,19 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(BulletList bulletList) {
-        renderListBlock(bulletList, "ul", getAttrs(bulletList, "ul"));
+        renderListBlock(bulletList, "ul", null, null);
     }
 
     @Override
     public void visit(FencedCodeBlock fencedCodeBlock) {
-        String literal = fencedCodeBlock.getLiteral();
-        Map<String, String> attributes = new LinkedHashMap<>();
-        String info = fencedCodeBlock.getInfo();
-        if (info != null && !info.isEmpty()) {
-            int space = info.indexOf(" ");
-            String language;
-            if (space == -1) {
-                language = info;
-            } else {
-                language = info.substring(0, space);
-            }
-            attributes.put("class", "language-" + language);
-        }
-        renderCodeBlock(literal, fencedCodeBlock, attributes);
+        renderCodeBlock(fencedCodeBlock.getLiteral(), fencedCodeBlock, CoreHtml.codeClass(fencedCodeBlock.getInfo()));
     }
 
     @Override
     public void visit(HtmlBlock htmlBlock) {
         html.line();
         if (context.shouldEscapeHtml()) {
-            html.tag("p", getAttrs(htmlBlock, "p"));
+            tag(htmlBlock, "p");
             html.text(htmlBlock.getLiteral());
             html.tag("/p");
         } else {
@@ -133,38 +127,33 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
     @Override
     public void visit(ThematicBreak thematicBreak) {
         html.line();
-        html.tag("hr", getAttrs(thematicBreak, "hr"), true);
+        tag(thematicBreak, "hr", true);
         html.line();
     }
 
     @Override
     public void visit(IndentedCodeBlock indentedCodeBlock) {
-        renderCodeBlock(indentedCodeBlock.getLiteral(), indentedCodeBlock, Map.of());
+        renderCodeBlock(indentedCodeBlock.getLiteral(), indentedCodeBlock, null);
     }
 
     @Override
     public void visit(Link link) {
-        Map<String, String> attrs = new LinkedHashMap<>();
-        String url = link.getDestination();
-
-        if (context.shouldSanitizeUrls()) {
-            url = context.urlSanitizer().sanitizeLinkUrl(url);
-            attrs.put("rel", "nofollow");
-        }
-
-        url = context.encodeUrl(url);
-        attrs.put("href", url);
-        if (link.getTitle() != null) {
-            attrs.put("title", link.getTitle());
+        if (extendAttributes) {
+            Map<String, String> attrs = new LinkedHashMap<>();
+            CoreHtml.linkAttributes(context, link.getDestination(), link.getTitle(), attrs::put);
+            html.tag("a", getAttrs(link, "a", attrs));
+        } else {
+            html.tagStart("a");
+            CoreHtml.linkAttributes(context, link.getDestination(), link.getTitle(), html::attribute);
+            html.tagEnd(false);
         }
-        html.tag("a", getAttrs(link, "a", attrs));
         visitChildren(link);
         html.tag("/a");
     }
 
     @Override
     public void visit(ListItem listItem) {
-        html.tag("li", getAttrs(listItem, "li"));
+        tag(listItem, "li");
         visitChildren(listItem);
         html.tag("/li");
         html.line();
@@ -172,46 +161,33 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(OrderedList orderedList) {
-        int start = orderedList.getMarkerStartNumber() != null ? orderedList.getMarkerStartNumber() : 1;
-        Map<String, String> attrs = new LinkedHashMap<>();
-        if (start != 1) {
-            attrs.put("start", String.valueOf(start));
-        }
-        renderListBlock(orderedList, "ol", getAttrs(orderedList, "ol", attrs));
+        renderListBlock(orderedList, "ol", "start", CoreHtml.listStart(orderedList.getMarkerStartNumber()));
     }
 
     @Override
     public void visit(Image image) {
-        String url = image.getDestination();
-
-        AltTextVisitor altTextVisitor = new AltTextVisitor();
-        image.accept(altTextVisitor);
-        String altText = altTextVisitor.getAltText();
-
-        Map<String, String> attrs = new LinkedHashMap<>();
-        if (context.shouldSanitizeUrls()) {
-            url = context.urlSanitizer().sanitizeImageUrl(url);
-        }
-
-        attrs.put("src", context.encodeUrl(url));
-        attrs.put("alt", altText);
-        if (image.getTitle() != null) {
-            attrs.put("title", image.getTitle());
+        String altText = CoreHtml.altText(image);
+        if (extendAttributes) {
+            Map<String, String> attrs = new LinkedHashMap<>();
+            CoreHtml.imageAttributes(context, image.getDestination(), altText, image.getTitle(), attrs::put);
+            html.tag("img", getAttrs(image, "img", attrs), true);
+        } else {
+            html.tagStart("img");
+            CoreHtml.imageAttributes(context, image.getDestination(), altText, image.getTitle(), html::attribute);
+            html.tagEnd(true);
         }
-
-        html.tag("img", getAttrs(image, "img", attrs), true);
     }
 
     @Override
     public void visit(Emphasis emphasis) {
-        html.tag("em", getAttrs(emphasis, "em"));
+        tag(emphasis, "em");
         visitChildren(emphasis);
         html.tag("/em");
     }
 
     @Override
     public void visit(StrongEmphasis strongEmphasis) {
-        html.tag("strong", getAttrs(strongEmphasis, "strong"));
+        tag(strongEmphasis, "strong");
         visitChildren(strongEmphasis);
         html.tag("/strong");
     }
@@ -223,18 +199,14 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(Code code) {
-        html.tag("code", getAttrs(code, "code"));
+        tag(code, "code");
         html.text(code.getLiteral());
         html.tag("/code");
     }
 
     @Override
     public void visit(HtmlInline htmlInline) {
-        if (context.shouldEscapeHtml()) {
-            html.text(htmlInline.getLiteral());
-        } else {
-            html.raw(htmlInline.getLiteral());
-        }
+        CoreHtml.htmlLiteral(context, html, htmlInline.getLiteral());
     }
 
     @Override
@@ -244,7 +216,7 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
 
     @Override
     public void visit(HardLineBreak hardLineBreak) {
-        html.tag("br", getAttrs(hardLineBreak, "br"), true);
+        tag(hardLineBreak, "br", true);
         html.line();
     }
 
@@ -258,19 +230,19 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
         }
     }
 
-    private void renderCodeBlock(String literal, Node node, Map<String, String> attributes) {
+    private void renderCodeBlock(String literal, Node node, String codeClass) {
         html.line();
-        html.tag("pre", getAttrs(node, "pre"));
-        html.tag("code", getAttrs(node, "code", attributes));
+        tag(node, "pre");
+        tag(node, "code", "class", codeClass, false);
         html.text(literal);
         html.tag("/code");
         html.tag("/pre");
         html.line();
     }
 
-    private void renderListBlock(ListBlock listBlock, String tagName, Map<String, String> attributes) {
+    private void renderListBlock(ListBlock listBlock, String tagName, String attributeName, String attributeValue) {
         html.line();
-        html.tag(tagName, attributes);
+        tag(listBlock, tagName, attributeName, attributeValue, false);
         html.line();
         visitChildren(listBlock);
         html.line();
@@ -290,35 +262,27 @@ public class CoreHtmlNodeRenderer extends AbstractVisitor implements NodeRendere
         return false;
     }
 
-    private Map<String, String> getAttrs(Node node, String tagName) {
-        return getAttrs(node, tagName, Map.of());
+    private void tag(Node node, String tagName) {
+        tag(node, tagName, null, null, false);
     }
 
-    private Map<String, String> getAttrs(Node node, String tagName, Map<String, String> defaultAttributes) {
-        return context.extendAttributes(node, tagName, defaultAttributes);
+    private void tag(Node node, String tagName, boolean voidElement) {
+        tag(node, tagName, null, null, voidElement);
     }
 
-    private static class AltTextVisitor extends AbstractVisitor {
-
-        private final StringBuilder sb = new StringBuilder();
-
-        String getAltText() {
-            return sb.toString();
-        }
-
-        @Override
-        public void visit(Text text) {
-            sb.append(text.getLiteral());
-        }
-
-        @Override
-        public void visit(SoftLineBreak softLineBreak) {
-            sb.append('\n');
+    /**
+     * Write a tag with at most one attribute, which is omitted if the value is null.
+     */
+    private void tag(Node node, String tagName, String attributeName, String attributeValue, boolean voidElement) {
+        if (extendAttributes) {
+            Map<String, String> attributes = attributeValue != null ? Map.of(attributeName, attributeValue) : Map.of();
+            html.tag(tagName, getAttrs(node, tagName, attributes), voidElement);
+        } else {
+            CoreHtml.tag(html, tagName, attributeName, attributeValue, voidElement);
         }
+    }
 
-        @Override
-        public void visit(HardLineBreak hardLineBreak) {
-            sb.append('\n');
-        }
+    private Map<String, String> getAttrs(Node node, String tagName, Map<String, String> defaultAttributes) {
+        return context.extendAttributes(node, tagName, defaultAttributes);
     }
 }
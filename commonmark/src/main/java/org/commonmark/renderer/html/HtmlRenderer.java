@@ -4,10 +4,15 @@ import org.commonmark.Extension;
 import org.commonmark.internal.renderer.NodeRendererMap;
 import org.commonmark.internal.util.Escaping;
 import org.commonmark.node.*;
+import org.commonmark.parser.Parser;
 import org.commonmark.renderer.NodeRenderer;
 import org.commonmark.renderer.Renderer;
 
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Renders a tree of nodes to HTML.
@@ -20,6 +25,11 @@ import java.util.*;
  */
 public class HtmlRenderer implements Renderer<String> {
 
+    private static final AtomicLong RENDERER_IDS = new AtomicLong();
+    // Parsers with different configurations can produce different nodes for the same source, see renderCacheKeyPrefix
+    private static final AtomicLong PARSER_IDS = new AtomicLong();
+    private static final Map<Parser, Long> PARSER_KEYS = Collections.synchronizedMap(new WeakHashMap<>());
+
     private final String softbreak;
     private final boolean escapeHtml;
     private final boolean percentEncodeUrls;
@@ -28,6 +38,8 @@ public class HtmlRenderer implements Renderer<String> {
     private final UrlSanitizer urlSanitizer;
     private final List<AttributeProviderFactory> attributeProviderFactories;
     private final List<HtmlNodeRendererFactory> nodeRendererFactories;
+    private final RenderCache renderCache;
+    private final String renderCacheKeyPrefix;
 
     private HtmlRenderer(Builder builder) {
         this.softbreak = builder.softbreak;
@@ -37,14 +49,18 @@ public class HtmlRenderer implements Renderer<String> {
         this.sanitizeUrls = builder.sanitizeUrls;
         this.urlSanitizer = builder.urlSanitizer;
         this.attributeProviderFactories = new ArrayList<>(builder.attributeProviderFactories);
+        this.renderCache = builder.renderCache;
+        this.renderCacheKeyPrefix = renderCacheKeyPrefix();
 
         this.nodeRendererFactories = new ArrayList<>(builder.nodeRendererFactories.size() + 1);
         this.nodeRendererFactories.addAll(builder.nodeRendererFactories);
         // Add as last. This means clients can override the rendering of core nodes if they want.
+        // Without attribute providers, the core renderer doesn't need to create attribute maps to be extended.
+        boolean extendAttributes = !attributeProviderFactories.isEmpty();
         this.nodeRendererFactories.add(new HtmlNodeRendererFactory() {
             @Override
             public NodeRenderer create(HtmlNodeRendererContext context) {
-                return new CoreHtmlNodeRenderer(context);
+                return new CoreHtmlNodeRenderer(context, extendAttributes);
             }
         });
     }
@@ -61,10 +77,9 @@ public class HtmlRenderer implements Renderer<String> {
     @Override
     public void render(Node node, Appendable output) {
         Objects.requireNonNull(node, "node must not be null");
-        RendererContext context = new RendererContext(new HtmlWriter(output));
-        context.beforeRoot(node);
-        context.render(node);
-        context.afterRoot(node);
+        HtmlWriter writer = createWriter(output);
+        render(node, writer);
+        finish(writer);
     }
 
     @Override
@@ -75,6 +90,172 @@ public class HtmlRenderer implements Renderer<String> {
         return sb.toString();
     }
 
+    /**
+     * Render a compact document to the output. Unless custom node renderers or attribute providers are configured,
+     * this doesn't create {@link Node} objects.
+     *
+     * @param document the document to render
+     * @param output output for rendering
+     * @since 0.25.0
+     */
+    public void render(CompactDocument document, Appendable output) {
+        Objects.requireNonNull(document, "document must not be null");
+        // The core node renderer is always there, see constructor
+        if (nodeRendererFactories.size() != 1 || !attributeProviderFactories.isEmpty()) {
+            render(document.toNode(), output);
+            return;
+        }
+        HtmlWriter writer = createWriter(output);
+        RendererContext context = new RendererContext(writer);
+        new CompactHtmlRenderer(context, document).render(document.getRoot());
+        finish(writer);
+    }
+
+    /**
+     * Render a compact document to a string, see {@link #render(CompactDocument, Appendable)}.
+     *
+     * @param document the document to render
+     * @return the rendered HTML
+     * @since 0.25.0
+     */
+    public String render(CompactDocument document) {
+        Objects.requireNonNull(document, "document must not be null");
+        StringBuilder sb = new StringBuilder();
+        render(document, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Parse the input and render it to the output, with the same result as {@code render(parser.parse(input), output)}
+     * but without building the whole document first: Each top-level block is rendered as soon as it's parsed (see
+     * {@link Parser#parseBlocks}), after which it's not referenced anymore. This reduces peak memory usage to about the
+     * size of the largest block. Blocks that reference a definition further down are held back until it appears.
+     * <p>
+     * If custom node renderers are configured (e.g. by extensions) or {@link Builder#omitSingleParagraphP} is enabled,
+     * the output can depend on the whole document, so then the input is parsed into a document which is then rendered.
+     * The same happens if the parser has {@link org.commonmark.parser.PostProcessor}s or doesn't parse inline content
+     * right away.
+     * <p>
+     * This is where the {@link Builder#renderCache render cache} is used, as blocks are looked up by their source.
+     *
+     * @param parser the parser to use
+     * @param input the Markdown input
+     * @param output output for rendering
+     * @since 0.25.0
+     */
+    public void renderMarkdown(Parser parser, CharSequence input, Appendable output) {
+        Objects.requireNonNull(parser, "parser must not be null");
+        Objects.requireNonNull(input, "input must not be null");
+        // The core node renderer is always there, see constructor
+        if (nodeRendererFactories.size() != 1 || omitSingleParagraphP) {
+            render(parser.parse(input.toString()), output);
+            return;
+        }
+        String source = input.toString();
+        HtmlWriter writer = createWriter(output);
+        RendererContext context = new RendererContext(writer);
+        String keyPrefix = context.useRenderCache ? renderCacheKeyPrefix(parser) : null;
+        Document document = new Document();
+        // Parses the whole document first if the parser needs that (post-processors, inlines that are not parsed yet)
+        parser.parseBlocks(source, block -> {
+            // Render the block as a child of a document, as it would be otherwise
+            document.appendChild(block);
+            context.renderBlock(block, source, keyPrefix);
+            block.unlink();
+        });
+        finish(writer);
+    }
+
+    /**
+     * Parse the input and render it to a string, see {@link #renderMarkdown(Parser, CharSequence, Appendable)}.
+     *
+     * @param parser the parser to use
+     * @param input the Markdown input
+     * @return the rendered HTML
+     * @since 0.25.0
+     */
+    public String renderMarkdown(Parser parser, CharSequence input) {
+        StringBuilder sb = new StringBuilder();
+        renderMarkdown(parser, input, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Render the tree of nodes to the output stream, encoded as UTF-8. The output is encoded while rendering instead
+     * of rendering to a string first. The stream is neither flushed nor closed.
+     * <p>
+     * Note that this is not an overload of {@link #render(Node, Appendable)} because some classes are both (e.g.
+     * {@link java.io.PrintStream}).
+     *
+     * @param node the root node
+     * @param output output stream for rendering
+     * @since 0.25.0
+     */
+    public void renderUtf8(Node node, OutputStream output) {
+        Objects.requireNonNull(node, "node must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        Utf8HtmlWriter writer = new Utf8HtmlWriter(output);
+        render(node, writer);
+        writer.writeBuffer();
+    }
+
+    /**
+     * Render the tree of nodes to the byte buffer, encoded as UTF-8, starting at its position. Like with
+     * {@link ByteBuffer#put(byte[])}, the position is advanced by the number of bytes written.
+     *
+     * @param node the root node
+     * @param output byte buffer for rendering
+     * @throws java.nio.BufferOverflowException if the output doesn't fit in the remaining space of the buffer (part of
+     * the output may have been written)
+     * @since 0.25.0
+     */
+    public void renderUtf8(Node node, ByteBuffer output) {
+        Objects.requireNonNull(node, "node must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        Utf8HtmlWriter writer = new Utf8HtmlWriter(output);
+        render(node, writer);
+        writer.writeBuffer();
+    }
+
+    private void render(Node node, HtmlWriter writer) {
+        RendererContext context = new RendererContext(writer);
+        context.beforeRoot(node);
+        context.render(node);
+        context.afterRoot(node);
+    }
+
+    private String renderCacheKeyPrefix() {
+        var sb = new StringBuilder();
+        sb.append(escapeHtml ? '1' : '0').append(percentEncodeUrls ? '1' : '0');
+        sb.append(softbreak.length()).append(':').append(softbreak);
+        if (sanitizeUrls) {
+            // The sanitizer can't be part of the key, so don't share entries with other renderers
+            sb.append('u').append(RENDERER_IDS.incrementAndGet());
+        }
+        return sb.append('|').toString();
+    }
+
+    private String renderCacheKeyPrefix(Parser parser) {
+        // Entries are only shared between uses of the same parser, as its configuration can't be part of the key
+        long parserId = PARSER_KEYS.computeIfAbsent(parser, p -> PARSER_IDS.incrementAndGet());
+        return renderCacheKeyPrefix + parserId + '|';
+    }
+
+    private static HtmlWriter createWriter(Appendable output) {
+        // Writer.append(CharSequence, int, int) creates a subsequence for each call, so buffer instead
+        if (output instanceof Writer) {
+            return new BufferedHtmlWriter((Writer) output);
+        }
+        return new HtmlWriter(output);
+    }
+
+    private static void finish(HtmlWriter writer) {
+        if (writer instanceof BufferedHtmlWriter) {
+            // Don't flush the writer itself, that's up to the caller (as when rendering without a buffer)
+            ((BufferedHtmlWriter) writer).writeBuffer();
+        }
+    }
+
     /**
      * Builder for configuring an {@link HtmlRenderer}. See methods for default configuration.
      */
@@ -88,6 +269,7 @@ public class HtmlRenderer implements Renderer<String> {
         private boolean omitSingleParagraphP = false;
         private List<AttributeProviderFactory> attributeProviderFactories = new ArrayList<>();
         private List<HtmlNodeRendererFactory> nodeRendererFactories = new ArrayList<>();
+        private RenderCache renderCache = null;
 
         /**
          * @return the configured {@link HtmlRenderer}
@@ -208,6 +390,28 @@ public class HtmlRenderer implements Renderer<String> {
             return this;
         }
 
+        /**
+         * Cache the HTML of top-level blocks, so that a block that was rendered before (by a renderer with the same
+         * configuration, from the same source) doesn't have to be rendered again. The output is the same as without a
+         * cache. Defaults to no cache.
+         * <p>
+         * Blocks are looked up by their source text, so the cache is only used by {@link HtmlRenderer#renderMarkdown}
+         * with a parser that includes source spans (see {@link Parser.Builder#includeSourceSpans}), and entries are
+         * only shared between uses of the same parser instance. Post-processors of the parser are expected to change a
+         * block based on its own content only (like the ones of the extensions). The cache is not used at all with
+         * custom node renderers, attribute providers (as they can depend on other blocks, e.g. for unique heading IDs)
+         * or {@link #omitSingleParagraphP}. With {@link #sanitizeUrls}, entries are only used by the renderer that
+         * added them.
+         *
+         * @param renderCache the cache, or null for no cache
+         * @return {@code this}
+         * @since 0.25.0
+         */
+        public Builder renderCache(RenderCache renderCache) {
+            this.renderCache = renderCache;
+            return this;
+        }
+
         /**
          * @param extensions extensions to use on this HTML renderer
          * @return {@code this}
@@ -236,6 +440,11 @@ public class HtmlRenderer implements Renderer<String> {
         private final HtmlWriter htmlWriter;
         private final List<AttributeProvider> attributeProviders;
         private final NodeRendererMap nodeRendererMap = new NodeRendererMap();
+        private final boolean useRenderCache;
+
+        // For rendering blocks that are not in the render cache yet, created on the first miss and reused after that
+        private StringBuilder missBuffer;
+        private RendererContext missContext;
 
         private RendererContext(HtmlWriter htmlWriter) {
             this.htmlWriter = htmlWriter;
@@ -249,6 +458,9 @@ public class HtmlRenderer implements Renderer<String> {
                 var renderer = factory.create(this);
                 nodeRendererMap.add(renderer);
             }
+
+            // Custom node renderers and omitSingleParagraphP are already excluded by renderMarkdown
+            useRenderCache = renderCache != null && attributeProviders.isEmpty();
         }
 
         @Override
@@ -302,6 +514,36 @@ public class HtmlRenderer implements Renderer<String> {
             nodeRendererMap.render(node);
         }
 
+        /**
+         * Render a top-level block, using the render cache if possible.
+         *
+         * @param source    the input that the block was parsed from
+         * @param keyPrefix the render cache key prefix for the parser, null if the cache is not used
+         */
+        void renderBlock(Node block, String source, String keyPrefix) {
+            // The HTML of a block is rendered with a separate writer that starts out like a new one, so it can only be
+            // used if the writer is in the same state (which is the case after a core block).
+            BlockKey key = keyPrefix != null && htmlWriter.isAtLineStart()
+                    ? BlockKey.of(keyPrefix, source, block) : null;
+            if (key == null) {
+                render(block);
+                return;
+            }
+            String html = renderCache.get(key);
+            if (html == null) {
+                if (missContext == null) {
+                    missBuffer = new StringBuilder();
+                    missContext = new RendererContext(new HtmlWriter(missBuffer));
+                }
+                missBuffer.setLength(0);
+                missContext.htmlWriter.reset();
+                missContext.render(block);
+                html = missBuffer.toString();
+                renderCache.put(key, html);
+            }
+            htmlWriter.raw(html);
+        }
+
         public void beforeRoot(Node node) {
             nodeRendererMap.beforeRoot(node);
         }
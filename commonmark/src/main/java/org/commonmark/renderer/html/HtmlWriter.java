@@ -10,12 +10,30 @@ public class HtmlWriter {
 
     private static final Map<String, String> NO_ATTRIBUTES = Map.of();
 
+    private static final ClassValue<Boolean> OVERRIDES_APPEND = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != HtmlWriter.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("append", String.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // Not declared by this class, check the superclass
+                }
+            }
+            return false;
+        }
+    };
+
     private final Appendable buffer;
+    // If a subclass changes how output is written, escaped text must go through append as well
+    private final boolean overridesAppend;
     private char lastChar = 0;
 
     public HtmlWriter(Appendable out) {
         Objects.requireNonNull(out, "out must not be null");
         this.buffer = out;
+        this.overridesAppend = OVERRIDES_APPEND.get(getClass());
     }
 
     public void raw(String s) {
@@ -23,7 +41,45 @@ public class HtmlWriter {
     }
 
     public void text(String text) {
-        append(Escaping.escapeHtml(text));
+        appendEscaped(text);
+    }
+
+    /**
+     * Like {@link #text(String)} for the characters of {@code s} from {@code start} to {@code end}, without creating a
+     * string for them.
+     */
+    void text(String s, int start, int end) {
+        if (overridesAppend) {
+            append(Escaping.escapeHtml(s.substring(start, end)));
+            return;
+        }
+        try {
+            Escaping.escapeHtml(s, start, end, buffer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (start != end) {
+            lastChar = Escaping.lastCharOfEscapedHtml(s, start, end);
+        }
+    }
+
+    /**
+     * Like {@link #raw(String)} for the characters of {@code s} from {@code start} to {@code end}, without creating a
+     * string for them.
+     */
+    void raw(String s, int start, int end) {
+        if (overridesAppend) {
+            append(s.substring(start, end));
+            return;
+        }
+        try {
+            buffer.append(s, start, end);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (start != end) {
+            lastChar = s.charAt(end - 1);
+        }
     }
 
     public void tag(String name) {
@@ -35,23 +91,54 @@ public class HtmlWriter {
     }
 
     public void tag(String name, Map<String, String> attrs, boolean voidElement) {
-        append("<");
-        append(name);
+        tagStart(name);
         if (attrs != null && !attrs.isEmpty()) {
             for (var attr : attrs.entrySet()) {
-                append(" ");
-                append(Escaping.escapeHtml(attr.getKey()));
-                if (attr.getValue() != null) {
-                    append("=\"");
-                    append(Escaping.escapeHtml(attr.getValue()));
-                    append("\"");
-                }
+                attribute(attr.getKey(), attr.getValue());
             }
         }
+        tagEnd(voidElement);
+    }
+
+    /**
+     * Start a tag, for writing the attributes one by one without a map. Follow with {@link #attribute} for each
+     * attribute and then {@link #tagEnd}.
+     *
+     * @param name the tag name
+     * @since 0.25.0
+     */
+    public void tagStart(String name) {
+        append("<");
+        append(name);
+    }
+
+    /**
+     * Write an attribute of a tag started with {@link #tagStart}.
+     *
+     * @param name the attribute name
+     * @param value the attribute value, or null for an attribute without a value
+     * @since 0.25.0
+     */
+    public void attribute(String name, String value) {
+        append(" ");
+        appendEscaped(name);
+        if (value != null) {
+            append("=\"");
+            appendEscaped(value);
+            append("\"");
+        }
+    }
+
+    /**
+     * End a tag started with {@link #tagStart}.
+     *
+     * @param voidElement whether the tag is a void element (e.g. {@code <br />})
+     * @since 0.25.0
+     */
+    public void tagEnd(boolean voidElement) {
         if (voidElement) {
             append(" /");
         }
-
         append(">");
     }
 
@@ -61,6 +148,21 @@ public class HtmlWriter {
         }
     }
 
+    /**
+     * @return whether nothing has been written yet or the output ends with a newline, in which case {@link #line()}
+     * doesn't write anything (same as for a new writer)
+     */
+    boolean isAtLineStart() {
+        return lastChar == 0 || lastChar == '\n';
+    }
+
+    /**
+     * Make the writer behave like a new one, for reusing it after its output was cleared.
+     */
+    void reset() {
+        lastChar = 0;
+    }
+
     protected void append(String s) {
         try {
             buffer.append(s);
@@ -72,4 +174,26 @@ public class HtmlWriter {
             lastChar = s.charAt(length - 1);
         }
     }
+
+    /**
+     * Append the string with HTML special characters escaped. Unlike {@code append(Escaping.escapeHtml(s))}, this
+     * doesn't create an escaped copy of the string but writes directly to the output. If a subclass overrides
+     * {@link #append(String)}, the escaped string is passed to that instead, so it sees all output.
+     *
+     * @since 0.25.0
+     */
+    protected void appendEscaped(String s) {
+        if (overridesAppend) {
+            append(Escaping.escapeHtml(s));
+            return;
+        }
+        try {
+            Escaping.escapeHtml(s, buffer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!s.isEmpty()) {
+            lastChar = Escaping.lastCharOfEscapedHtml(s);
+        }
+    }
 }
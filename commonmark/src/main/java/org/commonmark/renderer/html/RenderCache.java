@@ -0,0 +1,116 @@
+package org.commonmark.renderer.html;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache for the rendered HTML of top-level blocks, for rendering documents that mostly consist of the same blocks
+ * again (e.g. revisions of a page). Configure it with {@link HtmlRenderer.Builder#renderCache}.
+ * <p>
+ * A block is looked up by its source text, the renderer configuration and the parser (plus the destinations of links
+ * after resolving references), so the output is the same as without a cache. The cache is only used by
+ * {@link HtmlRenderer#renderMarkdown} with a parser that includes source spans, see
+ * {@link HtmlRenderer.Builder#renderCache} for more details.
+ * <p>
+ * The least recently used entries are evicted when the total size of the entries would exceed the maximum size. The
+ * size of an entry is about the length of the block's source plus the length of its HTML. Entries keep a copy of the
+ * source of the block, not the whole input.
+ * <p>
+ * This class is thread-safe, one cache can be used by multiple renderers at the same time.
+ *
+ * @since 0.25.0
+ */
+public class RenderCache {
+
+    private final long maxSize;
+    private final Map<BlockKey, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxSize the maximum total size of the entries, in chars
+     */
+    public RenderCache(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the number of blocks that were found in the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of cacheable blocks that were not found in the cache
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of entries that were evicted to stay within the maximum size
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the entries, in chars
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Remove all entries. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    synchronized String get(BlockKey key) {
+        String html = entries.get(key);
+        if (html != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return html;
+    }
+
+    synchronized void put(BlockKey key, String html) {
+        long entrySize = key.getSize() + html.length();
+        if (entrySize > maxSize) {
+            return;
+        }
+        key = key.copy();
+        String previous = entries.put(key, html);
+        if (previous != null) {
+            size -= key.getSize() + previous.length();
+        }
+        size += entrySize;
+
+        Iterator<Map.Entry<BlockKey, String>> iterator = entries.entrySet().iterator();
+        while (size > maxSize) {
+            var eldest = iterator.next();
+            size -= eldest.getKey().getSize() + eldest.getValue().length();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.commonmark.renderer.html;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * HTML writer that encodes the output as UTF-8 into a fixed-size {@code byte} buffer while writing, and writes the
+ * buffer to an {@link OutputStream} or {@link ByteBuffer} whenever it's full. This avoids building a {@code String} of
+ * the whole output and encoding it afterwards. For a {@link ByteBuffer} with an accessible array, the output is
+ * encoded into that array directly.
+ * <p>
+ * Unpaired surrogates are encoded as {@code ?}, like {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+class Utf8HtmlWriter extends HtmlWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ByteSink sink;
+
+    Utf8HtmlWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    Utf8HtmlWriter(OutputStream out, int bufferSize) {
+        this(new ByteSink(out, bufferSize));
+    }
+
+    Utf8HtmlWriter(ByteBuffer out) {
+        this(new ByteSink(out));
+    }
+
+    private Utf8HtmlWriter(ByteSink sink) {
+        super(sink);
+        this.sink = sink;
+    }
+
+    /**
+     * Write the buffered output, without flushing the output stream.
+     */
+    void writeBuffer() {
+        try {
+            sink.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class ByteSink implements Appendable {
+
+        private final OutputStream out;
+        private final ByteBuffer byteBuffer;
+        private final byte[] bytes;
+        private final int offset;
+        private final int end;
+        private int length;
+        // High surrogate at the end of the last append, in case the low surrogate comes with the next one
+        private char highSurrogate = 0;
+
+        ByteSink(OutputStream out, int size) {
+            // A code point takes at most 4 bytes
+            if (size < 4) {
+                throw new IllegalArgumentException("bufferSize must be at least 4, was " + size);
+            }
+            this.out = out;
+            this.byteBuffer = null;
+            this.bytes = new byte[size];
+            this.offset = 0;
+            this.end = size;
+            this.length = 0;
+        }
+
+        ByteSink(ByteBuffer byteBuffer) {
+            this.out = null;
+            this.byteBuffer = byteBuffer;
+            if (byteBuffer.hasArray()) {
+                // Encode directly into the array of the buffer
+                this.bytes = byteBuffer.array();
+                this.offset = byteBuffer.arrayOffset();
+                this.end = offset + byteBuffer.limit();
+                this.length = offset + byteBuffer.position();
+            } else {
+                this.bytes = new byte[DEFAULT_BUFFER_SIZE];
+                this.offset = 0;
+                this.end = bytes.length;
+                this.length = 0;
+            }
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                char c = csq.charAt(i);
+                if (c < 0x80 && highSurrogate == 0) {
+                    ensureSpace(1);
+                    bytes[length++] = (byte) c;
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(csq.charAt(i + 1))
+                        && highSurrogate == 0) {
+                    appendCodePoint(Character.toCodePoint(c, csq.charAt(i + 1)));
+                    i++;
+                } else {
+                    appendChar(c);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            appendChar(c);
+            return this;
+        }
+
+        void finish() throws IOException {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                appendCodePoint('?');
+            }
+            writeBuffer();
+        }
+
+        private void appendChar(char c) throws IOException {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    appendCodePoint(Character.toCodePoint(high, c));
+                    return;
+                }
+                appendCodePoint('?');
+            }
+            if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                appendCodePoint('?');
+            } else {
+                appendCodePoint(c);
+            }
+        }
+
+        private void appendCodePoint(int codePoint) throws IOException {
+            if (codePoint < 0x80) {
+                ensureSpace(1);
+                bytes[length++] = (byte) codePoint;
+            } else if (codePoint < 0x800) {
+                ensureSpace(2);
+                bytes[length++] = (byte) (0xC0 | (codePoint >> 6));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                ensureSpace(3);
+                bytes[length++] = (byte) (0xE0 | (codePoint >> 12));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                ensureSpace(4);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+        }
+
+        private void ensureSpace(int n) throws IOException {
+            if (length + n > end) {
+                if (byteBuffer != null && byteBuffer.hasArray()) {
+                    writeBuffer();
+                    throw new BufferOverflowException();
+                }
+                writeBuffer();
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            if (out != null) {
+                out.write(bytes, 0, length);
+                length = 0;
+            } else if (byteBuffer.hasArray()) {
+                byteBuffer.position(length - offset);
+            } else {
+                byteBuffer.put(bytes, 0, length);
+                length = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.commonmark.renderer.text;
+
+import org.commonmark.internal.renderer.text.BulletListHolder;
+import org.commonmark.internal.renderer.text.ListHolder;
+import org.commonmark.internal.renderer.text.OrderedListHolder;
+import org.commonmark.node.CompactDocument;
+
+import static org.commonmark.node.CompactDocument.*;
+
+/**
+ * Renders a {@link CompactDocument} the same way as {@link CoreTextContentNodeRenderer} renders nodes, without creating
+ * {@link org.commonmark.node.Node} objects. Only used if there are no custom node renderers.
+ * <p>
+ * The rules that don't depend on the document representation are in {@link CoreTextContent}.
+ */
+class CompactTextContentRenderer {
+
+    private final TextContentWriter textContent;
+    private final boolean stripNewlines;
+    private final CompactDocument doc;
+
+    private ListHolder listHolder;
+
+    CompactTextContentRenderer(TextContentWriter textContent, LineBreakRendering lineBreakRendering, CompactDocument doc) {
+        this.textContent = textContent;
+        this.stripNewlines = lineBreakRendering == LineBreakRendering.STRIP;
+        this.doc = doc;
+    }
+
+    void render(int node) {
+        switch (doc.getType(node)) {
+            case DOCUMENT:
+                renderChildren(node);
+                break;
+            case BLOCK_QUOTE:
+                CoreTextContent.blockQuoteStart(textContent);
+                renderChildren(node);
+                CoreTextContent.blockQuoteEnd(textContent);
+                break;
+            case BULLET_LIST:
+                textContent.pushTight(doc.isTight(node));
+                listHolder = new BulletListHolder(listHolder, doc.getMarker(node));
+                renderChildren(node);
+                textContent.popTight();
+                textContent.block();
+                listHolder = listHolder.getParent();
+                break;
+            case ORDERED_LIST:
+                textContent.pushTight(doc.isTight(node));
+                listHolder = new OrderedListHolder(listHolder, doc.getMarker(node), doc.getMarkerStartNumber(node));
+                renderChildren(node);
+                textContent.popTight();
+                textContent.block();
+                listHolder = listHolder.getParent();
+                break;
+            case LIST_ITEM:
+                if (CoreTextContent.listItemStart(textContent, stripNewlines, listHolder)) {
+                    renderChildren(node);
+                    CoreTextContent.listItemEnd(textContent, listHolder);
+                }
+                break;
+            case CODE:
+                CoreTextContent.code(textContent, doc.getLiteralChars(node), doc.getLiteralStart(node),
+                        doc.getLiteralEnd(node));
+                break;
+            case FENCED_CODE_BLOCK:
+            case INDENTED_CODE_BLOCK:
+                CoreTextContent.codeBlock(textContent, stripNewlines, doc.getLiteralChars(node),
+                        doc.getLiteralStart(node), doc.getLiteralEnd(node));
+                break;
+            case HARD_LINE_BREAK:
+            case SOFT_LINE_BREAK:
+                CoreTextContent.lineBreak(textContent, stripNewlines);
+                break;
+            case HEADING:
+                renderChildren(node);
+                CoreTextContent.headingEnd(textContent, stripNewlines);
+                break;
+            case THEMATIC_BREAK:
+                CoreTextContent.thematicBreak(textContent, stripNewlines);
+                break;
+            case HTML_INLINE:
+            case HTML_BLOCK:
+            case TEXT:
+                CoreTextContent.text(textContent, stripNewlines, doc.getLiteralChars(node),
+                        doc.getLiteralStart(node), doc.getLiteralEnd(node));
+                break;
+            case LINK:
+            case IMAGE:
+                CoreTextContent.link(textContent, doc.getTitle(node), doc.getDestination(node),
+                        doc.getFirstChild(node) != NONE, () -> renderChildren(node));
+                break;
+            case PARAGRAPH:
+                renderChildren(node);
+                textContent.block();
+                break;
+            default:
+                // Link reference definitions are not rendered, emphasis only renders its children
+                renderChildren(node);
+                break;
+        }
+    }
+
+    private void renderChildren(int parent) {
+        for (int node = doc.getFirstChild(parent); node != NONE; node = doc.getNext(node)) {
+            render(node);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.commonmark.renderer.text;
+
+import org.commonmark.internal.renderer.text.BulletListHolder;
+import org.commonmark.internal.renderer.text.ListHolder;
+import org.commonmark.internal.renderer.text.OrderedListHolder;
+
+/**
+ * The text content rules for the core nodes, shared by {@link CoreTextContentNodeRenderer} and
+ * {@link CompactTextContentRenderer} so that rendering nodes and rendering a
+ * {@link org.commonmark.node.CompactDocument} give the same result.
+ */
+final class CoreTextContent {
+
+    private CoreTextContent() {
+    }
+
+    static void blockQuoteStart(TextContentWriter textContent) {
+        // LEFT-POINTING DOUBLE ANGLE QUOTATION MARK
+        textContent.write('\u00AB');
+    }
+
+    static void blockQuoteEnd(TextContentWriter textContent) {
+        textContent.resetBlock();
+        // RIGHT-POINTING DOUBLE ANGLE QUOTATION MARK
+        textContent.write('\u00BB');
+        textContent.block();
+    }
+
+    static void code(TextContentWriter textContent, String literal) {
+        code(textContent, literal, 0, literal.length());
+    }
+
+    /**
+     * Like {@link #code(TextContentWriter, String)} for the literal from {@code start} to {@code end} of {@code s}.
+     */
+    static void code(TextContentWriter textContent, String s, int start, int end) {
+        textContent.write('\"');
+        textContent.write(s, start, end);
+        textContent.write('\"');
+    }
+
+    static void codeBlock(TextContentWriter textContent, boolean stripNewlines, String literal) {
+        codeBlock(textContent, stripNewlines, literal, 0, literal.length());
+    }
+
+    /**
+     * Like {@link #codeBlock(TextContentWriter, boolean, String)} for the literal from {@code start} to {@code end} of
+     * {@code s}.
+     */
+    static void codeBlock(TextContentWriter textContent, boolean stripNewlines, String s, int start, int end) {
+        // Without the trailing newline
+        int contentEnd = end > start && s.charAt(end - 1) == '\n' ? end - 1 : end;
+        text(textContent, stripNewlines, s, start, contentEnd);
+        textContent.block();
+    }
+
+    static void lineBreak(TextContentWriter textContent, boolean stripNewlines) {
+        if (stripNewlines) {
+            textContent.whitespace();
+        } else {
+            textContent.line();
+        }
+    }
+
+    static void headingEnd(TextContentWriter textContent, boolean stripNewlines) {
+        if (stripNewlines) {
+            textContent.write(": ");
+        } else {
+            textContent.block();
+        }
+    }
+
+    static void thematicBreak(TextContentWriter textContent, boolean stripNewlines) {
+        if (!stripNewlines) {
+            textContent.write("***");
+        }
+        textContent.block();
+    }
+
+    static void text(TextContentWriter textContent, boolean stripNewlines, String text) {
+        text(textContent, stripNewlines, text, 0, text.length());
+    }
+
+    /**
+     * Like {@link #text(TextContentWriter, boolean, String)} for the text from {@code start} to {@code end} of
+     * {@code s}.
+     */
+    static void text(TextContentWriter textContent, boolean stripNewlines, String s, int start, int end) {
+        if (stripNewlines) {
+            textContent.writeStripped(s.substring(start, end));
+        } else {
+            textContent.write(s, start, end);
+        }
+    }
+
+    /**
+     * Write the marker of a list item, see {@link #listItemEnd}.
+     *
+     * @return whether the item is rendered, which it's not if it's not in a list
+     */
+    static boolean listItemStart(TextContentWriter textContent, boolean stripNewlines, ListHolder listHolder) {
+        if (listHolder instanceof OrderedListHolder) {
+            OrderedListHolder orderedListHolder = (OrderedListHolder) listHolder;
+            String indent = stripNewlines ? "" : orderedListHolder.getIndent();
+            textContent.write(indent + orderedListHolder.getCounter() + orderedListHolder.getDelimiter() + " ");
+            return true;
+        } else if (listHolder instanceof BulletListHolder) {
+            BulletListHolder bulletListHolder = (BulletListHolder) listHolder;
+            if (!stripNewlines) {
+                textContent.write(bulletListHolder.getIndent() + bulletListHolder.getMarker() + " ");
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static void listItemEnd(TextContentWriter textContent, ListHolder listHolder) {
+        textContent.block();
+        if (listHolder instanceof OrderedListHolder) {
+            ((OrderedListHolder) listHolder).increaseCounter();
+        }
+    }
+
+    /**
+     * Write a link or image: the children in quotes, followed by the title and destination.
+     *
+     * @param children renders the children, only called if {@code hasChild}
+     */
+    static void link(TextContentWriter textContent, String title, String destination, boolean hasChild,
+                     Runnable children) {
+        boolean hasTitle = title != null && !title.equals(destination);
+        boolean hasDestination = destination != null && !destination.equals("");
+
+        if (hasChild) {
+            textContent.write('"');
+            children.run();
+            textContent.write('"');
+            if (hasTitle || hasDestination) {
+                textContent.whitespace();
+                textContent.write('(');
+            }
+        }
+
+        if (hasTitle) {
+            textContent.write(title);
+            if (hasDestination) {
+                textContent.colon();
+                textContent.whitespace();
+            }
+        }
+
+        if (hasDestination) {
+            textContent.write(destination);
+        }
+
+        if (hasChild && (hasTitle || hasDestination)) {
+            textContent.write(')');
+        }
+    }
+}
@@ -62,14 +62,9 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
 
     @Override
     public void visit(BlockQuote blockQuote) {
-        // LEFT-POINTING DOUBLE ANGLE QUOTATION MARK
-        textContent.write('\u00AB');
+        CoreTextContent.blockQuoteStart(textContent);
         visitChildren(blockQuote);
-        textContent.resetBlock();
-        // RIGHT-POINTING DOUBLE ANGLE QUOTATION MARK
-        textContent.write('\u00BB');
-
-        textContent.block();
+        CoreTextContent.blockQuoteEnd(textContent);
     }
 
     @Override
@@ -84,47 +79,28 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
 
     @Override
     public void visit(Code code) {
-        textContent.write('\"');
-        textContent.write(code.getLiteral());
-        textContent.write('\"');
+        CoreTextContent.code(textContent, code.getLiteral());
     }
 
     @Override
     public void visit(FencedCodeBlock fencedCodeBlock) {
-        var literal = stripTrailingNewline(fencedCodeBlock.getLiteral());
-        if (stripNewlines()) {
-            textContent.writeStripped(literal);
-        } else {
-            textContent.write(literal);
-        }
-        textContent.block();
+        CoreTextContent.codeBlock(textContent, stripNewlines(), fencedCodeBlock.getLiteral());
     }
 
     @Override
     public void visit(HardLineBreak hardLineBreak) {
-        if (stripNewlines()) {
-            textContent.whitespace();
-        } else {
-            textContent.line();
-        }
+        CoreTextContent.lineBreak(textContent, stripNewlines());
     }
 
     @Override
     public void visit(Heading heading) {
         visitChildren(heading);
-        if (stripNewlines()) {
-            textContent.write(": ");
-        } else {
-            textContent.block();
-        }
+        CoreTextContent.headingEnd(textContent, stripNewlines());
     }
 
     @Override
     public void visit(ThematicBreak thematicBreak) {
-        if (!stripNewlines()) {
-            textContent.write("***");
-        }
-        textContent.block();
+        CoreTextContent.thematicBreak(textContent, stripNewlines());
     }
 
     @Override
@@ -144,13 +120,7 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
 
     @Override
     public void visit(IndentedCodeBlock indentedCodeBlock) {
-        var literal = stripTrailingNewline(indentedCodeBlock.getLiteral());
-        if (stripNewlines()) {
-            textContent.writeStripped(literal);
-        } else {
-            textContent.write(literal);
-        }
-        textContent.block();
+        CoreTextContent.codeBlock(textContent, stripNewlines(), indentedCodeBlock.getLiteral());
     }
 
     @Override
@@ -160,20 +130,9 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
 
     @Override
     public void visit(ListItem listItem) {
-        if (listHolder != null && listHolder instanceof OrderedListHolder) {
-            OrderedListHolder orderedListHolder = (OrderedListHolder) listHolder;
-            String indent = stripNewlines() ? "" : orderedListHolder.getIndent();
-            textContent.write(indent + orderedListHolder.getCounter() + orderedListHolder.getDelimiter() + " ");
-            visitChildren(listItem);
-            textContent.block();
-            orderedListHolder.increaseCounter();
-        } else if (listHolder != null && listHolder instanceof BulletListHolder) {
-            BulletListHolder bulletListHolder = (BulletListHolder) listHolder;
-            if (!stripNewlines()) {
-                textContent.write(bulletListHolder.getIndent() + bulletListHolder.getMarker() + " ");
-            }
+        if (CoreTextContent.listItemStart(textContent, stripNewlines(), listHolder)) {
             visitChildren(listItem);
-            textContent.block();
+            CoreTextContent.listItemEnd(textContent, listHolder);
         }
     }
 
@@ -195,11 +154,7 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
 
     @Override
     public void visit(SoftLineBreak softLineBreak) {
-        if (stripNewlines()) {
-            textContent.whitespace();
-        } else {
-            textContent.line();
-        }
+        CoreTextContent.lineBreak(textContent, stripNewlines());
     }
 
     @Override
@@ -218,54 +173,14 @@ public class CoreTextContentNodeRenderer extends AbstractVisitor implements Node
     }
 
     private void writeText(String text) {
-        if (stripNewlines()) {
-            textContent.writeStripped(text);
-        } else {
-            textContent.write(text);
-        }
+        CoreTextContent.text(textContent, stripNewlines(), text);
     }
 
     private void writeLink(Node node, String title, String destination) {
-        boolean hasChild = node.getFirstChild() != null;
-        boolean hasTitle = title != null && !title.equals(destination);
-        boolean hasDestination = destination != null && !destination.equals("");
-
-        if (hasChild) {
-            textContent.write('"');
-            visitChildren(node);
-            textContent.write('"');
-            if (hasTitle || hasDestination) {
-                textContent.whitespace();
-                textContent.write('(');
-            }
-        }
-
-        if (hasTitle) {
-            textContent.write(title);
-            if (hasDestination) {
-                textContent.colon();
-                textContent.whitespace();
-            }
-        }
-
-        if (hasDestination) {
-            textContent.write(destination);
-        }
-
-        if (hasChild && (hasTitle || hasDestination)) {
-            textContent.write(')');
-        }
+        CoreTextContent.link(textContent, title, destination, node.getFirstChild() != null, () -> visitChildren(node));
     }
 
     private boolean stripNewlines() {
         return context.lineBreakRendering() == LineBreakRendering.STRIP;
     }
-
-    private static String stripTrailingNewline(String s) {
-        if (s.endsWith("\n")) {
-            return s.substring(0, s.length() - 1);
-        } else {
-            return s;
-        }
-    }
 }
@@ -2,6 +2,7 @@ package org.commonmark.renderer.text;
 
 import org.commonmark.Extension;
 import org.commonmark.internal.renderer.NodeRendererMap;
+import org.commonmark.node.CompactDocument;
 import org.commonmark.node.Node;
 import org.commonmark.renderer.NodeRenderer;
 import org.commonmark.renderer.Renderer;
@@ -54,6 +55,37 @@ public class TextContentRenderer implements Renderer<String> {
         return sb.toString();
     }
 
+    /**
+     * Render a compact document to the output. Unless custom node renderers are configured, this doesn't create
+     * {@link Node} objects.
+     *
+     * @param document the document to render
+     * @param output output for rendering
+     * @since 0.25.0
+     */
+    public void render(CompactDocument document, Appendable output) {
+        // The core node renderer is always there, see constructor
+        if (nodeRendererFactories.size() != 1) {
+            render(document.toNode(), output);
+            return;
+        }
+        var writer = new TextContentWriter(output, lineBreakRendering);
+        new CompactTextContentRenderer(writer, lineBreakRendering, document).render(document.getRoot());
+    }
+
+    /**
+     * Render a compact document to a string, see {@link #render(CompactDocument, Appendable)}.
+     *
+     * @param document the document to render
+     * @return the rendered text
+     * @since 0.25.0
+     */
+    public String render(CompactDocument document) {
+        StringBuilder sb = new StringBuilder();
+        render(document, sb);
+        return sb.toString();
+    }
+
     /**
      * Builder for configuring a {@link TextContentRenderer}. See methods for default configuration.
      */
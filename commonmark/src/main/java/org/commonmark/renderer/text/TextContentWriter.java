@@ -56,6 +56,22 @@ public class TextContentWriter {
         append(s);
     }
 
+    /**
+     * Like {@link #write(String)} for the characters of {@code s} from {@code start} to {@code end}, without creating a
+     * string for them.
+     */
+    void write(String s, int start, int end) {
+        flushBlockSeparator();
+        try {
+            buffer.append(s, start, end);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (start != end) {
+            lastChar = s.charAt(end - 1);
+        }
+    }
+
     public void write(char c) {
         flushBlockSeparator();
         append(c);
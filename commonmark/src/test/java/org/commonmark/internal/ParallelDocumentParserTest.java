@@ -0,0 +1,85 @@
+package org.commonmark.internal;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.IncludeInlines;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.test.Nodes;
+import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelDocumentParserTest {
+
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void spec() {
+        var spec = TestResources.readAsString(TestResources.getSpec());
+        for (int chunkSize : List.of(1, 100, 1000, 10_000)) {
+            assertSameAsSequential(spec, chunkSize, ForkJoinPool.commonPool());
+        }
+    }
+
+    @Test
+    public void specWithCrLf() {
+        var spec = TestResources.readAsString(TestResources.getSpec()).replace("\n", "\r\n");
+        assertSameAsSequential(spec, 500, DIRECT);
+    }
+
+    @Test
+    public void specExamples() {
+        var examples = ExampleReader.readExampleSources(TestResources.getSpec());
+        for (var example : examples) {
+            // Add something before so that there are split points in each example
+            assertSameAsSequential("before\n\n" + example, 1, DIRECT);
+        }
+        assertSameAsSequential(String.join("\n", examples), 1, DIRECT);
+    }
+
+    @Test
+    public void definitionsAfterSplit() {
+        var input = "[foo]\n\n[foo]: /first\n\n[foo]: /second\n\n[bar]\n\n[bar]: /bar\n";
+        assertSameAsSequential(input, 1, DIRECT);
+    }
+
+    @Test(timeout = 10_000)
+    public void calledFromTaskOnSameExecutor() throws Exception {
+        var spec = TestResources.readAsString(TestResources.getSpec());
+        // The only thread of the executor is busy with the task that is parsing
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> assertSameAsSequential(spec, 1000, executor)).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameAsSequential(String input, int chunkSize, Executor executor) {
+        var expected = createDocumentParser().parse(input);
+        var parallelDocumentParser = new ParallelDocumentParser(ParallelDocumentParserTest::createDocumentParser, executor, chunkSize);
+        var actual = parallelDocumentParser.parse(input);
+        assertEquals(input, dump(expected), dump(actual));
+    }
+
+    private static DocumentParser createDocumentParser() {
+        return new DocumentParser(
+                new BlockParserFactoryTable(DocumentParser.calculateBlockParserFactories(List.of(), DocumentParser.getDefaultBlockParserTypes())),
+                InlineParserImpl::new, List.of(), List.of(), List.of(), Set.of(), IncludeSourceSpans.BLOCKS_AND_INLINES,
+                IncludeInlines.EAGER);
+    }
+
+    private static String dump(Node document) {
+        return Nodes.dump(document) + RENDERER.render(document);
+    }
+}
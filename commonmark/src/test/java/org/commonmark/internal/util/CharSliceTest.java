@@ -0,0 +1,60 @@
+package org.commonmark.internal.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CharSliceTest {
+
+    @Test
+    public void testOf() {
+        var source = "foo bar baz";
+        assertSame(source, CharSlice.of(source, 0, source.length()));
+
+        var slice = CharSlice.of(source, 4, 7);
+        assertEquals(3, slice.length());
+        assertEquals('b', slice.charAt(0));
+        assertEquals('r', slice.charAt(2));
+        assertEquals("bar", slice.toString());
+        assertEquals("", CharSlice.of(source, 4, 4).toString());
+    }
+
+    @Test
+    public void testSubSequence() {
+        var slice = CharSlice.of("foo bar baz", 4, 11);
+        assertEquals("ar b", slice.subSequence(1, 5).toString());
+        assertEquals("a", slice.subSequence(1, 5).subSequence(0, 1).toString());
+        assertEquals("", slice.subSequence(7, 7).toString());
+    }
+
+    @Test
+    public void testBounds() {
+        var slice = CharSlice.of("foo bar baz", 4, 7);
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.charAt(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.charAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.subSequence(2, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> CharSlice.of("foo", 2, 4));
+    }
+
+    @Test
+    public void testEquals() {
+        var slice = CharSlice.of("foo bar baz", 4, 7);
+        assertTrue(slice.equals("bar"));
+        assertEquals("bar".hashCode(), slice.hashCode());
+        assertEquals(CharSlice.of("bar baz", 0, 3), slice);
+        assertEquals(CharSlice.of("bar baz", 0, 3).hashCode(), slice.hashCode());
+        assertFalse(slice.equals("ba"));
+        assertFalse(slice.equals("bat"));
+        assertNotEquals(CharSlice.of("foo bar baz", 8, 11), slice);
+        assertFalse(slice.equals(new StringBuilder("bar")));
+        assertEquals("".hashCode(), CharSlice.of("foo", 1, 1).hashCode());
+    }
+
+    @Test
+    public void testAppendTo() {
+        var sb = new StringBuilder();
+        CharSlice.appendTo(sb, CharSlice.of("foo bar baz", 4, 7));
+        CharSlice.appendTo(sb, "!");
+        assertEquals("bar!", sb.toString());
+    }
+}
@@ -0,0 +1,29 @@
+package org.commonmark.internal.util;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CharTableTest {
+
+    @Test
+    public void testGet() {
+        var table = new CharTable<>(Map.of('*', "asterisk", '\u007f', "delete", 'é', "e acute", '→', "arrow"));
+        assertEquals("asterisk", table.get('*'));
+        assertEquals("delete", table.get('\u007f'));
+        assertEquals("e acute", table.get('é'));
+        assertEquals("arrow", table.get('→'));
+        assertNull(table.get('_'));
+        assertNull(table.get('è'));
+        assertNull(table.get('\0'));
+    }
+
+    @Test
+    public void testEmpty() {
+        var table = new CharTable<String>(Map.of());
+        assertNull(table.get('a'));
+        assertNull(table.get('é'));
+    }
+}
@@ -2,6 +2,8 @@ package org.commonmark.internal.util;
 
 import org.junit.Test;
 
+import java.io.IOException;
+
 import static org.junit.Assert.assertEquals;
 
 public class EscapingTest {
@@ -18,4 +20,56 @@ public class EscapingTest {
         assertEquals("&lt; both &gt;", Escaping.escapeHtml("< both >"));
         assertEquals("&lt; middle &amp; too &gt;", Escaping.escapeHtml("< middle & too >"));
     }
+
+    @Test
+    public void testEscapeHtmlAppendable() throws IOException {
+        var sb = new StringBuilder("before ");
+        Escaping.escapeHtml("nothing", sb);
+        Escaping.escapeHtml(" <a & \"b\">", sb);
+        assertEquals("before nothing &lt;a &amp; &quot;b&quot;&gt;", sb.toString());
+        assertEquals(';', Escaping.lastCharOfEscapedHtml("a>"));
+        assertEquals('a', Escaping.lastCharOfEscapedHtml(">a"));
+    }
+
+    @Test
+    public void testEscapeHtmlRange() throws IOException {
+        var sb = new StringBuilder();
+        Escaping.escapeHtml("x<a & b>y", 1, 8, sb);
+        Escaping.escapeHtml("nothing", 1, 4, sb);
+        assertEquals("&lt;a &amp; b&gt;oth", sb.toString());
+        assertEquals(';', Escaping.lastCharOfEscapedHtml("x<a>y", 1, 4));
+        assertEquals('a', Escaping.lastCharOfEscapedHtml("x<a>y", 1, 3));
+        assertEquals(0, Escaping.lastCharOfEscapedHtml("x<a>y", 2, 2));
+    }
+
+    @Test
+    public void testUnescapeString() throws IOException {
+        assertEquals("nothing to unescape", Escaping.unescapeString("nothing to unescape"));
+        assertEquals("*foo* \\a", Escaping.unescapeString("\\*foo\\* \\a"));
+        assertEquals("\u00F6 & { \uFFFD \uD83D\uDE00", Escaping.unescapeString("&ouml; &amp; &#123; &#0; &#X1F600;"));
+        assertEquals("&unknown; &#; &#x; &#12345678;", Escaping.unescapeString("&unknown; &#; &#x; &#12345678;"));
+
+        var sb = new StringBuilder("before ");
+        Escaping.unescapeString("\\[&gt;", sb);
+        assertEquals("before [>", sb.toString());
+    }
+
+    @Test
+    public void testPercentEncodeUrl() throws IOException {
+        assertEquals("https://example.com/a?b=c#d", Escaping.percentEncodeUrl("https://example.com/a?b=c#d"));
+        assertEquals("%20%C3%A4%E2%82%AC%F0%9F%98%80", Escaping.percentEncodeUrl(" \u00E4\u20AC\uD83D\uDE00"));
+        assertEquals("%2F %25 %254 %25zz", Escaping.percentEncodeUrl("%2F % %4 %zz").replace("%20", " "));
+        assertEquals("%3F", Escaping.percentEncodeUrl("\uD83D"));
+
+        var sb = new StringBuilder("before ");
+        Escaping.percentEncodeUrl("a b", sb);
+        assertEquals("before a%20b", sb.toString());
+    }
+
+    @Test
+    public void testNormalizeLabelContent() {
+        assertEquals("FOO BAR", Escaping.normalizeLabelContent("foo bar"));
+        assertEquals("FOO BAR BAZ", Escaping.normalizeLabelContent("  foo \t\n bar\r\nbaz "));
+        assertEquals("SS", Escaping.normalizeLabelContent("\u1E9E"));
+    }
 }
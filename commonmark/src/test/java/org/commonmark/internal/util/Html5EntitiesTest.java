@@ -0,0 +1,58 @@
+package org.commonmark.internal.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Html5EntitiesTest {
+
+    @Test
+    public void entityToString() {
+        assertEquals("\u00C6", Html5Entities.entityToString("&AElig;"));
+        assertEquals("&", Html5Entities.entityToString("&amp;"));
+        assertEquals("\n", Html5Entities.entityToString("&NewLine;"));
+        assertEquals("\u2233", Html5Entities.entityToString("&CounterClockwiseContourIntegral;"));
+        assertEquals("&unknown;", Html5Entities.entityToString("&unknown;"));
+        assertEquals("&amp", Html5Entities.entityToString("&amp"));
+
+        assertEquals("{", Html5Entities.entityToString("&#123;"));
+        assertEquals("\uD83D\uDE00", Html5Entities.entityToString("&#x1F600;"));
+        assertEquals("\uFFFD", Html5Entities.entityToString("&#0;"));
+        assertEquals("\uFFFD", Html5Entities.entityToString("&#x110000;"));
+    }
+
+    @Test
+    public void namesSorted() {
+        for (int i = 1; i < Html5EntityData.COUNT; i++) {
+            assertTrue(name(i - 1).compareTo(name(i)) < 0);
+        }
+    }
+
+    @Test
+    public void findAndNarrowAllNames() {
+        for (int i = 0; i < Html5EntityData.COUNT; i++) {
+            String name = name(i);
+            assertEquals(i, Html5Entities.findName("&" + name + ";", 1, name.length() + 1));
+
+            int names = Html5Entities.ALL_NAMES;
+            for (int j = 0; j < name.length(); j++) {
+                names = Html5Entities.narrowNames(names, j, name.charAt(j));
+            }
+            assertEquals(Html5Entities.getValue(i), Html5Entities.getNamedValue(names, name.length()));
+        }
+    }
+
+    @Test
+    public void narrowUnknown() {
+        // "am" is a prefix of "amp" but not a name itself
+        int names = Html5Entities.narrowNames(Html5Entities.narrowNames(Html5Entities.ALL_NAMES, 0, 'a'), 1, 'm');
+        assertNull(Html5Entities.getNamedValue(names, 2));
+        assertEquals("&", Html5Entities.getNamedValue(Html5Entities.narrowNames(names, 2, 'p'), 3));
+        assertNull(Html5Entities.getNamedValue(Html5Entities.narrowNames(names, 2, '\uFFFF'), 3));
+    }
+
+    private static String name(int index) {
+        return Html5EntityData.NAMES.substring(Html5EntityData.NAME_OFFSETS.charAt(index),
+                Html5EntityData.NAME_OFFSETS.charAt(index + 1));
+    }
+}
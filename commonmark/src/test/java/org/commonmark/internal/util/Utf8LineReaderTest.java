@@ -0,0 +1,91 @@
+package org.commonmark.internal.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.Assert.*;
+
+public class Utf8LineReaderTest {
+
+    @Test
+    public void testReadLine() {
+        assertLines();
+
+        assertLines("", "\n");
+        assertLines("foo", "\n", "bar", "\n");
+        assertLines("foo", "\n", "bar", null);
+        assertLines("", "\n", "", "\n");
+
+        assertLines("", "\r\n");
+        assertLines("foo", "\r\n", "bar", "\r\n");
+        assertLines("foo", "\r\n", "bar", null);
+
+        assertLines("", "\r");
+        assertLines("foo", "\r", "bar", "\r");
+        assertLines("foo", "\r", "bar", null);
+
+        assertLines("", "\n", "", "\r", "", "\r\n", "", "\n");
+        assertLines("what", "\r", "are", "\r", "", "\r", "you", "\r\n", "", "\r\n", "even", "\n", "doing", null);
+    }
+
+    @Test
+    public void testNonAscii() {
+        assertLines("ä", "\n", "日本語", "\r\n", "😀", null);
+        assertLines("a".repeat(1000) + "ö", "\n", "b", "\n");
+    }
+
+    @Test
+    public void testMalformed() {
+        byte[] bytes = {'a', (byte) 0xC3, '\n', (byte) 0xFF, 'b'};
+        for (var buffer : buffers(bytes)) {
+            var reader = new Utf8LineReader(buffer);
+            assertEquals("a�", reader.readLine());
+            assertEquals("�b", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void testPositionAndLimit() {
+        var buffer = ByteBuffer.wrap("skip\nfoo\nbar".getBytes(StandardCharsets.UTF_8));
+        buffer.position(5).limit(9);
+        var reader = new Utf8LineReader(buffer);
+        assertEquals("foo", reader.readLine());
+        assertEquals("\n", reader.getLineTerminator());
+        assertNull(reader.readLine());
+        // Absolute access, position is unchanged
+        assertEquals(5, buffer.position());
+
+        var slice = ByteBuffer.wrap("skip\nfoo".getBytes(StandardCharsets.UTF_8)).position(5).slice();
+        assertEquals("foo", new Utf8LineReader(slice).readLine());
+    }
+
+    private static void assertLines(String... s) {
+        assertTrue("Expected parts needs to be even (pairs of content and terminator)", s.length % 2 == 0);
+        var input = Arrays.stream(s).filter(Objects::nonNull).collect(joining(""));
+
+        for (var buffer : buffers(input.getBytes(StandardCharsets.UTF_8))) {
+            var lineReader = new Utf8LineReader(buffer);
+            var lines = new ArrayList<>();
+            String line;
+            while ((line = lineReader.readLine()) != null) {
+                lines.add(line);
+                lines.add(lineReader.getLineTerminator());
+            }
+            assertNull(lineReader.getLineTerminator());
+            assertEquals(Arrays.asList(s), lines);
+        }
+    }
+
+    private static ByteBuffer[] buffers(byte[] bytes) {
+        var direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        return new ByteBuffer[]{ByteBuffer.wrap(bytes), direct};
+    }
+}
@@ -50,6 +50,27 @@ public class InlineContentParserTest {
         assertEquals("notimage", ((Text) image.getNext().getNext().getNext()).getLiteral());
     }
 
+    @Test
+    public void statelessInlineContentParser() {
+        var factory = new StatelessBangFactory();
+        var parser = Parser.builder()
+                .customInlineContentParserFactory(factory)
+                .customInlineContentParserFactory(new DollarInlineParser.Factory())
+                .build();
+        var doc1 = parser.parse("!a $b$ $c$\n\n!d $e$\n");
+        var doc2 = parser.parse("!f\n");
+
+        // Created once when building the parser, then shared between snippets and documents
+        assertEquals(1, factory.created);
+        assertEquals(BangInline.class, doc1.getFirstChild().getFirstChild().getClass());
+        assertEquals(BangInline.class, doc1.getLastChild().getFirstChild().getClass());
+        assertEquals(BangInline.class, doc2.getFirstChild().getFirstChild().getClass());
+        // The stateful parser is still created for each snippet
+        var dollar = (DollarInline) doc1.getLastChild().getLastChild();
+        assertEquals("e", dollar.getLiteral());
+        assertEquals(0, dollar.getIndex());
+    }
+
     private static class DollarInline extends CustomNode {
         private final String literal;
         private final int index;
@@ -124,4 +145,20 @@ public class InlineContentParserTest {
             }
         }
     }
+
+    private static class StatelessBangFactory extends BangInlineParser.Factory {
+
+        private int created = 0;
+
+        @Override
+        public InlineContentParser create() {
+            created++;
+            return super.create();
+        }
+
+        @Override
+        public boolean createsStatelessParsers() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package org.commonmark.renderer.html;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class HtmlWriterTest {
+
+    @Test
+    public void text() {
+        var sb = new StringBuilder();
+        var writer = new HtmlWriter(sb);
+        writer.tag("a", Map.of("title", "\"x\""));
+        writer.text("x < y & z");
+        writer.tag("/a");
+        writer.line();
+        assertEquals("<a title=\"&quot;x&quot;\">x &lt; y &amp; z</a>\n", sb.toString());
+    }
+
+    @Test
+    public void overriddenAppendSeesEscapedText() {
+        var appended = new ArrayList<String>();
+        var sb = new StringBuilder();
+        var writer = new RecordingHtmlWriter(sb, appended);
+        writer.tag("a", Map.of("title", "\"x\""));
+        writer.text("x < y");
+        writer.tag("/a");
+        writer.line();
+
+        assertEquals(List.of("<", "a", " ", "title", "=\"", "&quot;x&quot;", "\"", ">", "x &lt; y", "<", "/a", ">", "\n"),
+                appended);
+        assertEquals("<a title=\"&quot;x&quot;\">x &lt; y</a>\n", sb.toString());
+    }
+
+    private static class RecordingHtmlWriter extends HtmlWriter {
+
+        private final List<String> appended;
+
+        RecordingHtmlWriter(Appendable out, List<String> appended) {
+            super(out);
+            this.appended = appended;
+        }
+
+        @Override
+        protected void append(String s) {
+            appended.add(s);
+            super.append(s);
+        }
+    }
+}
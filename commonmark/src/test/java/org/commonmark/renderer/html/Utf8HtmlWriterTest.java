@@ -0,0 +1,67 @@
+package org.commonmark.renderer.html;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class Utf8HtmlWriterTest {
+
+    @Test
+    public void ascii() {
+        assertEncoded("<a href=\"/a?b=&quot;c&quot;&amp;d\">x &lt; y &amp; z</a>\n", writer -> {
+            writer.tag("a", Map.of("href", "/a?b=\"c\"&d"));
+            writer.text("x < y & z");
+            writer.tag("/a");
+            writer.line();
+        });
+    }
+
+    @Test
+    public void multiByte() {
+        // 2, 3 and 4 bytes
+        assertEncoded("\u00E4 \u20AC \uD83D\uDE00 &amp; \u00E4", writer -> writer.text("\u00E4 \u20AC \uD83D\uDE00 & \u00E4"));
+    }
+
+    @Test
+    public void surrogatePairSplitAcrossAppends() {
+        assertEncoded("\uD83D\uDE00", writer -> {
+            writer.raw("\uD83D");
+            writer.raw("\uDE00");
+        });
+        assertEncoded("&lt;\uD83D\uDE00&gt;", writer -> {
+            writer.text("<\uD83D");
+            writer.text("\uDE00>");
+        });
+    }
+
+    @Test
+    public void unpairedSurrogates() {
+        assertEncoded("?", writer -> writer.raw("\uD83D"));
+        assertEncoded("?", writer -> writer.raw("\uDE00"));
+        assertEncoded("?a?", writer -> writer.raw("\uD83Da\uDE00"));
+        assertEncoded("??\uD83D\uDE00", writer -> writer.raw("\uD83D\uD83D\uD83D\uDE00"));
+        assertEncoded("?<", writer -> {
+            writer.raw("\uD83D");
+            writer.raw("<");
+        });
+    }
+
+    private static void assertEncoded(String expected, WriterAction action) {
+        // Small buffer sizes so that the buffer is written in the middle of strings and code points
+        for (int bufferSize = 4; bufferSize <= 8; bufferSize++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Utf8HtmlWriter writer = new Utf8HtmlWriter(out, bufferSize);
+            action.write(writer);
+            writer.writeBuffer();
+            assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        }
+    }
+
+    private interface WriterAction {
+        void write(HtmlWriter writer);
+    }
+}
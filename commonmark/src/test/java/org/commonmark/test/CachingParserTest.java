@@ -0,0 +1,196 @@
+package org.commonmark.test;
+
+import org.commonmark.node.CustomNode;
+import org.commonmark.node.Node;
+import org.commonmark.node.Text;
+import org.commonmark.parser.CachingParser;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class CachingParserTest {
+
+    private static final Parser PARSER = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    @Test
+    public void specSameAsParser() {
+        var parser = new CachingParser(PARSER, 100_000_000);
+        var sources = ExampleReader.readExampleSources(TestResources.getSpec());
+        for (String source : sources) {
+            String expected = RENDERER.render(PARSER.parse(source));
+            // First parses and adds the document to the cache, then copies it
+            assertEquals(source, expected, RENDERER.render(parser.parse(source)));
+            assertEquals(source, expected, RENDERER.render(parser.parse(source)));
+            assertEquals(source, expected, RENDERER.render(parser.parseCompact(source)));
+        }
+        assertEquals(parser.getEntryCount(), parser.getMissCount());
+        assertEquals(sources.size() * 3L - parser.getMissCount(), parser.getHitCount());
+    }
+
+    @Test
+    public void sourceSpans() {
+        var parser = new CachingParser(PARSER, 100_000);
+        parser.parse("# Heading\n\n*text*\n");
+        Node document = parser.parse("# Heading\n\n*text*\n");
+        Node expected = PARSER.parse("# Heading\n\n*text*\n");
+        assertEquals(expected.getFirstChild().getSourceSpans(), document.getFirstChild().getSourceSpans());
+        assertEquals(expected.getLastChild().getFirstChild().getSourceSpans(),
+                document.getLastChild().getFirstChild().getSourceSpans());
+    }
+
+    @Test
+    public void modifyingResultDoesNotChangeCache() {
+        var parser = new CachingParser(PARSER, 100_000);
+        Node document = parser.parse("text\n\nmore\n");
+        ((Text) document.getFirstChild().getFirstChild()).setLiteral("changed");
+        document.getLastChild().unlink();
+        assertEquals("<p>changed</p>\n", RENDERER.render(document));
+
+        Node again = parser.parse("text\n\nmore\n");
+        assertNotSame(document, again);
+        assertEquals("<p>text</p>\n<p>more</p>\n", RENDERER.render(again));
+        assertEquals(1, parser.getHitCount());
+    }
+
+    @Test
+    public void compactDocumentIsShared() {
+        var parser = new CachingParser(PARSER, 100_000);
+        assertSame(parser.parseCompact("text"), parser.parseCompact("text"));
+        assertNotSame(parser.parseCompact("text"), parser.parseCompact("other"));
+    }
+
+    @Test
+    public void statistics() {
+        var parser = new CachingParser(PARSER, 100_000);
+        assertEquals(0, parser.getHitRate(), 0);
+        parser.parse("a");
+        parser.parse("b");
+        parser.parse("a");
+        parser.parse("a");
+        assertEquals(2, parser.getHitCount());
+        assertEquals(2, parser.getMissCount());
+        assertEquals(0.5, parser.getHitRate(), 0);
+        assertEquals(2, parser.getEntryCount());
+        assertTrue(parser.getWeight() > 0);
+
+        parser.clear();
+        assertEquals(0, parser.getEntryCount());
+        assertEquals(0, parser.getWeight());
+        assertEquals(2, parser.getHitCount());
+    }
+
+    @Test
+    public void eviction() {
+        var single = new CachingParser(PARSER, 100_000);
+        single.parse("paragraph one");
+        long weight = single.getWeight();
+
+        // Room for two documents of about the same size
+        var parser = new CachingParser(PARSER, weight * 2 + weight / 2);
+        parser.parse("paragraph one");
+        parser.parse("paragraph two");
+        // Use "one" so that "two" is the least recently used
+        parser.parse("paragraph one");
+        parser.parse("paragraph 3ee");
+        assertEquals(1, parser.getEvictionCount());
+        assertEquals(2, parser.getEntryCount());
+        assertTrue(parser.getWeight() <= weight * 2 + weight / 2);
+
+        parser.parse("paragraph one");
+        assertEquals(2, parser.getHitCount());
+        parser.parse("paragraph two");
+        assertEquals(2, parser.getHitCount());
+    }
+
+    @Test
+    public void tooHeavyNotCached() {
+        var parser = new CachingParser(PARSER, 10);
+        assertEquals("<p>text</p>\n", RENDERER.render(parser.parse("text")));
+        assertEquals(0, parser.getEntryCount());
+        assertEquals(0, parser.getWeight());
+        assertEquals(0, parser.getEvictionCount());
+    }
+
+    @Test
+    public void customNodesNotCached() {
+        var withCustomNodes = Parser.builder().postProcessor(node -> {
+            node.appendChild(new MyCustomNode());
+            return node;
+        }).build();
+        var parser = new CachingParser(withCustomNodes, 100_000);
+        Node first = parser.parse("text");
+        Node second = parser.parse("text");
+        assertTrue(first.getLastChild() instanceof MyCustomNode);
+        assertTrue(second.getLastChild() instanceof MyCustomNode);
+        assertNotSame(first.getLastChild(), second.getLastChild());
+        assertEquals(0, parser.getEntryCount());
+        assertEquals(2, parser.getMissCount());
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parseCompact("text"));
+        assertEquals(0, parser.getEntryCount());
+    }
+
+    @Test
+    public void missReturnsParsedDocument() {
+        var parsed = new ArrayList<Node>();
+        var withCustomNodes = Parser.builder().postProcessor(node -> {
+            if (((Text) node.getFirstChild().getFirstChild()).getLiteral().equals("custom")) {
+                node.appendChild(new MyCustomNode());
+            }
+            parsed.add(node);
+            return node;
+        }).build();
+        var parser = new CachingParser(withCustomNodes, 100_000);
+
+        Node text = parser.parse("text");
+        Node custom = parser.parse("custom");
+        assertEquals(List.of(text, custom), parsed);
+        assertEquals(1, parser.getEntryCount());
+        // A hit is a copy
+        assertNotSame(text, parser.parse("text"));
+        assertEquals(2, parsed.size());
+    }
+
+    @Test
+    public void concurrentUse() throws Exception {
+        var parser = new CachingParser(PARSER, 100_000_000);
+        var sources = ExampleReader.readExampleSources(TestResources.getSpec());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (String source : sources) {
+                        Node document = parser.parse(source);
+                        assertEquals(source, RENDERER.render(PARSER.parse(source)), RENDERER.render(document));
+                        // Modifying a result must not affect other threads
+                        while (document.getFirstChild() != null) {
+                            document.getFirstChild().unlink();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(sources.size() * 4L, parser.getHitCount() + parser.getMissCount());
+    }
+
+    private static class MyCustomNode extends CustomNode {
+    }
+}
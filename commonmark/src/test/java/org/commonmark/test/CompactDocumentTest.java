@@ -0,0 +1,182 @@
+package org.commonmark.test;
+
+import org.commonmark.node.*;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.AttributeProvider;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.html.UrlSanitizer;
+import org.commonmark.renderer.markdown.MarkdownRenderer;
+import org.commonmark.renderer.text.LineBreakRendering;
+import org.commonmark.renderer.text.TextContentRenderer;
+import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompactDocumentTest {
+
+    private static final Parser PARSER = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+    private static final List<TextContentRenderer> TEXT_RENDERERS = List.of(
+            TextContentRenderer.builder().build(),
+            TextContentRenderer.builder().lineBreakRendering(LineBreakRendering.SEPARATE_BLOCKS).build(),
+            TextContentRenderer.builder().lineBreakRendering(LineBreakRendering.STRIP).build());
+
+    @Test
+    public void renderSameAsNodes() {
+        for (var source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+            var compacts = List.of(CompactDocument.of(PARSER.parse(source)), CompactDocument.of(PARSER.parse(source), source));
+            for (var compact : compacts) {
+                for (var builder : htmlRendererBuilders()) {
+                    var renderer = builder.build();
+                    assertEquals(source, renderer.render(PARSER.parse(source)), renderer.render(compact));
+                }
+                for (var renderer : TEXT_RENDERERS) {
+                    assertEquals(source, renderer.render(PARSER.parse(source)), renderer.render(compact));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void literalsFromSource() {
+        var source = "foo \\*bar\\*\n\n```\ncode\n```\n";
+        var compact = CompactDocument.of(PARSER.parse(source), source);
+        int paragraph = compact.getFirstChild(compact.getRoot());
+        int text = compact.getFirstChild(paragraph);
+        assertEquals("foo *bar*", compact.getLiteral(text));
+        // Not in the source as is because of the escapes
+        assertNotSame(source, compact.getLiteralChars(text));
+        assertEquals("foo *bar*", compact.getLiteralChars(text).substring(compact.getLiteralStart(text), compact.getLiteralEnd(text)));
+
+        int codeBlock = compact.getNext(paragraph);
+        assertEquals("code\n", compact.getLiteral(codeBlock));
+        assertSame(source, compact.getLiteralChars(codeBlock));
+        assertEquals(source.indexOf("code"), compact.getLiteralStart(codeBlock));
+        assertEquals(source.indexOf("code") + 5, compact.getLiteralEnd(codeBlock));
+
+        assertNull(compact.getLiteralChars(paragraph));
+        assertEquals(0, compact.getLiteralStart(paragraph));
+        assertEquals(0, compact.getLiteralEnd(paragraph));
+    }
+
+    @Test
+    public void renderWithAttributeProviderSameAsWithout() {
+        // With attribute providers, nodes are rendered with the attributes passed through maps instead of directly
+        AttributeProvider noAttributes = (node, tagName, attributes) -> {
+        };
+        for (var source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+            for (var builder : htmlRendererBuilders()) {
+                var expected = builder.build().render(PARSER.parse(source));
+                var renderer = builder.attributeProviderFactory(context -> noAttributes).build();
+                assertEquals(source, expected, renderer.render(PARSER.parse(source)));
+                assertEquals(source, expected, renderer.render(CompactDocument.of(PARSER.parse(source))));
+            }
+        }
+    }
+
+    @Test
+    public void toNodeSameAsParsed() {
+        var markdownRenderer = MarkdownRenderer.builder().build();
+        for (var source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+            var compact = CompactDocument.of(PARSER.parse(source));
+            var expected = PARSER.parse(source);
+            var actual = compact.toNode();
+            assertEquals(source, Nodes.dump(expected), Nodes.dump(actual));
+            assertEquals(source, markdownRenderer.render(expected), markdownRenderer.render(actual));
+        }
+    }
+
+    @Test
+    public void traversal() {
+        var compact = CompactDocument.of(PARSER.parse("# Title\n\n- [link](/url \"title\")\n- `code`\n"));
+        int root = compact.getRoot();
+        assertEquals(CompactDocument.DOCUMENT, compact.getType(root));
+        assertEquals(CompactDocument.NONE, compact.getParent(root));
+
+        int heading = compact.getFirstChild(root);
+        assertEquals(CompactDocument.HEADING, compact.getType(heading));
+        assertEquals(1, compact.getLevel(heading));
+        assertEquals("Title", compact.getLiteral(compact.getFirstChild(heading)));
+        assertEquals(List.of(SourceSpan.of(0, 0, 0, 7)), compact.getSourceSpans(heading));
+
+        int list = compact.getNext(heading);
+        assertEquals(CompactDocument.BULLET_LIST, compact.getType(list));
+        assertTrue(compact.isTight(list));
+        assertEquals("-", compact.getMarker(list));
+        assertEquals(CompactDocument.NONE, compact.getNext(list));
+
+        int link = compact.getFirstChild(compact.getFirstChild(compact.getFirstChild(list)));
+        assertEquals(CompactDocument.LINK, compact.getType(link));
+        assertEquals("/url", compact.getDestination(link));
+        assertEquals("title", compact.getTitle(link));
+        assertEquals("link", compact.getLiteral(compact.getFirstChild(link)));
+
+        int code = compact.getFirstChild(compact.getFirstChild(compact.getNext(compact.getFirstChild(list))));
+        assertEquals(CompactDocument.CODE, compact.getType(code));
+        assertEquals("code", compact.getLiteral(code));
+        assertEquals(11, compact.size());
+    }
+
+    @Test
+    public void customNodesRefused() {
+        var document = PARSER.parse("foo\n\nbar *baz*\n");
+        var custom = new CustomBox();
+        var paragraph = document.getLastChild();
+        for (Node child = paragraph.getFirstChild(); child != null; child = paragraph.getFirstChild()) {
+            custom.appendChild(child);
+        }
+        paragraph.appendChild(custom);
+        var before = Nodes.dump(document);
+
+        assertTrue(CompactDocument.hasCustomNodes(document));
+        assertFalse(CompactDocument.hasCustomNodes(document.getFirstChild()));
+        assertThrows(IllegalArgumentException.class, () -> CompactDocument.of(document));
+        // The tree is not changed
+        assertEquals(before, Nodes.dump(document));
+        assertSame(paragraph, custom.getParent());
+    }
+
+    @Test
+    public void hasCustomNodesDeepTree() {
+        Node root = new Document();
+        Node node = root;
+        for (int i = 0; i < 100_000; i++) {
+            var child = new Emphasis();
+            node.appendChild(child);
+            node = child;
+        }
+        assertFalse(CompactDocument.hasCustomNodes(root));
+        node.appendChild(new CustomBox());
+        assertTrue(CompactDocument.hasCustomNodes(root));
+    }
+
+    // New builders for each call, as they are mutable
+    private static List<HtmlRenderer.Builder> htmlRendererBuilders() {
+        return List.of(
+                HtmlRenderer.builder(),
+                HtmlRenderer.builder().escapeHtml(true),
+                HtmlRenderer.builder().sanitizeUrls(true),
+                HtmlRenderer.builder().percentEncodeUrls(true),
+                HtmlRenderer.builder().escapeHtml(true).sanitizeUrls(true).percentEncodeUrls(true),
+                HtmlRenderer.builder().sanitizeUrls(true).urlSanitizer(new UrlSanitizer() {
+                    @Override
+                    public String sanitizeLinkUrl(String url) {
+                        return "/link?" + url;
+                    }
+
+                    @Override
+                    public String sanitizeImageUrl(String url) {
+                        return "/image?" + url;
+                    }
+                }),
+                HtmlRenderer.builder().omitSingleParagraphP(true),
+                HtmlRenderer.builder().omitSingleParagraphP(true).softbreak("<br />"));
+    }
+
+    private static class CustomBox extends CustomNode {
+    }
+}
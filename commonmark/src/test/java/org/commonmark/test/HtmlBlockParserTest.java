@@ -0,0 +1,51 @@
+package org.commonmark.test;
+
+import org.junit.Test;
+
+public class HtmlBlockParserTest extends CoreRenderingTestCase {
+
+    @Test
+    public void rawTextTags() {
+        assertRendering("<PRE>\n**x**\n</pre>\nafter", "<PRE>\n**x**\n</pre>\n<p>after</p>\n");
+        assertRendering("<script type=\"x\"></Script>\nafter", "<script type=\"x\"></Script>\n<p>after</p>\n");
+        // Only a prefix of the tag name
+        assertRendering("<prex\n</pre>", "<p>&lt;prex\n</pre></p>\n");
+    }
+
+    @Test
+    public void blockTags() {
+        assertRendering("<DIV CLASS=\"x\">\n*foo*", "<DIV CLASS=\"x\">\n*foo*\n");
+        assertRendering("<colgroup>\nfoo", "<colgroup>\nfoo\n");
+        assertRendering("<div/>\nfoo\n\nbar", "<div/>\nfoo\n<p>bar</p>\n");
+        assertRendering("</h6\nfoo", "</h6\nfoo\n");
+        // Only a prefix of a tag name
+        assertRendering("<colx\nfoo", "<p>&lt;colx\nfoo</p>\n");
+        assertRendering("<div-x\nfoo", "<p>&lt;div-x\nfoo</p>\n");
+    }
+
+    @Test
+    public void commentProcessingInstructionAndCData() {
+        assertRendering("<!-- a\n*b* -->\nc", "<!-- a\n*b* -->\n<p>c</p>\n");
+        assertRendering("<?php\n*b* ?>\nc", "<?php\n*b* ?>\n<p>c</p>\n");
+        assertRendering("<![CDATA[\n*b* ]]>\nc", "<![CDATA[\n*b* ]]>\n<p>c</p>\n");
+    }
+
+    @Test
+    public void declaration() {
+        assertRendering("<!DOCTYPE html>\nfoo", "<!DOCTYPE html>\n<p>foo</p>\n");
+        // Lowercase doesn't start a block, but is inline HTML
+        assertRendering("<!doctype html>", "<p><!doctype html></p>\n");
+    }
+
+    @Test
+    public void completeTags() {
+        assertRendering("<custom-tag a b = 'c' d=e f:g=\"h\"/>\n*x*", "<custom-tag a b = 'c' d=e f:g=\"h\"/>\n*x*\n");
+        assertRendering("</custom-tag >\n*x*", "</custom-tag >\n*x*\n");
+        // Must be the only thing on the line
+        assertRendering("<a href=\"foo\">bar", "<p><a href=\"foo\">bar</p>\n");
+        // Attribute value missing
+        assertRendering("<a b=>\n*x*", "<p>&lt;a b=&gt;\n<em>x</em></p>\n");
+        // Can't interrupt a paragraph
+        assertRendering("foo\n<custom-tag>\nbar", "<p>foo\n<custom-tag>\nbar</p>\n");
+    }
+}
@@ -1,13 +1,22 @@
 package org.commonmark.test;
 
 import org.commonmark.node.*;
+import org.commonmark.parser.IncludeInlines;
+import org.commonmark.parser.IncludeSourceSpans;
 import org.commonmark.parser.Parser;
 import org.commonmark.renderer.NodeRenderer;
 import org.commonmark.renderer.html.*;
 import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,6 +27,7 @@ import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class HtmlRendererTest {
@@ -243,6 +253,85 @@ public class HtmlRendererTest {
         assertEquals(rendered, secondPass);
     }
 
+    @Test
+    public void attributeProviderWithoutChangesSameAsWithout() {
+        // Without attribute providers, the core renderer writes attributes directly; make sure that's the same
+        AttributeProviderFactory noChanges = context -> (node, tagName, attributes) -> {
+        };
+        var configs = List.of(
+                HtmlRenderer.builder(),
+                HtmlRenderer.builder().sanitizeUrls(true).percentEncodeUrls(true).escapeHtml(true));
+        for (var config : configs) {
+            HtmlRenderer withoutProvider = config.build();
+            HtmlRenderer withProvider = config.attributeProviderFactory(noChanges).build();
+            for (String source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+                Node document = parse(source);
+                assertEquals(source, withProvider.render(document), withoutProvider.render(document));
+            }
+        }
+    }
+
+    @Test
+    public void renderMarkdownSameAsParseAndRender() {
+        Parser parser = Parser.builder().build();
+        var renderers = List.of(
+                defaultRenderer(),
+                HtmlRenderer.builder().sanitizeUrls(true).percentEncodeUrls(true).escapeHtml(true).build(),
+                HtmlRenderer.builder().attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                    if (node.getParent() instanceof Document) {
+                        attributes.put("class", "top");
+                    }
+                }).build());
+        for (var renderer : renderers) {
+            for (String source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+                assertEquals(source, renderer.render(parser.parse(source)), renderer.renderMarkdown(parser, source));
+            }
+        }
+    }
+
+    @Test
+    public void renderMarkdownForwardReference() {
+        Parser parser = Parser.builder().build();
+        String source = "# [foo]\n\n[bar]\n\n[foo]: /url\n";
+        assertEquals("<h1><a href=\"/url\">foo</a></h1>\n<p>[bar]</p>\n",
+                defaultRenderer().renderMarkdown(parser, source));
+    }
+
+    @Test
+    public void renderMarkdownOmitSingleParagraphP() {
+        Parser parser = Parser.builder().build();
+        HtmlRenderer renderer = HtmlRenderer.builder().omitSingleParagraphP(true).build();
+        assertEquals("hi", renderer.renderMarkdown(parser, "hi"));
+        assertEquals("<p>a</p>\n<p>b</p>\n", renderer.renderMarkdown(parser, "a\n\nb"));
+    }
+
+    @Test
+    public void renderMarkdownPostProcessor() {
+        Parser parser = Parser.builder().postProcessor(document -> {
+            document.appendChild(new ThematicBreak());
+            return document;
+        }).build();
+        String source = "# Title\n\ntext\n";
+        assertEquals("<h1>Title</h1>\n<p>text</p>\n<hr />\n", defaultRenderer().renderMarkdown(parser, source));
+        assertEquals(defaultRenderer().render(parser.parse(source)), defaultRenderer().renderMarkdown(parser, source));
+    }
+
+    @Test
+    public void renderMarkdownWithoutEagerInlines() {
+        var parsers = List.of(
+                Parser.builder().blocksOnly().build(),
+                Parser.builder().includeInlines(IncludeInlines.NONE).includeSourceSpans(IncludeSourceSpans.BLOCKS).build(),
+                Parser.builder().includeInlines(IncludeInlines.LAZY).build());
+        for (var parser : parsers) {
+            for (String source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+                assertEquals(source, defaultRenderer().render(parser.parse(source)),
+                        defaultRenderer().renderMarkdown(parser, source));
+            }
+        }
+        // Raw inline content stays as it is, the same as when rendering the parsed document
+        assertEquals("<p>*a* [b]</p>\n", defaultRenderer().renderMarkdown(parsers.get(0), "*a* [b]\n\n[b]: /url\n"));
+    }
+
     @Test
     public void overrideNodeRender() {
         HtmlNodeRendererFactory nodeRendererFactory = new HtmlNodeRendererFactory() {
@@ -314,6 +403,66 @@ public class HtmlRendererTest {
         assertEquals("hi <em>there</em>", renderer.render(parse("hi *there*")));
     }
 
+    @Test
+    public void renderToWriter() {
+        String spec = TestResources.readAsString(TestResources.getSpec());
+        Node document = parse(spec);
+        StringWriter writer = new StringWriter();
+        defaultRenderer().render(document, writer);
+        assertEquals(defaultRenderer().render(document), writer.toString());
+    }
+
+    @Test
+    public void renderUtf8() {
+        String spec = TestResources.readAsString(TestResources.getSpec());
+        Node document = parse(spec);
+        byte[] expected = defaultRenderer().render(document).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        defaultRenderer().renderUtf8(document, out);
+        assertArrayEquals(expected, out.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 1);
+        buffer.put((byte) 'x');
+        defaultRenderer().renderUtf8(document, buffer);
+        assertEquals(expected.length + 1, buffer.position());
+        assertArrayEquals(expected, Arrays.copyOfRange(buffer.array(), 1, expected.length + 1));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void renderUtf8ByteBufferTooSmall() {
+        defaultRenderer().renderUtf8(parse("f\u00F6\u00F6"), ByteBuffer.allocate(6));
+    }
+
+    @Test
+    public void bufferedHtmlWriter() {
+        StringWriter out = new StringWriter();
+        // Smaller than most of the strings, so that the buffer has to be written in the middle of them
+        BufferedHtmlWriter writer = new BufferedHtmlWriter(out, 3);
+        writer.tag("a", Map.of("href", "/a?b=\"c\"&d"));
+        writer.text("x < y & z");
+        writer.tag("/a");
+        writer.line();
+        writer.text(">");
+        writer.line();
+        writer.raw("");
+        writer.line();
+        writer.flush();
+        assertEquals("<a href=\"/a?b=&quot;c&quot;&amp;d\">x &lt; y &amp; z</a>\n&gt;\n", out.toString());
+    }
+
+    @Test
+    public void htmlWriterTagWithoutMap() {
+        StringBuilder sb = new StringBuilder();
+        HtmlWriter writer = new HtmlWriter(sb);
+        writer.tagStart("img");
+        writer.attribute("src", "a&b");
+        writer.attribute("hidden", null);
+        writer.tagEnd(true);
+        writer.tag("img", Map.of("src", "a&b"), true);
+        assertEquals("<img src=\"a&amp;b\" hidden /><img src=\"a&amp;b\" />", sb.toString());
+    }
+
     @Test
     public void threading() throws Exception {
         Parser parser = Parser.builder().build();
@@ -0,0 +1,196 @@
+package org.commonmark.test;
+
+import org.commonmark.node.*;
+import org.commonmark.parser.IncludeInlines;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.parser.TextEdit;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class IncludeInlinesTest {
+
+    private static final Parser EAGER_PARSER = Parser.builder().build();
+    private static final Parser LAZY_PARSER = Parser.builder().includeInlines(IncludeInlines.LAZY).build();
+    private static final Parser BLOCKS_ONLY_PARSER = Parser.builder().blocksOnly().build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    @Test
+    public void lazySameAsEager() {
+        for (var source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+            assertEquals(source, RENDERER.render(EAGER_PARSER.parse(source)), RENDERER.render(LAZY_PARSER.parse(source)));
+        }
+    }
+
+    @Test
+    public void lazyParsesOnAccess() {
+        var document = LAZY_PARSER.parse("# Heading *one*\n\nSee [foo].\n\n[foo]: /url\n");
+
+        var heading = (Heading) document.getFirstChild();
+        var paragraph = heading.getNext();
+        assertEquals(1, heading.getLevel());
+        assertTrue(paragraph instanceof Paragraph);
+        assertTrue(paragraph.getNext() instanceof LinkReferenceDefinition);
+
+        var text = (Text) heading.getFirstChild();
+        assertEquals("Heading ", text.getLiteral());
+        assertTrue(heading.getLastChild() instanceof Emphasis);
+
+        // Definition after the paragraph is used
+        var link = (Link) paragraph.getFirstChild().getNext();
+        assertEquals("/url", link.getDestination());
+    }
+
+    @Test
+    public void lazyAppendChildKeepsOrder() {
+        var document = LAZY_PARSER.parse("text\n");
+        var paragraph = document.getFirstChild();
+        paragraph.appendChild(new Text("appended"));
+
+        assertEquals("text", ((Text) paragraph.getFirstChild()).getLiteral());
+        assertEquals("appended", ((Text) paragraph.getLastChild()).getLiteral());
+    }
+
+    @Test
+    public void lazyWithSourceSpans() {
+        var parser = Parser.builder().includeInlines(IncludeInlines.LAZY)
+                .includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+        var document = parser.parse("> foo *bar*\n");
+        var emphasis = document.getFirstChild().getFirstChild().getLastChild();
+        assertEquals(List.of(SourceSpan.of(0, 6, 6, 5)), emphasis.getSourceSpans());
+    }
+
+    @Test
+    public void lazyReadFromMultipleThreads() throws Exception {
+        var input = "[foo] *bar* `baz`\n\n".repeat(1000) + "[foo]: /url\n";
+        var expected = RENDERER.render(EAGER_PARSER.parse(input));
+        var document = LAZY_PARSER.parse(input);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> RENDERER.render(document)));
+            }
+            for (var future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void blocksOnlyKeepsRawContent() {
+        var document = BLOCKS_ONLY_PARSER.parse("# Heading *one*\n\nSee [foo] &amp;\nmore\n\n    code *x*\n\n[foo]: /url\n");
+
+        var heading = document.getFirstChild();
+        assertEquals("Heading *one*", ((Text) heading.getFirstChild()).getLiteral());
+        assertNull(heading.getFirstChild().getNext());
+
+        var paragraph = heading.getNext();
+        assertEquals("See [foo] &amp;\nmore", ((Text) paragraph.getFirstChild()).getLiteral());
+        assertNull(paragraph.getFirstChild().getNext());
+
+        assertEquals("code *x*\n", ((IndentedCodeBlock) paragraph.getNext()).getLiteral());
+    }
+
+    @Test
+    public void blocksOnlyParseInlinesLater() {
+        var input = "# Heading *one*\n\nSee [foo] &amp;\nmore\n\n[foo]: /url\n";
+        var parsed = BLOCKS_ONLY_PARSER.parseDocument(input);
+        var document = parsed.getDocument();
+
+        var paragraph = document.getFirstChild().getNext();
+        BLOCKS_ONLY_PARSER.parseInlines(parsed, paragraph);
+        assertEquals(RENDERER.render(EAGER_PARSER.parse(input).getFirstChild().getNext()), RENDERER.render(paragraph));
+
+        // Not parsed
+        assertEquals("Heading *one*", ((Text) document.getFirstChild().getFirstChild()).getLiteral());
+    }
+
+    @Test
+    public void blocksOnlyParseInlinesWithSourceSpans() {
+        var parser = Parser.builder().blocksOnly().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+        var parsed = parser.parseDocument("> foo\n> *bar*\n");
+        var paragraph = parsed.getDocument().getFirstChild().getFirstChild();
+        assertEquals(List.of(SourceSpan.of(0, 2, 2, 3), SourceSpan.of(1, 2, 8, 5)), paragraph.getFirstChild().getSourceSpans());
+
+        parser.parseInlines(parsed, paragraph);
+        var emphasis = paragraph.getLastChild();
+        assertTrue(emphasis instanceof Emphasis);
+        assertEquals(List.of(SourceSpan.of(1, 2, 8, 5)), emphasis.getSourceSpans());
+    }
+
+    @Test
+    public void blocksOnlyParseInlinesAfterReparse() {
+        var parser = Parser.builder().blocksOnly().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+        var parsed = parser.parseDocument("[foo]\n\n[foo]: /url\n");
+        // Changes the definition, so the paragraph must use the new one
+        parsed = parser.reparse(parsed, "[foo]\n\n[foo]: /new\n", TextEdit.of(15, 3, 3));
+
+        var paragraph = parsed.getDocument().getFirstChild();
+        parser.parseInlines(parsed, paragraph);
+        assertEquals("<p><a href=\"/new\">foo</a></p>\n", RENDERER.render(paragraph));
+    }
+
+    @Test
+    public void blocksOnlyParseInlinesKeptBlockAfterReparse() {
+        var parser = Parser.builder().blocksOnly().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+        var parsed = parser.parseDocument("*foo*\n\nbar\n");
+        parsed = parser.reparse(parsed, "*foo*\n\nbaz\n", TextEdit.of(7, 3, 3));
+
+        var document = parsed.getDocument();
+        parser.parseInlines(parsed, document.getFirstChild());
+        parser.parseInlines(parsed, document.getLastChild());
+        assertEquals("<p><em>foo</em></p>\n<p>baz</p>\n", RENDERER.render(document));
+    }
+
+    @Test
+    public void blocksOnlyParseInlinesOnlyOnce() {
+        var parsed = BLOCKS_ONLY_PARSER.parseDocument("\\*foo\\*\n");
+        var paragraph = parsed.getDocument().getFirstChild();
+        BLOCKS_ONLY_PARSER.parseInlines(parsed, paragraph);
+        assertEquals("*foo*", ((Text) paragraph.getFirstChild()).getLiteral());
+
+        // The text is parsed content now, parsing it again would lose the escapes
+        BLOCKS_ONLY_PARSER.parseInlines(parsed, paragraph);
+        assertEquals("*foo*", ((Text) paragraph.getFirstChild()).getLiteral());
+        assertNull(paragraph.getFirstChild().getNext());
+    }
+
+    @Test
+    public void parseInlinesWithInlinesDoesNothing() {
+        var parsed = EAGER_PARSER.parseDocument("\\*foo\\*\n");
+        var paragraph = parsed.getDocument().getFirstChild();
+        EAGER_PARSER.parseInlines(parsed, paragraph);
+        assertEquals("<p>*foo*</p>\n", RENDERER.render(paragraph));
+    }
+
+    @Test
+    public void blocksOnlyWithBlockSourceSpansHasNoInlineSourceSpans() {
+        var parser = Parser.builder().blocksOnly().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+        var paragraph = parser.parse("foo\nbar\n").getFirstChild();
+        assertEquals(List.of(), paragraph.getFirstChild().getSourceSpans());
+    }
+
+    @Test
+    public void blocksOnlyParserDoesNotKeepDocuments() {
+        // The definitions of a document reference its nodes, the parser must not hold on to them
+        var reference = new WeakReference<>(BLOCKS_ONLY_PARSER.parse("[foo]\n\n[foo]: /url\n"));
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+}
@@ -47,4 +47,20 @@ public class Nodes {
         return Objects.requireNonNull(tryFind(parent, nodeClass),
                 "Could not find a " + nodeClass.getSimpleName() + " node in " + parent);
     }
+
+    /**
+     * Dump the tree of nodes with their source spans, one node per line, for comparing trees in assertions.
+     */
+    public static String dump(Node node) {
+        var sb = new StringBuilder();
+        dump(node, 0, sb);
+        return sb.toString();
+    }
+
+    private static void dump(Node node, int depth, StringBuilder sb) {
+        sb.append("  ".repeat(depth)).append(node).append(" ").append(node.getSourceSpans()).append("\n");
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            dump(child, depth + 1, sb);
+        }
+    }
 }
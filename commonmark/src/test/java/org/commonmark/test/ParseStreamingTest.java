@@ -0,0 +1,183 @@
+package org.commonmark.test;
+
+import org.commonmark.node.*;
+import org.commonmark.parser.ForwardReferences;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.testutil.TestResources;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParseStreamingTest {
+
+    private static final Parser PARSER = Parser.builder().build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    @Test
+    public void blocksAreDetached() throws IOException {
+        var blocks = parseStreaming("# Heading\n\n- a\n- b\n\n> quote\ntext\n", ForwardReferences.UNRESOLVED);
+        assertEquals(3, blocks.size());
+        assertTrue(blocks.get(0) instanceof Heading);
+        assertTrue(blocks.get(1) instanceof BulletList);
+        assertTrue(blocks.get(2) instanceof BlockQuote);
+        for (var block : blocks) {
+            assertNull(block.getParent());
+            assertNull(block.getPrevious());
+            assertNull(block.getNext());
+        }
+        assertEquals("<p>quote\ntext</p>\n", RENDERER.render(blocks.get(2).getFirstChild()));
+    }
+
+    @Test
+    public void forwardReferencesUnresolved() throws IOException {
+        var input = "[before]: /before\n\n[before] and [after]\n\n[after]: /after\n";
+        var blocks = parseStreaming(input, ForwardReferences.UNRESOLVED);
+        assertEquals("<p><a href=\"/before\">before</a> and [after]</p>\n", render(blocks));
+    }
+
+    @Test
+    public void forwardReferencesDeferred() throws IOException {
+        var input = "[before]: /before\n\n[before] and [after]\n\nmore\n\n[after]: /after\n\n[not a link]\n";
+        assertEquals(RENDERER.render(PARSER.parse(input)), render(parseStreaming(input, ForwardReferences.DEFERRED)));
+    }
+
+    @Test
+    public void specDeferredSameAsParse() throws IOException {
+        var parser = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+        var spec = TestResources.readAsString(TestResources.getSpec());
+        var expected = new ArrayList<Node>();
+        for (Node node = parser.parse(spec).getFirstChild(); node != null; node = node.getNext()) {
+            expected.add(node);
+        }
+
+        var blocks = new ArrayList<Node>();
+        parser.parseStreaming(new StringReader(spec), ForwardReferences.DEFERRED, blocks::add);
+
+        assertEquals(expected.size(), blocks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSourceSpans(), blocks.get(i).getSourceSpans());
+            assertEquals(RENDERER.render(expected.get(i)), RENDERER.render(blocks.get(i)));
+        }
+    }
+
+    @Test
+    public void parseBlocksForwardReferences() {
+        var input = "[before]: /before\n\n[before] and [after]\n\nmore\n\n[after]: /after\n\n[not a link]\n";
+        var blocks = new ArrayList<Node>();
+        PARSER.parseBlocks(input, blocks::add);
+        assertEquals(RENDERER.render(PARSER.parse(input)), render(blocks));
+    }
+
+    @Test
+    public void parseBlocksWithoutInlinesOrWithPostProcessor() {
+        var input = "*a* [b]\n\n> *c*\n\n[b]: /url\n";
+        var parsers = List.of(
+                Parser.builder().blocksOnly().build(),
+                Parser.builder().postProcessor(document -> {
+                    // Depends on the whole document
+                    document.appendChild(new Paragraph());
+                    document.getLastChild().appendChild(new Text("blocks: " + countChildren(document)));
+                    return document;
+                }).build());
+        for (var parser : parsers) {
+            var expected = new ArrayList<Node>();
+            for (Node node = parser.parse(input).getFirstChild(); node != null; node = node.getNext()) {
+                expected.add(node);
+            }
+            var blocks = new ArrayList<Node>();
+            parser.parseBlocks(input, blocks::add);
+
+            assertEquals(expected.size(), blocks.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertNull(blocks.get(i).getParent());
+                assertEquals(RENDERER.render(expected.get(i)), RENDERER.render(blocks.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void parseBlocksSpecSameAsParse() {
+        var parser = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+        var spec = TestResources.readAsString(TestResources.getSpec());
+        var expected = new ArrayList<Node>();
+        for (Node node = parser.parse(spec).getFirstChild(); node != null; node = node.getNext()) {
+            expected.add(node);
+        }
+
+        var blocks = new ArrayList<Node>();
+        parser.parseBlocks(spec, blocks::add);
+
+        assertEquals(expected.size(), blocks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertNull(blocks.get(i).getParent());
+            assertEquals(expected.get(i).getSourceSpans(), blocks.get(i).getSourceSpans());
+            assertEquals(RENDERER.render(expected.get(i)), RENDERER.render(blocks.get(i)));
+        }
+    }
+
+    @Test
+    public void blocksArePassedBeforeEndOfInput() throws IOException {
+        var input = "first\n\n" + "paragraph\n\n".repeat(100_000);
+        var reader = new CountingReader(new StringReader(input));
+        var charsReadAtFirstBlock = new ArrayList<Integer>();
+        PARSER.parseStreaming(reader, block -> {
+            if (charsReadAtFirstBlock.isEmpty()) {
+                charsReadAtFirstBlock.add(reader.count);
+            }
+        });
+        assertTrue(charsReadAtFirstBlock.get(0) < input.length() / 10);
+    }
+
+    private static List<Node> parseStreaming(String input, ForwardReferences forwardReferences) throws IOException {
+        var blocks = new ArrayList<Node>();
+        PARSER.parseStreaming(new StringReader(input), forwardReferences, blocks::add);
+        return blocks;
+    }
+
+    private static String render(List<Node> blocks) {
+        var sb = new StringBuilder();
+        for (var block : blocks) {
+            sb.append(RENDERER.render(block));
+        }
+        return sb.toString();
+    }
+
+    private static int countChildren(Node node) {
+        int count = 0;
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static class CountingReader extends Reader {
+        private final Reader reader;
+        private int count;
+
+        CountingReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = reader.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
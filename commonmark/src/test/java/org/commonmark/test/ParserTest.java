@@ -5,12 +5,17 @@ import org.commonmark.parser.*;
 import org.commonmark.parser.block.*;
 import org.commonmark.renderer.html.HtmlRenderer;
 import org.commonmark.testutil.TestResources;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -18,14 +23,19 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class ParserTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void ioReaderTest() throws IOException {
         Parser parser = Parser.builder().build();
@@ -43,6 +53,52 @@ public class ParserTest {
         assertEquals(renderer.render(document2), renderer.render(document1));
     }
 
+    @Test
+    public void utf8BytesTest() {
+        Parser parser = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+        HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(true).build();
+
+        String spec = TestResources.readAsString(TestResources.getSpec()).replace("\n", "\r\n") + "ü 日本語 \uD83D\uDE00";
+        Node expected = parser.parse(spec);
+
+        byte[] bytes = spec.getBytes(StandardCharsets.UTF_8);
+        Node fromBytes = parser.parse(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        Node fromDirectBuffer = parser.parse(direct);
+
+        assertEquals(renderer.render(expected), renderer.render(fromBytes));
+        assertEquals(renderer.render(expected), renderer.render(fromDirectBuffer));
+        assertEquals(expected.getLastChild().getSourceSpans(), fromBytes.getLastChild().getSourceSpans());
+        assertEquals(expected.getLastChild().getSourceSpans(), fromDirectBuffer.getLastChild().getSourceSpans());
+    }
+
+    @Test
+    public void pathTest() throws IOException {
+        Parser parser = Parser.builder().build();
+        HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(true).build();
+
+        // A file can't be changed or deleted while it's mapped on some platforms (e.g. Windows), and the mapping is
+        // only released when it's garbage collected. So use a new file for each parse and leave deleting them to the
+        // temporary folder, which ignores failures.
+        String spec = TestResources.readAsString(TestResources.getSpec());
+        Path file = temporaryFolder.newFile("spec.md").toPath();
+        Files.writeString(file, spec);
+        assertEquals(renderer.render(parser.parse(spec)), renderer.render(parser.parse(file)));
+
+        Path empty = temporaryFolder.newFile("empty.md").toPath();
+        assertNull(parser.parse(empty).getFirstChild());
+    }
+
+    @Test
+    public void parseParallelTest() {
+        Parser parser = Parser.builder().build();
+        HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(true).build();
+
+        String spec = TestResources.readAsString(TestResources.getSpec());
+        String input = (spec + "\n").repeat(3);
+        assertEquals(renderer.render(parser.parse(input)), renderer.render(parser.parseParallel(input, ForkJoinPool.commonPool())));
+    }
+
     @Test
     public void customBlockParserFactory() {
         Parser parser = Parser.builder().customBlockParserFactory(new DashBlockParserFactory()).build();
@@ -55,6 +111,18 @@ public class ParserTest {
         assertThat(document.getLastChild(), instanceOf(DashBlock.class));
     }
 
+    @Test
+    public void blockParserFactoryTriggerCharacters() {
+        var factory = new TriggeredDashBlockParserFactory();
+        Parser parser = Parser.builder().customBlockParserFactory(factory).build();
+
+        Node document = parser.parse("    code\n\n> quote\n\n---\n\n* item\n\n\u00e9\n");
+
+        assertThat(document.getFirstChild().getNext().getNext(), instanceOf(DashBlock.class));
+        // Only called for the line that is indented as code and the line starting with a trigger character
+        assertEquals(List.of('c', '-'), factory.triedCharacters);
+    }
+
     @Test
     public void enabledBlockTypes() {
         String given = "# heading 1\n\nnot a heading";
@@ -188,4 +256,20 @@ public class ParserTest {
             return BlockStart.none();
         }
     }
+
+    private static class TriggeredDashBlockParserFactory extends DashBlockParserFactory {
+
+        private final List<Character> triedCharacters = new ArrayList<>();
+
+        @Override
+        public Set<Character> getTriggerCharacters() {
+            return Set.of('-');
+        }
+
+        @Override
+        public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
+            triedCharacters.add(state.getLine().getContent().charAt(state.getNextNonSpaceIndex()));
+            return super.tryStart(state, matchedBlockParser);
+        }
+    }
 }
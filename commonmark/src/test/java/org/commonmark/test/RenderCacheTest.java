@@ -0,0 +1,166 @@
+package org.commonmark.test;
+
+import org.commonmark.node.Node;
+import org.commonmark.node.Paragraph;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.NodeRenderer;
+import org.commonmark.renderer.html.DefaultUrlSanitizer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.html.RenderCache;
+import org.commonmark.testutil.TestResources;
+import org.commonmark.testutil.example.ExampleReader;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RenderCacheTest {
+
+    private static final Parser PARSER = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+
+    @Test
+    public void specSameAsWithoutCache() {
+        var cache = new RenderCache(10_000_000);
+        var configs = List.of(
+                HtmlRenderer.builder(),
+                HtmlRenderer.builder().escapeHtml(true).percentEncodeUrls(true),
+                HtmlRenderer.builder().sanitizeUrls(true),
+                HtmlRenderer.builder().softbreak("<br />"));
+        for (var config : configs) {
+            HtmlRenderer withoutCache = config.build();
+            HtmlRenderer withCache = config.renderCache(cache).build();
+            for (String source : ExampleReader.readExampleSources(TestResources.getSpec())) {
+                String expected = withoutCache.render(PARSER.parse(source));
+                // First adds the blocks to the cache, then uses them
+                assertEquals(source, expected, withCache.renderMarkdown(PARSER, source));
+                assertEquals(source, expected, withCache.renderMarkdown(PARSER, source));
+            }
+        }
+        assertTrue(cache.getHitCount() > 0);
+    }
+
+    @Test
+    public void hitsAndMisses() {
+        var cache = new RenderCache(1000);
+        var renderer = HtmlRenderer.builder().renderCache(cache).build();
+        String source = "# Heading\n\ntext\n\n# Heading\n";
+        assertEquals("<h1>Heading</h1>\n<p>text</p>\n<h1>Heading</h1>\n", renderer.renderMarkdown(PARSER, source));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getEntryCount());
+
+        renderer.renderMarkdown(PARSER, source);
+        assertEquals(4, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void resolvedReferences() {
+        var renderer = HtmlRenderer.builder().renderCache(new RenderCache(1000)).build();
+        assertEquals("<p><a href=\"/a\">foo</a></p>\n", renderer.renderMarkdown(PARSER, "[foo]\n\n[foo]: /a\n"));
+        assertEquals("<p><a href=\"/b\">foo</a></p>\n", renderer.renderMarkdown(PARSER, "[foo]\n\n[foo]: /b\n"));
+        assertEquals("<p>[foo]</p>\n", renderer.renderMarkdown(PARSER, "[foo]\n"));
+    }
+
+    @Test
+    public void indentationOfFirstLine() {
+        var renderer = HtmlRenderer.builder().renderCache(new RenderCache(1000)).build();
+        assertEquals("<pre><code>  code\n</code></pre>\n", renderer.renderMarkdown(PARSER, "```\n  code\n  ```\n"));
+        assertEquals("<pre><code>code\n</code></pre>\n", renderer.renderMarkdown(PARSER, "  ```\n  code\n  ```\n"));
+    }
+
+    @Test
+    public void parserIsPartOfKey() {
+        var cache = new RenderCache(1000);
+        var renderer = HtmlRenderer.builder().renderCache(cache).build();
+        var blocksOnly = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS).blocksOnly().build();
+        assertEquals("<p><em>a</em></p>\n", renderer.renderMarkdown(PARSER, "*a*\n"));
+        assertEquals("<p>*a*</p>\n", renderer.renderMarkdown(blocksOnly, "*a*\n"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void notUsedWithoutSourceSpans() {
+        var cache = new RenderCache(1000);
+        var renderer = HtmlRenderer.builder().renderCache(cache).build();
+        assertEquals("<p>text</p>\n", renderer.renderMarkdown(Parser.builder().build(), "text\n"));
+        assertEquals("<p>text</p>\n", renderer.render(PARSER.parse("text\n")));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void configurationIsPartOfKey() {
+        var cache = new RenderCache(1000);
+        var raw = HtmlRenderer.builder().renderCache(cache).build();
+        var escaping = HtmlRenderer.builder().escapeHtml(true).renderCache(cache).build();
+        assertEquals("<p><b>x</b></p>\n", raw.renderMarkdown(PARSER, "<b>x</b>\n"));
+        assertEquals("<p>&lt;b&gt;x&lt;/b&gt;</p>\n", escaping.renderMarkdown(PARSER, "<b>x</b>\n"));
+
+        var allowFtp = HtmlRenderer.builder().sanitizeUrls(true).urlSanitizer(new DefaultUrlSanitizer(Set.of("ftp")))
+                .renderCache(cache).build();
+        var allowHttp = HtmlRenderer.builder().sanitizeUrls(true).urlSanitizer(new DefaultUrlSanitizer(Set.of("http")))
+                .renderCache(cache).build();
+        assertEquals("<p><a rel=\"nofollow\" href=\"ftp://x\">a</a></p>\n", allowFtp.renderMarkdown(PARSER, "[a](ftp://x)\n"));
+        assertEquals("<p><a rel=\"nofollow\" href=\"\">a</a></p>\n", allowHttp.renderMarkdown(PARSER, "[a](ftp://x)\n"));
+    }
+
+    @Test
+    public void eviction() {
+        var cache = new RenderCache(100);
+        var renderer = HtmlRenderer.builder().renderCache(cache).build();
+        for (int i = 0; i < 20; i++) {
+            renderer.renderMarkdown(PARSER, "paragraph " + i + "\n");
+            assertTrue(cache.getSize() <= 100);
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+        assertEquals(20, cache.getEntryCount() + cache.getEvictionCount());
+
+        // Most recently used entries are kept
+        renderer.renderMarkdown(PARSER, "paragraph 19\n");
+        assertEquals(1, cache.getHitCount());
+        renderer.renderMarkdown(PARSER, "paragraph 0\n");
+        assertEquals(1, cache.getHitCount());
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void notUsedWithAttributeProviders() {
+        var cache = new RenderCache(1000);
+        var renderer = HtmlRenderer.builder().renderCache(cache)
+                .attributeProviderFactory(context -> (node, tagName, attributes) -> attributes.put("id", "x"))
+                .build();
+        assertEquals("<p id=\"x\">text</p>\n", renderer.renderMarkdown(PARSER, "text\n"));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void notUsedWithCustomNodeRenderers() {
+        var cache = new RenderCache(1000);
+        var renderer = HtmlRenderer.builder().renderCache(cache).nodeRendererFactory(context -> new NodeRenderer() {
+            private int count = 0;
+
+            @Override
+            public Set<Class<? extends Node>> getNodeTypes() {
+                return Set.of(Paragraph.class);
+            }
+
+            @Override
+            public void render(Node node) {
+                context.getWriter().raw("<p>" + ++count + "</p>\n");
+            }
+        }).build();
+        String source = "# Heading\n\ntext\n\n> text\n";
+        assertEquals("<h1>Heading</h1>\n<p>1</p>\n<blockquote>\n<p>2</p>\n</blockquote>\n",
+                renderer.renderMarkdown(PARSER, source));
+        assertEquals("<h1>Heading</h1>\n<p>1</p>\n<blockquote>\n<p>2</p>\n</blockquote>\n",
+                renderer.renderMarkdown(PARSER, source));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+}
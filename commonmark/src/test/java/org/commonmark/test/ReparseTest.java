@@ -0,0 +1,161 @@
+package org.commonmark.test;
+
+import org.commonmark.node.*;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.parser.TextEdit;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReparseTest {
+
+    private static final Parser PARSER = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS_AND_INLINES).build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    private static final String DOCUMENT = "# Title\n" +
+            "\n" +
+            "Some *text* with a [link][ref]\n" +
+            "and a lazy\n" +
+            "> quote\n" +
+            "continued\n" +
+            "\n" +
+            "- item\n" +
+            "\n" +
+            "  more\n" +
+            "- [other]\n" +
+            "\n" +
+            "```\n" +
+            "code\n" +
+            "```\n" +
+            "\n" +
+            "    indented\n" +
+            "\n" +
+            "Setext\n" +
+            "---\n" +
+            "\n" +
+            "[ref]: /url \"title\"\n" +
+            "[other]: /other\n" +
+            "\n" +
+            "<div>\n" +
+            "html\n" +
+            "</div>\n" +
+            "\n" +
+            "last paragraph\n";
+
+    private static final List<String> INSERTIONS = List.of(
+            "x", " ", "\n", "\n\n", "# ", "- ", "> ", "```", "---\n", "    ", "[ref]: /changed\n", "<div>\n");
+
+    @Test
+    public void insertions() {
+        for (int i = 0; i <= DOCUMENT.length(); i++) {
+            for (var insertion : INSERTIONS) {
+                var newText = DOCUMENT.substring(0, i) + insertion + DOCUMENT.substring(i);
+                assertReparse(DOCUMENT, newText, TextEdit.of(i, 0, insertion.length()));
+            }
+        }
+    }
+
+    @Test
+    public void deletions() {
+        for (int i = 0; i < DOCUMENT.length(); i++) {
+            for (int length = 1; length <= 5 && i + length <= DOCUMENT.length(); length++) {
+                var newText = DOCUMENT.substring(0, i) + DOCUMENT.substring(i + length);
+                assertReparse(DOCUMENT, newText, TextEdit.of(i, length, 0));
+            }
+        }
+    }
+
+    @Test
+    public void replacements() {
+        for (int i = 0; i < DOCUMENT.length(); i++) {
+            var newText = DOCUMENT.substring(0, i) + "\n***\n" + DOCUMENT.substring(i + 1);
+            assertReparse(DOCUMENT, newText, TextEdit.of(i, 1, 5));
+        }
+    }
+
+    @Test
+    public void repeatedEdits() {
+        var text = DOCUMENT;
+        var document = PARSER.parseDocument(text);
+        for (int i = 0; i < 20; i++) {
+            int index = text.indexOf("last");
+            text = text.substring(0, index) + "word " + text.substring(index);
+            document = PARSER.reparse(document, text, TextEdit.of(index, 0, 5));
+            assertEquals(dump(PARSER.parse(text)), dump(document.getDocument()));
+        }
+    }
+
+    @Test
+    public void unaffectedBlocksAreKept() {
+        var parsed = PARSER.parseDocument(DOCUMENT);
+        var document = parsed.getDocument();
+        var heading = document.getFirstChild();
+        var html = document.getLastChild().getPrevious();
+        assertTrue(html instanceof HtmlBlock);
+
+        int index = DOCUMENT.indexOf("code");
+        var newText = DOCUMENT.substring(0, index) + "more " + DOCUMENT.substring(index);
+        var result = PARSER.reparse(parsed, newText, TextEdit.of(index, 0, 5)).getDocument();
+
+        assertSame(document, result);
+        assertSame(heading, result.getFirstChild());
+        assertSame(html, result.getLastChild().getPrevious());
+        assertEquals(SourceSpan.of(24, 0, DOCUMENT.indexOf("<div>") + 5, 5), html.getSourceSpans().get(0));
+        assertEquals(dump(PARSER.parse(newText)), dump(result));
+    }
+
+    @Test
+    public void changedDefinitionParsesEverything() {
+        var parsed = PARSER.parseDocument(DOCUMENT);
+        var heading = parsed.getDocument().getFirstChild();
+
+        int index = DOCUMENT.indexOf("/url");
+        var newText = DOCUMENT.substring(0, index) + "/new" + DOCUMENT.substring(index + 4);
+        var result = PARSER.reparse(parsed, newText, TextEdit.of(index, 4, 4)).getDocument();
+
+        assertNotSame(heading, result.getFirstChild());
+        assertEquals(dump(PARSER.parse(newText)), dump(result));
+        assertTrue(RENDERER.render(result).contains("<a href=\"/new\" title=\"title\">link</a>"));
+    }
+
+    @Test
+    public void withoutSourceSpans() {
+        var parser = Parser.builder().build();
+        var document = parser.parseDocument("foo\n\nbar\n");
+        var result = parser.reparse(document, "foo\n\nbaz\n", TextEdit.of(7, 1, 1));
+        assertEquals("<p>foo</p>\n<p>baz</p>\n", RENDERER.render(result.getDocument()));
+    }
+
+    @Test
+    public void parserDoesNotKeepDocuments() {
+        // The definitions of a document reference its nodes, the parser must not hold on to them
+        var parsed = PARSER.parseDocument("[foo]\n\n[foo]: /url\n");
+        var reference = new WeakReference<>(parsed.getDocument());
+        parsed = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void editOutsideOfText() {
+        var document = PARSER.parseDocument("foo");
+        PARSER.reparse(document, "foo", TextEdit.of(2, 0, 2));
+    }
+
+    private static void assertReparse(String oldText, String newText, TextEdit edit) {
+        var document = PARSER.parseDocument(oldText);
+        var result = PARSER.reparse(document, newText, edit);
+        assertEquals("Edit " + edit + " of:\n" + oldText, dump(PARSER.parse(newText)), dump(result.getDocument()));
+    }
+
+    private static String dump(Node document) {
+        return Nodes.dump(document) + RENDERER.render(document);
+    }
+}
@@ -379,6 +379,42 @@ public class SourceSpansTest {
         assertInlineSpans(input, Emphasis.class, SourceSpan.of(5, 2, 22, 4));
     }
 
+    @Test
+    public void nodeSpansAddAndSet() {
+        var node = new Paragraph();
+        for (int i = 0; i < 5; i++) {
+            node.addSourceSpan(SourceSpan.of(i, 1, i * 10 + 1, 3));
+        }
+        var spans = node.getSourceSpans();
+        assertEquals(5, spans.size());
+        assertEquals(SourceSpan.of(4, 1, 41, 3), spans.get(4));
+
+        // Lists that were returned earlier don't change
+        node.addSourceSpan(SourceSpan.of(5, 0, 50, 1));
+        assertEquals(5, spans.size());
+        assertEquals(6, node.getSourceSpans().size());
+
+        var other = new Text("foo");
+        other.setSourceSpans(node.getSourceSpans());
+        node.setSourceSpans(List.of());
+        assertEquals(List.of(), node.getSourceSpans());
+        assertEquals(SourceSpan.of(5, 0, 50, 1), other.getSourceSpans().get(5));
+    }
+
+    @Test
+    public void sourceSpansMerge() {
+        var sourceSpans = SourceSpans.empty();
+        sourceSpans.addAll(List.of(SourceSpan.of(0, 0, 0, 2)));
+        var first = sourceSpans.getSourceSpans();
+        sourceSpans.addAll(List.of(SourceSpan.of(0, 2, 2, 3), SourceSpan.of(1, 0, 6, 4)));
+        sourceSpans.addAll(List.of(SourceSpan.of(1, 5, 11, 1)));
+
+        assertEquals(List.of(SourceSpan.of(0, 0, 0, 5), SourceSpan.of(1, 0, 6, 4), SourceSpan.of(1, 5, 11, 1)),
+                sourceSpans.getSourceSpans());
+        // Merging doesn't change the list returned before
+        assertEquals(List.of(SourceSpan.of(0, 0, 0, 2)), first);
+    }
+
     private void assertVisualize(String source, String expected) {
         var doc = PARSER.parse(source);
         assertEquals(expected, SourceSpanRenderer.renderWithLineColumn(doc, source));
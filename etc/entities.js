@@ -1,19 +1,82 @@
 // 1. curl -O "https://html.spec.whatwg.org/multipage/entities.json"
-// 2. run this script with node
+// 2. run this script with node (in the directory of entities.json, with the path to the repository as argument)
 
 var fs = require('fs');
+var path = require('path');
 var data = JSON.parse(fs.readFileSync("entities.json"));
+var repository = process.argv[2] || "..";
+var output = path.join(repository, "commonmark/src/main/java/org/commonmark/internal/util/Html5EntityData.java");
 
-var result = "";
+var entities = [];
 for (var key in data) {
   // exclude names not ending with ";" as per CommonMark spec
   if (!data.hasOwnProperty(key) || key.slice(-1) !== ";") {
     continue;
   }
-  // special handling
-  if (key === 'NewLine') {
-    continue;
+  entities.push([key.slice(1, -1), data[key].characters]);
+}
+// Sort by UTF-16 code units like String.compareTo (names are ASCII)
+entities.sort(function (a, b) {
+  return a[0] < b[0] ? -1 : a[0] > b[0] ? 1 : 0;
+});
+
+function escape(c) {
+  if (c >= 0x20 && c < 0x7F && c !== 0x22 && c !== 0x5C) {
+    return String.fromCharCode(c);
+  }
+  switch (c) {
+    // Unicode escapes of these would be translated before the string literal is parsed
+    case 0x0A: return "\\n";
+    case 0x0D: return "\\r";
+    case 0x22: return "\\\"";
+    case 0x5C: return "\\\\";
+    default: return "\\u" + ("000" + c.toString(16).toUpperCase()).slice(-4);
+  }
+}
+
+// Split into multiple literals to keep lines reasonably short
+function literal(s) {
+  var lines = [];
+  var line = "";
+  for (var i = 0; i < s.length; i++) {
+    var escaped = escape(s.charCodeAt(i));
+    if (line.length + escaped.length > 96) {
+      lines.push('"' + line + '"');
+      line = "";
+    }
+    line += escaped;
+  }
+  lines.push('"' + line + '"');
+  return lines.join(" +\n            ");
+}
+
+function offsets(strings) {
+  var result = "";
+  var offset = 0;
+  for (var i = 0; i < strings.length; i++) {
+    result += String.fromCharCode(offset);
+    offset += strings[i].length;
   }
-  result += key.slice(1, -1) + '=' + data[key].characters + '\n';
+  return result + String.fromCharCode(offset);
 }
-fs.writeFileSync("entities.properties", result);
+
+var names = entities.map(function (e) { return e[0]; });
+var values = entities.map(function (e) { return e[1]; });
+
+var result = "package org.commonmark.internal.util;\n\n" +
+    "/**\n" +
+    " * HTML named character references, generated by etc/entities.js from the HTML spec's entities.json. Don't edit.\n" +
+    " * <p>\n" +
+    " * The names are sorted and concatenated, and so are their values. The offsets strings contain the start index of\n" +
+    " * each name/value (as a char) followed by the end index of the last one.\n" +
+    " */\n" +
+    "final class Html5EntityData {\n\n" +
+    "    static final int COUNT = " + entities.length + ";\n\n" +
+    "    static final String NAMES =\n            " + literal(names.join("")) + ";\n\n" +
+    "    static final String NAME_OFFSETS =\n            " + literal(offsets(names)) + ";\n\n" +
+    "    static final String VALUES =\n            " + literal(values.join("")) + ";\n\n" +
+    "    static final String VALUE_OFFSETS =\n            " + literal(offsets(values)) + ";\n\n" +
+    "    private Html5EntityData() {\n" +
+    "    }\n" +
+    "}\n";
+fs.writeFileSync(output, result);